@@ -1,5 +1,6 @@
 plugins {
     id("application")
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "org.example"
@@ -16,10 +17,66 @@ dependencies {
     implementation("com.google.guava:guava:33.3.1-jre")
 }
 
+// BatchScorer uses the incubating Vector API when it is available at run time, and needs it to compile.
+val vectorModule = listOf("--add-modules", "jdk.incubator.vector")
+
+tasks.withType<JavaCompile> {
+    options.compilerArgs.addAll(vectorModule)
+    // Concatenate strings with StringBuilder rather than invokedynamic. The first indy concatenation spins method
+    // handle classes for tens of milliseconds, most of the headless command line's startup.
+    options.compilerArgs.add("-XDstringConcat=inline")
+}
+
 tasks.test {
     useJUnitPlatform()
+    jvmArgs(vectorModule)
 }
 
 application {
     mainClass = "org.example.Main"
+    applicationDefaultJvmArgs = vectorModule
+}
+
+// The headless command line, org.example.Cli. ./gradlew cliArchive plays a game of bots to dump the classes it loads into
+// an AppCDS archive, which ./gradlew cli -PcliArgs="play human greedy" then maps instead of loading them one by one.
+val cliArchive = layout.buildDirectory.file("cds/cli.jsa")
+
+tasks.register<JavaExec>("cliArchive") {
+    group = "application"
+    description = "Builds the AppCDS archive for the headless command line."
+    classpath = files(tasks.jar, configurations.runtimeClasspath)
+    mainClass = "org.example.Cli"
+    args("play", "--seed", "1", "greedy", "greedy")
+    jvmArgs("-XX:ArchiveClassesAtExit=${cliArchive.get().asFile}")
+    outputs.file(cliArchive)
+    doFirst { cliArchive.get().asFile.parentFile.mkdirs() }
+}
+
+tasks.register<JavaExec>("cli") {
+    group = "application"
+    description = "Runs the headless command line with -PcliArgs, from the AppCDS archive if it has been built."
+    // The archive only matches the jar it was dumped from, so run from the jar rather than the class directories.
+    classpath = files(tasks.jar, configurations.runtimeClasspath)
+    mainClass = "org.example.Cli"
+    standardInput = System.`in`
+    args(findProperty("cliArgs")?.toString()?.split(" ")?.filter { it.isNotEmpty() } ?: emptyList())
+    doFirst {
+        if (cliArchive.get().asFile.exists()) {
+            jvmArgs("-XX:SharedArchiveFile=${cliArchive.get().asFile}")
+        }
+    }
+}
+
+// Benchmarks live in src/jmh/java. Run with ./gradlew jmh, or narrow down with -PjmhIncludes=<regex>.
+jmh {
+    jmhVersion = "1.37"
+    fork = 1
+    warmupIterations = 3
+    iterations = 5
+    profilers.add("gc")
+    resultFormat = "JSON"
+    jvmArgsAppend.addAll(vectorModule)
+    if (project.hasProperty("jmhIncludes")) {
+        includes.add(project.property("jmhIncludes").toString())
+    }
 }
@@ -0,0 +1,70 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batch scoring throughput, against scoring the same rolls one at a time through {@link ScoringTable}. Results are
+ * per batch of {@link #rows} rolls.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BatchScorerBenchmark {
+    @Param({"4096", "65536"})
+    public int rows;
+
+    private int[][] dice;
+    private int[] histograms;
+    private boolean[] joker;
+    private int[][] scores;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        ScoringTable table = ScoringTable.get();
+        dice = new int[ScoringTable.DICE_COUNT][rows];
+        histograms = new int[rows];
+        joker = new boolean[rows];
+        scores = new int[ScoringTable.BOX_COUNT][rows];
+        int[] roll = new int[ScoringTable.DICE_COUNT];
+        for (int row = 0; row < rows; row++) {
+            for (int i = 0; i < ScoringTable.DICE_COUNT; i++) {
+                roll[i] = random.nextInt(1, 7);
+                dice[i][row] = roll[i];
+            }
+            histograms[row] = table.histogram(table.multisetOf(ScoringTable.rollIndex(roll)));
+            joker[row] = random.nextInt(10) == 0;
+        }
+    }
+
+    @Benchmark
+    public int[][] scoreDice() {
+        BatchScorer.scoreDice(dice, joker, 0, rows, scores);
+        return scores;
+    }
+
+    @Benchmark
+    public int[][] scoreHistograms() {
+        BatchScorer.scoreHistograms(histograms, joker, 0, rows, scores);
+        return scores;
+    }
+
+    @Benchmark
+    public int[][] scoreOneAtATime() {
+        ScoringTable table = ScoringTable.get();
+        int[] roll = new int[ScoringTable.DICE_COUNT];
+        for (int row = 0; row < rows; row++) {
+            for (int i = 0; i < ScoringTable.DICE_COUNT; i++) {
+                roll[i] = dice[i][row];
+            }
+            int multiset = table.multisetOf(ScoringTable.rollIndex(roll));
+            for (int box = 0; box < ScoringTable.BOX_COUNT; box++) {
+                scores[box][row] = table.score(multiset, box, joker[row]);
+            }
+        }
+        return scores;
+    }
+}
@@ -0,0 +1,147 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the game engine hot paths. Each benchmark thread owns its own game, so the multithreaded subclass
+ * measures how well the engine scales rather than contention on shared state.
+ *
+ * <p>The dice are rolled from a fixed seed and the dice sets are generated up front from it, so runs with the same
+ * parameters see the same rolls. The score sheet does not listen to the game, so the engine benchmarks post no work to
+ * the event dispatch thread; the score sheet benchmarks pass it events themselves.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public abstract class GameBenchmark {
+    private static final int DICE_SET_COUNT = 1024;
+
+    @Param({"1", "4"})
+    public int playerCount;
+
+    @Param({"42", "1234"})
+    public long seed;
+
+    private List<YahtzeePlayer> players;
+    private List<List<Integer>> diceSets;
+    private YahtzeeGame game;
+    private List<Combination> combinations;
+    private ScoreTableModel model;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        players = new ArrayList<>();
+        for (int i = 0; i < playerCount; i++) {
+            players.add(new YahtzeePlayer("Player " + (i + 1)));
+        }
+
+        Random random = new Random(seed);
+        diceSets = new ArrayList<>();
+        for (int i = 0; i < DICE_SET_COUNT; i++) {
+            diceSets.add(random.ints(5, 1, 7).boxed().toList());
+        }
+
+        newGame();
+    }
+
+    private void newGame() {
+        game = new YahtzeeGame(players, new YahtzeeDice(DiceRoller.seeded(seed)));
+        combinations = new ArrayList<>(game.getUpperCombinations());
+        combinations.addAll(game.getLowerCombinations());
+        model = ScoreTableModel.unattached(game);
+    }
+
+    private void nextDice() {
+        game.setDice(diceSets.get(next));
+        next = (next + 1) % DICE_SET_COUNT;
+    }
+
+    private Combination firstUnplayed() {
+        var moves = game.getPlayerMoves(game.getWhoseTurn());
+        for (Combination combo : combinations) {
+            if (!moves.containsKey(combo)) {
+                return combo;
+            }
+        }
+        throw new IllegalStateException("No moves left");
+    }
+
+    @Benchmark
+    public void makeMove() {
+        if (game.isGameOver()) {
+            newGame();
+        }
+        nextDice();
+        game.makeMove(firstUnplayed());
+    }
+
+    @Benchmark
+    public void rollDice() {
+        if (game.getRollsRemaining() == 0) {
+            if (game.isGameOver()) {
+                newGame();
+            }
+            game.makeMove(firstUnplayed());
+        }
+        game.rollDice();
+    }
+
+    @Benchmark
+    public boolean isJoker() {
+        nextDice();
+        return game.isJoker();
+    }
+
+    @Benchmark
+    public boolean isYahtzee() {
+        nextDice();
+        return game.isYahtzee();
+    }
+
+    @Benchmark
+    public void scoreAllCombinations(Blackhole bh) {
+        nextDice();
+        for (Combination combo : combinations) {
+            bh.consume(combo.score());
+        }
+    }
+
+    /**
+     * A roll recomputes the current player's column, then the table is painted from the cache.
+     */
+    @Benchmark
+    public void scoreTableRoll(Blackhole bh) {
+        nextDice();
+        model.gameStateChanged(GameEvent.of(GameEvent.Type.DICE_ROLLED));
+        paintScoreTable(bh);
+    }
+
+    /**
+     * A move recomputes every column, then the table is painted from the cache.
+     */
+    @Benchmark
+    public void scoreTableMove(Blackhole bh) {
+        if (game.isGameOver()) {
+            newGame();
+        }
+        nextDice();
+        game.makeMove(firstUnplayed());
+        model.gameStateChanged(GameEvent.of(GameEvent.Type.MOVE_MADE).with(GameEvent.Type.TURN_ADVANCED));
+        paintScoreTable(bh);
+    }
+
+    private void paintScoreTable(Blackhole bh) {
+        for (int row = 0; row < model.getRowCount(); row++) {
+            for (int column = 0; column < model.getColumnCount(); column++) {
+                bh.consume(model.getValueAt(row, column));
+            }
+        }
+    }
+}
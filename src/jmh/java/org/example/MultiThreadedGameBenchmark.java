@@ -0,0 +1,10 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Runs the {@link GameBenchmark} suite with one thread per available processor.
+ */
+@Threads(Threads.MAX)
+public class MultiThreadedGameBenchmark extends GameBenchmark {
+}
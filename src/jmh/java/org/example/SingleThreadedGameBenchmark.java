@@ -0,0 +1,7 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Threads;
+
+@Threads(1)
+public class SingleThreadedGameBenchmark extends GameBenchmark {
+}
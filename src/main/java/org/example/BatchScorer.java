@@ -0,0 +1,97 @@
+package org.example;
+
+/**
+ * Scores many rolls at once, for simulations and solvers that would otherwise score them one game at a time.
+ *
+ * <p>Rolls are passed as columns (struct of arrays): either five dice columns, {@code dice[i][row]} being die
+ * {@code i} of row {@code row}, or one column of face counts packed as by {@link ScoringTable#histogram}. An optional
+ * {@code joker} column says which rows have a Joker on the table; pass {@code null} for none. The 13 scores of each row
+ * are written to {@code scores[box][row]}, with boxes numbered as in {@link ScoringTable}, and match what
+ * {@link ScoringTable#score} gives for the same roll. A row that is not a roll of five dice, with a die outside 1-6 or
+ * face counts that do not add up, throws {@link IllegalArgumentException}.
+ *
+ * <p>When the JVM is started with {@code --add-modules jdk.incubator.vector}, rows are scored many at a time with the
+ * Vector API; otherwise each row is looked up in the {@link ScoringTable}.
+ */
+public final class BatchScorer {
+    /**
+     * Whether the Vector API is available and used. Set the {@code yahtzee.scalarScoring} system property to turn it
+     * off.
+     */
+    public static final boolean VECTORIZED = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()
+            && !Boolean.getBoolean("yahtzee.scalarScoring");
+
+    private BatchScorer() {
+    }
+
+    /**
+     * Scores rows {@code from} (inclusive) to {@code to} (exclusive) of the given dice columns.
+     */
+    public static void scoreDice(int[][] dice, boolean[] joker, int from, int to, int[][] scores) {
+        checkColumns(dice.length, scores);
+        int next = VECTORIZED ? VectorBatchScorer.scoreDice(dice, joker, from, to, scores) : from;
+        ScoringTable table = ScoringTable.get();
+        int[] roll = new int[ScoringTable.DICE_COUNT];
+        for (int row = next; row < to; row++) {
+            for (int i = 0; i < ScoringTable.DICE_COUNT; i++) {
+                roll[i] = dice[i][row];
+            }
+            checkFaces(roll, row);
+            scoreRow(table, table.multisetOf(ScoringTable.rollIndex(roll)), joker != null && joker[row], row, scores);
+        }
+    }
+
+    /**
+     * Scores rows {@code from} (inclusive) to {@code to} (exclusive) of the given dice columns, one byte per die.
+     */
+    public static void scoreDice(byte[][] dice, boolean[] joker, int from, int to, int[][] scores) {
+        checkColumns(dice.length, scores);
+        int next = VECTORIZED ? VectorBatchScorer.scoreDice(dice, joker, from, to, scores) : from;
+        ScoringTable table = ScoringTable.get();
+        int[] roll = new int[ScoringTable.DICE_COUNT];
+        for (int row = next; row < to; row++) {
+            for (int i = 0; i < ScoringTable.DICE_COUNT; i++) {
+                roll[i] = dice[i][row];
+            }
+            checkFaces(roll, row);
+            scoreRow(table, table.multisetOf(ScoringTable.rollIndex(roll)), joker != null && joker[row], row, scores);
+        }
+    }
+
+    /**
+     * Scores rows {@code from} (inclusive) to {@code to} (exclusive) of the given packed face counts.
+     */
+    public static void scoreHistograms(int[] histograms, boolean[] joker, int from, int to, int[][] scores) {
+        checkColumns(ScoringTable.DICE_COUNT, scores);
+        int next = VECTORIZED ? VectorBatchScorer.scoreHistograms(histograms, joker, from, to, scores) : from;
+        ScoringTable table = ScoringTable.get();
+        for (int row = next; row < to; row++) {
+            int multiset = table.multisetOfHistogram(histograms[row]);
+            if (multiset < 0) {
+                throw new IllegalArgumentException("Row " + row + " is not a roll of five dice");
+            }
+            scoreRow(table, multiset, joker != null && joker[row], row, scores);
+        }
+    }
+
+    private static void scoreRow(ScoringTable table, int multiset, boolean joker, int row, int[][] scores) {
+        for (int box = 0; box < ScoringTable.BOX_COUNT; box++) {
+            scores[box][row] = table.score(multiset, box, joker);
+        }
+    }
+
+    private static void checkFaces(int[] roll, int row) {
+        for (int face : roll) {
+            if (face < 1 || face > ScoringTable.FACE_COUNT) {
+                throw new IllegalArgumentException("Row " + row + " has a die showing " + face);
+            }
+        }
+    }
+
+    private static void checkColumns(int diceColumns, int[][] scores) {
+        if (diceColumns != ScoringTable.DICE_COUNT || scores.length != ScoringTable.BOX_COUNT) {
+            throw new IllegalArgumentException("Expected " + ScoringTable.DICE_COUNT + " dice columns and "
+                    + ScoringTable.BOX_COUNT + " score columns");
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * How one box of a {@link RuleSet} scores, declared rather than coded, so that {@link ScoringTable} can score every
+ * multiset once when the rules are compiled.
+ *
+ * <p>What the {@code args} mean depends on the kind:
+ *
+ * <ul>
+ *   <li>{@link Kind#FACE}: the face (1-6) counted, e.g. Threes.
+ *   <li>{@link Kind#SETS}: the sizes of groups of equal dice, each of a different face, e.g. {@code [3, 2]} for a
+ *       full house or {@code [2, 2]} for two pairs. When several faces could form a group the highest is used.
+ *   <li>{@link Kind#RUN}: the length of a run of consecutive faces, starting anywhere.
+ *   <li>{@link Kind#STRAIGHT}: the faces that must all be showing, e.g. {@code [1, 2, 3, 4, 5]}.
+ *   <li>{@link Kind#CHANCE}: none.
+ * </ul>
+ *
+ * @param name    the name shown on the score sheet
+ * @param kind    what the dice must show
+ * @param args    the parameters of the kind
+ * @param scoring what a matching roll scores
+ * @param points  the score of a matching roll, for {@link Scoring#FIXED} boxes
+ */
+public record BoxRule(String name, Kind kind, List<Integer> args, Scoring scoring, int points) {
+    public enum Kind {
+        FACE,
+        SETS,
+        RUN,
+        STRAIGHT,
+        CHANCE
+    }
+
+    public enum Scoring {
+        /** A matching roll scores {@code points}. */
+        FIXED,
+        /** A matching roll scores the sum of the dice that match, e.g. only the pair for One pair. */
+        MATCHED_DICE,
+        /** A matching roll scores the sum of all the dice. */
+        ALL_DICE
+    }
+
+    public BoxRule {
+        args = List.copyOf(args);
+        if (points < 0 || points > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException(name + " scores " + points + " points, which is out of range");
+        }
+        for (int arg : args) {
+            if (arg < 1 || arg > ScoringTable.MAX_DICE_COUNT) {
+                throw new IllegalArgumentException(name + " has an argument " + arg + " out of range");
+            }
+        }
+    }
+
+    /**
+     * The upper section box counting the given face.
+     */
+    public static BoxRule face(String name, int face) {
+        return new BoxRule(name, Kind.FACE, List.of(face), Scoring.MATCHED_DICE, 0);
+    }
+
+    public static BoxRule sets(String name, Scoring scoring, int points, int... sizes) {
+        return new BoxRule(name, Kind.SETS, toList(sizes), scoring, points);
+    }
+
+    public static BoxRule run(String name, int length, int points) {
+        return new BoxRule(name, Kind.RUN, List.of(length), Scoring.FIXED, points);
+    }
+
+    public static BoxRule straight(String name, int points, int... faces) {
+        return new BoxRule(name, Kind.STRAIGHT, toList(faces), Scoring.FIXED, points);
+    }
+
+    public static BoxRule chance(String name) {
+        return new BoxRule(name, Kind.CHANCE, List.of(), Scoring.ALL_DICE, 0);
+    }
+
+    /**
+     * Returns {@code true} if this is an upper section box.
+     */
+    public boolean isUpper() {
+        return kind == Kind.FACE;
+    }
+
+    /**
+     * Returns {@code true} if this box needs every die to show the same face, like Yahtzee.
+     */
+    boolean isAllSame(int diceCount) {
+        return kind == Kind.SETS && args.size() == 1 && args.get(0) == diceCount;
+    }
+
+    // Written out, like RuleSet's, so that looking up a scoring table does not bootstrap the generated record methods.
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, kind, args, scoring, points);
+    }
+
+    /**
+     * Returns what a roll with the given face counts ({@code counts[f]} dice showing face {@code f + 1}) scores.
+     */
+    int score(int[] counts) {
+        int sum = 0;
+        for (int face = 0; face < counts.length; face++) {
+            sum += counts[face] * (face + 1);
+        }
+
+        int matched = switch (kind) {
+            case FACE -> counts[args.get(0) - 1] * args.get(0);
+            case SETS -> bestSets(counts, 0, 0);
+            case RUN -> longestRun(counts) >= args.get(0) ? sum : -1;
+            case STRAIGHT -> args.stream().allMatch(face -> counts[face - 1] > 0)
+                    ? args.stream().mapToInt(Integer::intValue).sum() : -1;
+            case CHANCE -> sum;
+        };
+        if (matched < 0) {
+            return 0;
+        }
+        return switch (scoring) {
+            case FIXED -> points;
+            case MATCHED_DICE -> matched;
+            case ALL_DICE -> sum;
+        };
+    }
+
+    // Returns the highest sum of the dice in groups args[group..], each on a face not in usedFaces, or -1 if the
+    // groups do not fit. There are at most six faces and six groups, so a search is cheap enough at compile time.
+    private int bestSets(int[] counts, int group, int usedFaces) {
+        if (group == args.size()) {
+            return 0;
+        }
+
+        int best = -1;
+        int size = args.get(group);
+        for (int face = 0; face < counts.length; face++) {
+            if ((usedFaces & (1 << face)) == 0 && counts[face] >= size) {
+                int rest = bestSets(counts, group + 1, usedFaces | (1 << face));
+                if (rest >= 0) {
+                    best = Math.max(best, rest + size * (face + 1));
+                }
+            }
+        }
+        return best;
+    }
+
+    private static int longestRun(int[] counts) {
+        int length = 0;
+        int max = 0;
+        for (int count : counts) {
+            length = count > 0 ? length + 1 : 0;
+            max = Math.max(max, length);
+        }
+        return max;
+    }
+
+    private static List<Integer> toList(int[] values) {
+        List<Integer> list = new ArrayList<>();
+        for (int value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+}
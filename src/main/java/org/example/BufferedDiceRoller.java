@@ -0,0 +1,28 @@
+package org.example;
+
+/**
+ * Replays faces from a buffer, e.g. faces generated up front or recorded from an earlier game.
+ */
+public final class BufferedDiceRoller implements DiceRoller {
+    private final byte[] faces;
+    private int position;
+
+    BufferedDiceRoller(byte[] faces) {
+        this.faces = faces;
+    }
+
+    @Override
+    public int nextFace() {
+        if (position == faces.length) {
+            throw new IllegalStateException("Out of faces after " + faces.length + " dice");
+        }
+        return faces[position++];
+    }
+
+    /**
+     * Returns how many faces have been replayed so far.
+     */
+    public int getPosition() {
+        return position;
+    }
+}
@@ -0,0 +1,348 @@
+package org.example;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * The headless command line: plays, simulates, solves and replays games without loading any AWT or Swing classes, so
+ * that scripted use starts in a few tens of milliseconds. Build an AppCDS archive with {@code ./gradlew cliArchive}
+ * and run with {@code ./gradlew cli} to start faster still.
+ *
+ * <pre>
+ * Cli [--rules &lt;name&gt;] [--timing] &lt;command&gt; ...
+ *   play [--seed &lt;n&gt;] [--log &lt;dir&gt;] &lt;human|greedy|ev|win&gt; ..   play a game on the terminal
+ *   simulate [--store &lt;dir&gt;] [games] [players] [seed]        play greedy games and print score statistics
+ *   solve [table file]                                       solve or load the value table
+ *   replay &lt;log dir&gt; &lt;game id&gt; [moves]                      print a logged game's scorecard
+ *   report &lt;store dir&gt;                                      print box and bonus statistics of stored games
+ * </pre>
+ *
+ * <p>{@code --timing} prints where the startup time went to standard error: from JVM launch to {@code main}, compiling
+ * the rules, and running the command.
+ */
+public final class Cli {
+    private static final int LOG_SEGMENT_RECORDS = 1 << 16;
+    private static final int STORE_SEGMENT_ROWS = 1 << 18;
+
+    private final BufferedReader in;
+    private final PrintStream out;
+    private RuleSet rules = RuleSet.YAHTZEE;
+    private ValueTable valueTable;
+    private long tablesNanos;
+
+    Cli(BufferedReader in, PrintStream out) {
+        this.in = in;
+        this.out = out;
+    }
+
+    public static void main(String[] args) throws IOException {
+        long mainEntered = System.currentTimeMillis();
+        long start = System.nanoTime();
+        var cli = new Cli(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)), System.out);
+        int status = cli.run(args);
+        System.out.flush();
+        if (List.of(args).contains("--timing")) {
+            long command = System.nanoTime() - start - cli.tablesNanos;
+            long total = System.currentTimeMillis();
+            // Loading the management classes takes a while, so only once everything else has been timed.
+            long jvmStarted = ManagementFactory.getRuntimeMXBean().getStartTime();
+            System.err.printf("startup: JVM to main %d ms, rule tables %.1f ms, command %.1f ms, total %d ms%n",
+                    mainEntered - jvmStarted, cli.tablesNanos / 1e6, command / 1e6, total - jvmStarted);
+        }
+        if (status != 0) {
+            System.exit(status);
+        }
+    }
+
+    /**
+     * Runs the command line, returning the exit status.
+     */
+    int run(String[] args) throws IOException {
+        List<String> rest = new ArrayList<>(List.of(args));
+        rest.remove("--timing");
+        try {
+            Optional<String> rulesName = takeOption(rest, "--rules");
+            if (rulesName.isPresent()) {
+                rules = RuleSet.named(rulesName.get());
+            }
+            long start = System.nanoTime();
+            ScoringTable.of(rules);
+            tablesNanos = System.nanoTime() - start;
+
+            if (rest.isEmpty()) {
+                printUsage();
+                return 2;
+            }
+            String command = rest.remove(0);
+            switch (command) {
+                case "play" -> play(rest);
+                case "simulate" -> simulate(rest);
+                case "solve" -> solve(rest);
+                case "replay" -> replay(rest);
+                case "report" -> report(rest);
+                default -> {
+                    out.println("Unknown command " + command);
+                    printUsage();
+                    return 2;
+                }
+            }
+            return 0;
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            out.println("Error: " + e.getMessage());
+            return 1;
+        }
+    }
+
+    private void play(List<String> args) throws IOException {
+        Optional<String> seed = takeOption(args, "--seed");
+        Optional<String> logDirectory = takeOption(args, "--log");
+        if (args.isEmpty()) {
+            args.add("human");
+        }
+
+        List<YahtzeePlayer> players = new ArrayList<>();
+        for (String type : args) {
+            YahtzeeStrategy strategy = switch (type.toLowerCase(Locale.ROOT)) {
+                case "human" -> null;
+                case "greedy" -> GreedyStrategy.INSTANCE;
+                case "ev" -> new ExpectedValueStrategy(valueTable());
+                // Follows the game, so it is created with it below.
+                case "win" -> GreedyStrategy.INSTANCE;
+                default -> throw new IllegalArgumentException("Unknown player type " + type);
+            };
+            players.add(new YahtzeePlayer((strategy == null ? "Player " : "Bot ") + (players.size() + 1), strategy));
+        }
+
+        DiceRoller roller = seed.map(s -> DiceRoller.seeded(Long.parseLong(s)))
+                .orElseGet(() -> DiceRoller.of(new java.util.SplittableRandom()));
+        var game = new YahtzeeGame(players, new YahtzeeDice(ScoringTable.of(rules), roller));
+        for (int i = 0; i < args.size(); i++) {
+            if (args.get(i).equalsIgnoreCase("win")) {
+                players.get(i).setStrategy(new WinProbabilityEngine(game, valueTable(),
+                        Runtime.getRuntime().availableProcessors(), WinProbabilityEngine.DEFAULT_MEMORY_BUDGET));
+            }
+        }
+        GameLog log = logDirectory.isPresent() ? new GameLog(Path.of(logDirectory.get()), LOG_SEGMENT_RECORDS) : null;
+        try {
+            if (log != null) {
+                out.println("Logging as game " + log.attach(game));
+            }
+            while (!game.isGameOver()) {
+                YahtzeePlayer player = game.getPlayers().get(game.getWhoseTurn());
+                if (player.isBot()) {
+                    String dice = formatDice(game);
+                    int turn = game.getWhoseTurn();
+                    int before = game.getPlayerScore(turn);
+                    int played = game.getPlayedBoxes(turn);
+                    game.playBotTurn();
+                    int box = Integer.numberOfTrailingZeros(game.getPlayedBoxes(turn) & ~played);
+                    out.println(player + ": " + dice + " -> " + game.getCombination(box) + " for "
+                            + (game.getPlayerScore(turn) - before));
+                } else if (!playHumanTurn(game, player)) {
+                    out.println("Game abandoned");
+                    break;
+                }
+            }
+        } finally {
+            if (log != null) {
+                log.close();
+            }
+        }
+        printScorecard(game);
+    }
+
+    // Plays one human turn from the input, returning false if the input ends.
+    private boolean playHumanTurn(YahtzeeGame game, YahtzeePlayer player) throws IOException {
+        while (true) {
+            out.print(player + ": " + formatDice(game) + " (" + game.getRollsRemaining() + " rolls left) > ");
+            out.flush();
+            String line = in.readLine();
+            if (line == null) {
+                return false;
+            }
+
+            String[] words = line.trim().split("\\s+");
+            try {
+                switch (words[0].toLowerCase(Locale.ROOT)) {
+                    case "roll" -> {
+                        // The numbers are the positions (1-based) of the dice to keep.
+                        int keep = 0;
+                        for (int i = 1; i < words.length; i++) {
+                            int position = Integer.parseInt(words[i]);
+                            if (position < 1 || position > game.getDice().getDiceCount()) {
+                                throw new IllegalArgumentException("No die " + position);
+                            }
+                            keep |= 1 << (position - 1);
+                        }
+                        for (int die = 0; die < game.getDice().getDiceCount(); die++) {
+                            game.setDieHeld(die, (keep & (1 << die)) != 0);
+                        }
+                        game.rollDice();
+                    }
+                    case "score" -> {
+                        String name = line.trim().substring(words[0].length()).trim();
+                        game.makeMove(findCombination(game, name));
+                        return true;
+                    }
+                    case "sheet" -> printScorecard(game);
+                    default -> out.println("Commands: roll [positions to keep], score <box>, sheet");
+                }
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                out.println(e.getMessage());
+            }
+        }
+    }
+
+    private void simulate(List<String> args) throws IOException {
+        Optional<String> storeDirectory = takeOption(args, "--store");
+        long games = args.size() > 0 ? Long.parseLong(args.get(0)) : 100_000;
+        int players = args.size() > 1 ? Integer.parseInt(args.get(1)) : 1;
+        long seed = args.size() > 2 ? Long.parseLong(args.get(2)) : 42;
+        var simulator = new Simulator(rules, players, Runtime.getRuntime().availableProcessors());
+        Simulator.Result result;
+        if (storeDirectory.isPresent()) {
+            try (var store = new GameRecordStore(Path.of(storeDirectory.get()), rules, STORE_SEGMENT_ROWS)) {
+                result = simulator.run(games, seed, store);
+            }
+        } else {
+            result = simulator.run(games, seed);
+        }
+        out.printf("%s games/sec=%.0f %s%n", rules, result.gamesPerSecond(), result.scores());
+    }
+
+    private void solve(List<String> args) throws IOException {
+        Path path = args.isEmpty() ? SolitaireSolver.defaultPath(rules) : Path.of(args.get(0));
+        ValueTable table = SolitaireSolver.loadOrSolve(rules, path);
+        out.printf("%s expected score of a new game: %.4f%n", rules, table.get(ValueTable.state(0, 0, false)));
+    }
+
+    private void replay(List<String> args) throws IOException {
+        if (args.size() < 2) {
+            throw new IllegalArgumentException("replay needs a log directory and a game id");
+        }
+        int moves = args.size() > 2 ? Integer.parseInt(args.get(2)) : Integer.MAX_VALUE;
+        try (var log = new GameLog(Path.of(args.get(0)), LOG_SEGMENT_RECORDS)) {
+            printScorecard(log.replay(Long.parseLong(args.get(1)), moves));
+        }
+    }
+
+    private void report(List<String> args) throws IOException {
+        if (args.isEmpty()) {
+            throw new IllegalArgumentException("report needs a store directory");
+        }
+        long start = System.nanoTime();
+        try (var store = new GameRecordStore(Path.of(args.get(0)), rules, STORE_SEGMENT_ROWS)) {
+            int parallelism = Runtime.getRuntime().availableProcessors();
+            long rows = store.getRowCount();
+            GameRecordStore.Aggregate total = store.query(parallelism).aggregate(GameRecordStore.TOTAL);
+            out.printf("%d player games, total mean %.2f min %d max %d%n", rows, total.mean(), total.min(),
+                    total.max());
+            for (int box = 0; box < rules.getBoxCount(); box++) {
+                int column = GameRecordStore.box(box);
+                GameRecordStore.Aggregate scores = store.query(parallelism).aggregate(column);
+                long scratched = store.query(parallelism).where(column, 0).count();
+                out.printf("%-18s mean %6.2f  scratched %5.2f%%%n", store.getColumnName(column), scores.mean(),
+                        100.0 * scratched / rows);
+            }
+            GameRecordStore.Aggregate missed = store.query(parallelism).where(GameRecordStore.UPPER_BONUS, 0)
+                    .aggregate(GameRecordStore.UPPER_TOTAL);
+            out.printf("Upper section bonus missed %.2f%%, upper section total then %.2f%n",
+                    100.0 * missed.count() / rows, missed.mean());
+        }
+        out.printf("Report took %.0f ms%n", (System.nanoTime() - start) / 1e6);
+    }
+
+    private ValueTable valueTable() throws IOException {
+        if (valueTable == null) {
+            valueTable = SolitaireSolver.loadOrSolve(rules, SolitaireSolver.defaultPath(rules));
+        }
+        return valueTable;
+    }
+
+    // Printed without a Formatter, whose first use costs more than the rest of a game.
+    private void printScorecard(YahtzeeGame game) {
+        int players = game.getPlayers().size();
+        var line = new StringBuilder(pad("", 18, false));
+        for (YahtzeePlayer player : game.getPlayers()) {
+            line.append(pad(player.toString(), 10, true));
+        }
+        out.println(line);
+        for (int box = 0; box < game.getRules().getBoxCount(); box++) {
+            Combination combination = game.getCombination(box);
+            line.setLength(0);
+            line.append(pad(combination.toString(), 18, false));
+            for (int player = 0; player < players; player++) {
+                Integer score = game.getPlayerMoves(player).get(combination);
+                line.append(pad(score != null ? score.toString() : "-", 10, true));
+            }
+            out.println(line);
+        }
+        line.setLength(0);
+        line.append(pad("Bonuses", 18, false));
+        for (int player = 0; player < players; player++) {
+            int bonuses = game.getUpperSectionBonusScore(player) + game.getBonusYahtzeeScore(player);
+            line.append(pad(Integer.toString(bonuses), 10, true));
+        }
+        out.println(line);
+        line.setLength(0);
+        line.append(pad("Total", 18, false));
+        for (int player = 0; player < players; player++) {
+            line.append(pad(Integer.toString(game.getPlayerScore(player)), 10, true));
+        }
+        out.println(line);
+    }
+
+    private static String pad(String s, int width, boolean right) {
+        String spaces = " ".repeat(Math.max(0, width - s.length()));
+        return right ? spaces + s : s + spaces;
+    }
+
+    private static Combination findCombination(YahtzeeGame game, String name) {
+        for (int box = 0; box < game.getRules().getBoxCount(); box++) {
+            Combination combination = game.getCombination(box);
+            if (combination.getName().equalsIgnoreCase(name) || name.equals(Integer.toString(box + 1))) {
+                return combination;
+            }
+        }
+        throw new IllegalArgumentException("No box " + name);
+    }
+
+    private static String formatDice(YahtzeeGame game) {
+        var dice = new StringBuilder();
+        for (int die = 0; die < game.getDice().getDiceCount(); die++) {
+            dice.append(die == 0 ? "" : " ").append(game.getDice().getDie(die));
+        }
+        return dice.toString();
+    }
+
+    private static Optional<String> takeOption(List<String> args, String name) {
+        int i = args.indexOf(name);
+        if (i < 0) {
+            return Optional.empty();
+        }
+        if (i + 1 >= args.size()) {
+            throw new IllegalArgumentException(name + " needs a value");
+        }
+        args.remove(i);
+        return Optional.of(args.remove(i));
+    }
+
+    private void printUsage() {
+        out.println("""
+                Usage: Cli [--rules <name>] [--timing] <command> ...
+                  play [--seed <n>] [--log <dir>] <human|greedy|ev|win> ...
+                  simulate [--store <dir>] [games] [players] [seed]
+                  solve [table file]
+                  replay <log dir> <game id> [moves]
+                  report <store dir>""");
+    }
+}
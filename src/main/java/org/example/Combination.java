@@ -1,12 +1,12 @@
 package org.example;
 
-import java.util.function.Supplier;
+import java.util.function.IntSupplier;
 
 public class Combination {
     private final String name;
-    private final Supplier<Integer> scoreCalculator;
+    private final IntSupplier scoreCalculator;
 
-    public Combination(String name, Supplier<Integer> scoreCalculator) {
+    public Combination(String name, IntSupplier scoreCalculator) {
         this.name = name;
         this.scoreCalculator = scoreCalculator;
     }
@@ -16,7 +16,7 @@ public class Combination {
     }
 
     public int score() {
-        return scoreCalculator.get();
+        return scoreCalculator.getAsInt();
     }
 
     @Override
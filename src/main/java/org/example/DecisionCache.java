@@ -0,0 +1,195 @@
+package org.example;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Evaluated turns, shared by every {@link HoldEvaluator} using one {@link ValueTable}, and evaluated ahead of time
+ * where the next turn can be foreseen.
+ *
+ * <p>Evaluating a turn for a scorecard state works out the best play for all 252 opening multisets at once, so one
+ * evaluation answers every hold and box question for that turn. Turns are cached by the state's index in the value
+ * table, which is all that decides the play: scorecards that differ only in points that cannot matter any more, such
+ * as upper totals past the bonus, share an entry. The least recently used of {@link #MAX_ENTRIES} are evicted.
+ *
+ * <p>Speculation evaluates a turn before anyone asks, on low-priority threads that only take cores nobody else wants:
+ * the next player's turn can be evaluated as soon as the current one starts, since it cannot change before then, and
+ * in a solitaire game the next turn is known as soon as a box is picked. A decision that finds its turn evaluated
+ * takes it from the cache. Thread-safe.
+ */
+public class DecisionCache {
+    public static final int MAX_ENTRIES = 64;
+
+    private static final AtomicInteger THREADS = new AtomicInteger();
+    private static final ExecutorService SPECULATORS = Executors.newFixedThreadPool(
+            Math.max(1, Runtime.getRuntime().availableProcessors() - 1), r -> {
+                Thread thread = new Thread(r, "speculator-" + THREADS.incrementAndGet());
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            });
+
+    private final ValueTable table;
+    private final Map<Integer, CompletableFuture<TurnEvaluator>> turns =
+            new LinkedHashMap<>(MAX_ENTRIES, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, CompletableFuture<TurnEvaluator>> eldest) {
+                    return size() > MAX_ENTRIES;
+                }
+            };
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    DecisionCache(ValueTable table) {
+        this.table = table;
+    }
+
+    /**
+     * Returns the cache for the table, which every user of the table shares.
+     */
+    public static DecisionCache of(ValueTable table) {
+        return table.getDecisionCache();
+    }
+
+    public ValueTable getTable() {
+        return table;
+    }
+
+    /**
+     * Evaluates the next player's turn in the background, if it is someone else's. Call as a turn starts.
+     */
+    public void speculateNextTurn(GameView game) {
+        int next = (game.getWhoseTurn() + 1) % game.getPlayerCount();
+        if (next != game.getWhoseTurn() && !game.isGameOver()) {
+            speculate(ValueTable.stateOf(game, next));
+        }
+    }
+
+    /**
+     * Evaluates the turn that follows playing the given box with the dice as they are, in the background. Call when a
+     * box is picked, before the move is made.
+     */
+    public void speculateMove(GameView game, int box) {
+        if (game.getPlayerCount() > 1) {
+            speculateNextTurn(game);
+            return;
+        }
+
+        int player = game.getWhoseTurn();
+        ScoringTable scoring = game.getScoringTable();
+        RuleSet rules = scoring.getRules();
+        int score = game.getScore(box);
+        int upper = Math.min(game.getUpperSectionScore(player) + (scoring.isUpper(box) ? score : 0),
+                rules.upperBonusThreshold());
+        boolean yahtzeeBonus = ValueTable.tracksYahtzeeBonus(rules)
+                && (game.hasYahtzeeBonus(player) || box == scoring.allSameBox() && score != 0);
+        speculate(ValueTable.state(game.getPlayedBoxes(player) | 1 << box, upper, yahtzeeBonus));
+    }
+
+    /**
+     * Evaluates the turn from the given state in the background, unless it is cached already.
+     */
+    public void speculate(int state) {
+        if (isFull(state)) {
+            return;
+        }
+        synchronized (turns) {
+            if (turns.containsKey(state)) {
+                return;
+            }
+            var turn = CompletableFuture.supplyAsync(() -> evaluate(state), SPECULATORS);
+            turns.put(state, turn);
+            turn.whenComplete((evaluator, failure) -> {
+                if (failure != null) {
+                    forget(state, turn);
+                }
+            });
+        }
+    }
+
+    /**
+     * Starts evaluating the next turn of each of the game's players as their turns come round, for as long as the
+     * game is played. Must be called on the thread that plays the game.
+     */
+    public void attach(YahtzeeGame game) {
+        game.addGameStateListener(event -> speculateNextTurn(game.getView()), GameEvent.Type.TURN_ADVANCED);
+        speculateNextTurn(game.getView());
+    }
+
+    /**
+     * Returns {@code true} if the turn from the given state has been evaluated, or is being evaluated.
+     */
+    public boolean isCached(int state) {
+        synchronized (turns) {
+            return turns.containsKey(state);
+        }
+    }
+
+    // Returns true if the turn from the given state has finished being evaluated.
+    boolean isEvaluated(int state) {
+        CompletableFuture<TurnEvaluator> turn;
+        synchronized (turns) {
+            turn = turns.get(state);
+        }
+        return turn != null && turn.isDone();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Returns the evaluated turn from the given state. If it is not ready, it is evaluated on the calling thread, which
+     * is quicker than waiting behind other speculation. The evaluator must only be read.
+     */
+    TurnEvaluator get(int state) {
+        CompletableFuture<TurnEvaluator> turn;
+        synchronized (turns) {
+            turn = turns.computeIfAbsent(state, s -> new CompletableFuture<>());
+        }
+        if (turn.isDone() && !turn.isCompletedExceptionally()) {
+            hits.incrementAndGet();
+            return turn.join();
+        }
+
+        misses.incrementAndGet();
+        TurnEvaluator evaluator;
+        try {
+            evaluator = evaluate(state);
+        } catch (RuntimeException | Error e) {
+            // Anyone else waiting on the turn fails too, and the next to ask tries again.
+            turn.completeExceptionally(e);
+            forget(state, turn);
+            throw e;
+        }
+        // Whichever evaluation finishes first is the one cached; they are the same.
+        turn.complete(evaluator);
+        return evaluator;
+    }
+
+    private void forget(int state, CompletableFuture<TurnEvaluator> turn) {
+        synchronized (turns) {
+            turns.remove(state, turn);
+        }
+    }
+
+    private TurnEvaluator evaluate(int state) {
+        var evaluator = new TurnEvaluator(table);
+        evaluator.evaluate(state >>> 7, (state >>> 1) & 63, (state & 1) != 0);
+        return evaluator;
+    }
+
+    // A full scorecard has no turns left.
+    private boolean isFull(int state) {
+        return state >>> 7 == (1 << table.getScoringTable().getBoxCount()) - 1;
+    }
+}
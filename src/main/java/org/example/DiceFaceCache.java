@@ -0,0 +1,109 @@
+package org.example;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Pre-rendered dice faces, so painting a die is one image copy rather than antialiased pips drawn from scratch.
+ *
+ * <p>The six faces are rendered together for each size, device scale and pip colour in use, into translucent images
+ * compatible with the screen, at device resolution so that they stay sharp on high-DPI displays. Only the pips are
+ * rendered: the button background, which is what shows whether a die is held, is still painted by the look and feel.
+ * The least recently used sizes are evicted once more than {@link #MAX_ENTRIES} are cached, which covers windows
+ * being resized or dragged between screens. Each component also keeps the faces it last painted in a {@link Faces},
+ * so repainting at the same size and scale allocates nothing and skips the shared lookup.
+ *
+ * <p>Like the rest of Swing, this is only to be used on the event dispatch thread.
+ */
+final class DiceFaceCache {
+    static final int MAX_ENTRIES = 16;
+
+    private static final DicePainter PAINTER = new DicePainter();
+
+    private static final Map<Key, BufferedImage[]> FACES = new LinkedHashMap<>(MAX_ENTRIES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, BufferedImage[]> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    private DiceFaceCache() {
+    }
+
+    /**
+     * The faces one component painted last, and what they were rendered for.
+     */
+    static final class Faces {
+        private GraphicsConfiguration configuration;
+        private double scaleX;
+        private double scaleY;
+        private int width;
+        private int height;
+        private int rgb;
+        private BufferedImage[] images;
+
+        /**
+         * Paints the given face (1-6) filling a {@code width} by {@code height} area at the origin of {@code g}.
+         */
+        void paint(Graphics2D g, int width, int height, Color color, int value) {
+            if (width <= 0 || height <= 0) {
+                return;
+            }
+
+            GraphicsConfiguration current = g.getDeviceConfiguration();
+            if (current != configuration) {
+                // Only a different screen can change the scale, and asking for it copies the transform.
+                AffineTransform transform = current.getDefaultTransform();
+                if (transform.getScaleX() != scaleX || transform.getScaleY() != scaleY) {
+                    images = null;
+                }
+                configuration = current;
+                scaleX = transform.getScaleX();
+                scaleY = transform.getScaleY();
+            }
+            if (images == null || width != this.width || height != this.height || color.getRGB() != rgb) {
+                this.width = width;
+                this.height = height;
+                rgb = color.getRGB();
+                images = lookUp(current, new Key(width, height, scaleX, scaleY, rgb), color);
+            }
+            g.drawImage(images[value - 1], 0, 0, width, height, null);
+        }
+    }
+
+    private static BufferedImage[] lookUp(GraphicsConfiguration configuration, Key key, Color color) {
+        BufferedImage[] faces = FACES.get(key);
+        if (faces == null) {
+            faces = render(configuration, key, color);
+            FACES.put(key, faces);
+        }
+        return faces;
+    }
+
+    private static BufferedImage[] render(GraphicsConfiguration configuration, Key key, Color color) {
+        int deviceWidth = (int) Math.ceil(key.width() * key.scaleX());
+        int deviceHeight = (int) Math.ceil(key.height() * key.scaleY());
+        var faces = new BufferedImage[ScoringTable.FACE_COUNT];
+        for (int value = 1; value <= ScoringTable.FACE_COUNT; value++) {
+            BufferedImage image = configuration.createCompatibleImage(deviceWidth, deviceHeight,
+                    Transparency.TRANSLUCENT);
+            Graphics2D g = image.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                g.setColor(color);
+                PAINTER.paintDice(g, new Rectangle2D.Double(0, 0, deviceWidth, deviceHeight), value);
+            } finally {
+                g.dispose();
+            }
+            faces[value - 1] = image;
+        }
+        return faces;
+    }
+
+    private record Key(int width, int height, double scaleX, double scaleY, int rgb) {
+    }
+}
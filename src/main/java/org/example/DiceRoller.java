@@ -0,0 +1,36 @@
+package org.example;
+
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Where {@link YahtzeeDice} get their faces from. Implementations are not thread-safe: give each thread (or game) its
+ * own roller, e.g. by {@link RandomDiceRoller#split splitting} a seeded one.
+ */
+public interface DiceRoller {
+    /**
+     * Returns the next face, from 1 to 6.
+     */
+    int nextFace();
+
+    /**
+     * Returns a roller drawing from the given random source.
+     */
+    static RandomDiceRoller of(RandomGenerator random) {
+        return new RandomDiceRoller(random);
+    }
+
+    /**
+     * Returns a splittable roller that always produces the same faces for the same seed.
+     */
+    static RandomDiceRoller seeded(long seed) {
+        return new RandomDiceRoller(new SplittableRandom(seed));
+    }
+
+    /**
+     * Returns a roller that replays the given faces, in order.
+     */
+    static BufferedDiceRoller replay(byte[] faces) {
+        return new BufferedDiceRoller(faces);
+    }
+}
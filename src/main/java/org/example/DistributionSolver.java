@@ -0,0 +1,364 @@
+package org.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * Works out the exact probability distribution of a player's final score, when every decision from now on is the one
+ * that is best by a {@link ValueTable}, as {@link ExpectedValueStrategy} plays.
+ *
+ * <p>Like {@link SolitaireSolver}, states are solved in layers by the number of boxes played, from the last turn back
+ * to the player's current one, and the played-box masks within a layer are solved in parallel. The distribution of a
+ * state's future points mixes the distributions of the states its turn can lead to, each shifted by the points scored
+ * on the way. Only the states the player's scorecard can still reach are solved.
+ *
+ * <p>A distribution covers hundreds of scores, so a whole layer of them does not fit comfortably in memory. Each layer
+ * is written to a file in the spill directory as it is solved, in single precision and trimmed to the scores that are
+ * possible, and is memory-mapped to solve the layer before it. A layer's file is deleted once that layer is solved, so
+ * at most two are on disk at a time, and the heap only holds where each distribution is.
+ */
+public class DistributionSolver {
+    // Layer files are mapped in segments that overlap by a distribution, so that none straddles two.
+    private static final long SEGMENT_SIZE = 1L << 30;
+
+    private final ValueTable policy;
+    private final ScoringTable scoring;
+    private final KeepTable keeps = KeepTable.get();
+    private final int allPlayed;
+    private final int threshold;
+    private final boolean tracksYahtzeeBonus;
+    private final boolean[][] reachableUpper;
+    private final int maxPoints;
+    private final double[] opening = new double[ScoringTable.MULTISET_COUNT];
+    private final ThreadLocal<Scratch> scratch;
+    private final Path directory;
+
+    // The scorecard being solved for.
+    private final int startPlayed;
+    private final int startUpper;
+    private final boolean startBonus;
+
+    // Where each solved state's distribution is in its layer's file, counted in floats, and the points it covers.
+    private final int[] positions;
+    private final int[] lows;
+    private final int[] lengths;
+    private Layer lastLayer;
+
+    private DistributionSolver(ValueTable policy, int state, Path directory) {
+        this.policy = policy;
+        this.directory = directory;
+        scoring = policy.getScoringTable();
+        RuleSet rules = scoring.getRules();
+        allPlayed = (1 << scoring.getBoxCount()) - 1;
+        threshold = rules.upperBonusThreshold();
+        tracksYahtzeeBonus = ValueTable.tracksYahtzeeBonus(rules);
+        reachableUpper = SolitaireSolver.reachableUppers(threshold);
+        scratch = ThreadLocal.withInitial(Scratch::new);
+
+        startPlayed = state >>> 7;
+        startUpper = (state >>> 1) & 63;
+        startBonus = (state & 1) != 0;
+        positions = new int[policy.getStateCount()];
+        lows = new int[policy.getStateCount()];
+        lengths = new int[policy.getStateCount()];
+
+        // Every box at its best, with every bonus there is.
+        int points = rules.upperBonus() + (tracksYahtzeeBonus ? rules.yahtzeeBonus() * scoring.getBoxCount() : 0);
+        for (int box = 0; box < scoring.getBoxCount(); box++) {
+            int best = 0;
+            for (int m = 0; m < ScoringTable.MULTISET_COUNT; m++) {
+                best = Math.max(best, Math.max(scoring.score(m, box, false), scoring.score(m, box, true)));
+            }
+            points += best;
+        }
+        maxPoints = points;
+
+        int empty = keeps.emptyKeep();
+        for (int i = keeps.outcomeStart[empty]; i < keeps.outcomeStart[empty + 1]; i++) {
+            opening[keeps.outcomeMultiset[i]] = keeps.outcomeProbability[i];
+        }
+    }
+
+    /**
+     * Solves the distribution of the final score of a new game of the table's rules, spilling to a temporary directory.
+     */
+    public static ScoreDistribution solve(ValueTable policy, int parallelism) throws IOException {
+        Path directory = Files.createTempDirectory("distributions");
+        try {
+            int state = ValueTable.state(0, 0, false);
+            var solver = new DistributionSolver(policy, state, directory);
+            return solver.solve(state, solver.opening, TurnEvaluator.MAX_ROLLS, 0, parallelism);
+        } finally {
+            Files.delete(directory);
+        }
+    }
+
+    /**
+     * Solves the distribution of the given player's final score, taking their score so far into account and, if it is
+     * their turn, the dice and the rolls remaining. Layers are spilled to files in the given directory, which must
+     * exist.
+     *
+     * @throws IllegalArgumentException if the policy is for other rules than the game's
+     */
+    public static ScoreDistribution solve(ValueTable policy, GameView game, int player, int parallelism,
+                                          Path spillDirectory) throws IOException {
+        ScoringTable scoring = policy.getScoringTable();
+        if (game.getScoringTable() != scoring) {
+            throw new IllegalArgumentException("The value table is for " + scoring.getRules() + ", not "
+                    + game.getScoringTable().getRules());
+        }
+
+        int score = game.getPlayerScore(player);
+        int state = ValueTable.stateOf(game, player);
+        if (game.isGameOver() || state >>> 7 == (1 << scoring.getBoxCount()) - 1) {
+            return ScoreDistribution.of(score);
+        }
+
+        var solver = new DistributionSolver(policy, state, spillDirectory);
+        double[] dice = solver.opening;
+        int rolls = TurnEvaluator.MAX_ROLLS;
+        if (player == game.getWhoseTurn()) {
+            dice = new double[ScoringTable.MULTISET_COUNT];
+            dice[game.getMultiset()] = 1;
+            rolls = game.getRollsRemaining();
+        }
+        return solver.solve(state, dice, rolls, score, parallelism);
+    }
+
+    private ScoreDistribution solve(int state, double[] dice, int rolls, int score, int parallelism)
+            throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            for (int layer = scoring.getBoxCount() - 1; layer > Integer.bitCount(startPlayed); layer--) {
+                int playedCount = layer;
+                var solving = new Layer(Files.createTempFile(directory, "layer-" + layer + "-", ".bin"));
+                try {
+                    pool.submit(() -> IntStream.range(0, allPlayed)
+                            .filter(played -> Integer.bitCount(played) == playedCount
+                                    && (played & startPlayed) == startPlayed)
+                            .parallel()
+                            .forEach(played -> solvePlayed(played, solving))).join();
+                    solving.map(Float.BYTES * (maxPoints + 1L));
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                } finally {
+                    if (lastLayer != null) {
+                        lastLayer.close();
+                    }
+                    lastLayer = solving;
+                }
+            }
+
+            Scratch work = scratch.get();
+            solveTurn(work, state, dice, rolls);
+            return new ScoreDistribution(score + work.low, Arrays.copyOfRange(work.points, work.low, work.high + 1));
+        } finally {
+            pool.shutdown();
+            if (lastLayer != null) {
+                lastLayer.close();
+            }
+        }
+    }
+
+    private void solvePlayed(int played, Layer layer) {
+        Scratch work = scratch.get();
+        boolean[] uppers = reachableUpper[played & ~startPlayed & SolitaireSolver.UPPER_BOXES];
+        int yahtzeeBox = scoring.allSameBox();
+        boolean bonusPossible = startBonus || tracksYahtzeeBonus && yahtzeeBox >= 0
+                && (played & ~startPlayed & (1 << yahtzeeBox)) != 0;
+
+        ByteBuffer buffer = work.buffer.clear();
+        int count = 0;
+        int lastUpper = -1;
+        for (int total = 0; total <= threshold; total++) {
+            int upper = Math.min(threshold, startUpper + total);
+            if (!uppers[total] || upper == lastUpper) {
+                continue;
+            }
+            lastUpper = upper;
+
+            for (int bonus = startBonus ? 1 : 0; bonus <= (bonusPossible ? 1 : 0); bonus++) {
+                int state = ValueTable.state(played, upper, bonus != 0);
+                solveTurn(work, state, opening, TurnEvaluator.MAX_ROLLS);
+                work.states[count++] = state;
+                positions[state] = buffer.position() / Float.BYTES;
+                lows[state] = work.low;
+                lengths[state] = work.high - work.low + 1;
+                for (int points = work.low; points <= work.high; points++) {
+                    buffer.putFloat((float) work.points[points]);
+                }
+            }
+        }
+
+        try {
+            int position = layer.write(buffer.flip());
+            for (int i = 0; i < count; i++) {
+                positions[work.states[i]] += position;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Plays a turn from the given state, starting from the given distribution of the dice with the given rolls
+     * remaining, leaving the distribution of the future points in the scratch space.
+     */
+    private void solveTurn(Scratch work, int state, double[] dice, int rolls) {
+        int played = state >>> 7;
+        int upper = (state >>> 1) & 63;
+        boolean bonus = (state & 1) != 0;
+        TurnEvaluator evaluator = work.evaluator;
+        evaluator.evaluate(played, upper, bonus);
+
+        // Follow the best keeps to the distribution of the dice the turn ends with.
+        double[] current = work.current;
+        System.arraycopy(dice, 0, current, 0, current.length);
+        for (int r = rolls; r > 0; r--) {
+            double[] after = work.after;
+            Arrays.fill(after, 0);
+            for (int m = 0; m < ScoringTable.MULTISET_COUNT; m++) {
+                if (current[m] != 0) {
+                    int k = evaluator.bestKeep[r][m];
+                    for (int i = keeps.outcomeStart[k]; i < keeps.outcomeStart[k + 1]; i++) {
+                        after[keeps.outcomeMultiset[i]] += current[m] * keeps.outcomeProbability[i];
+                    }
+                }
+            }
+            work.after = current;
+            work.current = after;
+            current = after;
+        }
+
+        // Many final dice score the same in the same box, and need only be mixed in once.
+        int count = 0;
+        for (int m = 0; m < ScoringTable.MULTISET_COUNT; m++) {
+            if (current[m] == 0) {
+                continue;
+            }
+            long outcome = evaluator.play(played, upper, bonus, m, evaluator.bestBox[m]);
+            int i = 0;
+            while (i < count && work.outcomes[i] != outcome) {
+                i++;
+            }
+            if (i == count) {
+                work.outcomes[count] = outcome;
+                work.weights[count++] = 0;
+            }
+            work.weights[i] += current[m];
+        }
+
+        int low = Integer.MAX_VALUE;
+        int high = Integer.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            int next = TurnEvaluator.nextState(work.outcomes[i]);
+            int gain = TurnEvaluator.gain(work.outcomes[i]);
+            boolean over = next >>> 7 == allPlayed;
+            low = Math.min(low, gain + (over ? 0 : lows[next]));
+            high = Math.max(high, gain + (over ? 0 : lows[next] + lengths[next] - 1));
+        }
+        Arrays.fill(work.points, low, high + 1, 0);
+        for (int i = 0; i < count; i++) {
+            int next = TurnEvaluator.nextState(work.outcomes[i]);
+            int gain = TurnEvaluator.gain(work.outcomes[i]);
+            double weight = work.weights[i];
+            if (next >>> 7 == allPlayed) {
+                work.points[gain] += weight;
+                continue;
+            }
+            float[] probabilities = work.probabilities;
+            lastLayer.read(positions[next], probabilities, lengths[next]);
+            int from = gain + lows[next];
+            for (int j = 0; j < lengths[next]; j++) {
+                work.points[from + j] += weight * probabilities[j];
+            }
+        }
+        work.low = low;
+        work.high = high;
+    }
+
+    // Per-thread working space.
+    private final class Scratch {
+        final TurnEvaluator evaluator = new TurnEvaluator(policy);
+        double[] current = new double[ScoringTable.MULTISET_COUNT];
+        double[] after = new double[ScoringTable.MULTISET_COUNT];
+        final long[] outcomes = new long[ScoringTable.MULTISET_COUNT];
+        final double[] weights = new double[ScoringTable.MULTISET_COUNT];
+        final double[] points = new double[maxPoints + 1];
+        final float[] probabilities = new float[maxPoints + 1];
+        int low;
+        int high;
+        final int[] states = new int[2 * (threshold + 1)];
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(states.length * Float.BYTES * (maxPoints + 1))
+                .order(ByteOrder.nativeOrder());
+    }
+
+    // A layer's file, written by many threads at once and then read back mapped.
+    private static final class Layer implements Closeable {
+        private final Path path;
+        private final FileChannel channel;
+        private final AtomicLong size = new AtomicLong();
+        private FloatBuffer[] segments;
+
+        Layer(Path path) throws IOException {
+            this.path = path;
+            channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+
+        // Appends the floats in the buffer, returning where they start, counted in floats.
+        int write(ByteBuffer buffer) throws IOException {
+            long start = size.getAndAdd(buffer.remaining() / Float.BYTES);
+            long offset = start * Float.BYTES;
+            while (buffer.hasRemaining()) {
+                offset += channel.write(buffer, offset);
+            }
+            return Math.toIntExact(start);
+        }
+
+        void map(long overlap) throws IOException {
+            long bytes = size.get() * Float.BYTES;
+            segments = new FloatBuffer[(int) ((bytes + SEGMENT_SIZE - 1) / SEGMENT_SIZE)];
+            for (int i = 0; i < segments.length; i++) {
+                long start = i * SEGMENT_SIZE;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start,
+                        Math.min(SEGMENT_SIZE + overlap, bytes - start)).order(ByteOrder.nativeOrder()).asFloatBuffer();
+            }
+        }
+
+        void read(int position, float[] into, int length) {
+            int segment = (int) ((long) position * Float.BYTES / SEGMENT_SIZE);
+            segments[segment].get(position - (int) (segment * SEGMENT_SIZE / Float.BYTES), into, 0, length);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * Loads (or solves) the value table and prints the distribution of the final score of a new game.
+     *
+     * <p>Usage: {@code DistributionSolver [table file]}
+     */
+    public static void main(String[] args) throws IOException {
+        Path path = args.length > 0 ? Path.of(args[0]) : SolitaireSolver.defaultPath(RuleSet.YAHTZEE);
+        ValueTable table = SolitaireSolver.loadOrSolve(path);
+        long start = System.nanoTime();
+        ScoreDistribution distribution = solve(table, Runtime.getRuntime().availableProcessors());
+        System.out.printf("Solved in %d ms: %s%n", (System.nanoTime() - start) / 1_000_000, distribution);
+    }
+}
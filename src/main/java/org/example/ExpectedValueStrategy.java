@@ -0,0 +1,47 @@
+package org.example;
+
+/**
+ * Plays to maximize the player's own expected final score, using a solved {@link ValueTable}: the optimal solitaire
+ * strategy, worth about 254.5 points a game. Opponents' scores are ignored.
+ *
+ * <p>Decisions come from a {@link HoldEvaluator}, which evaluates the whole turn on its first decision, in well under
+ * a millisecond. If the deadline has already passed by then, the turn is played greedily instead. Instances can be
+ * shared between threads.
+ */
+public class ExpectedValueStrategy implements YahtzeeStrategy {
+    private final ThreadLocal<HoldEvaluator> evaluators;
+
+    public ExpectedValueStrategy(ValueTable table) {
+        this.evaluators = ThreadLocal.withInitial(() -> new HoldEvaluator(table));
+    }
+
+    /**
+     * Creates a strategy that takes its turns from the cache, so that a turn evaluated ahead of time is played
+     * without delay. Simulations, which play far more states than the cache holds, are better off without one.
+     */
+    public ExpectedValueStrategy(DecisionCache cache) {
+        this.evaluators = ThreadLocal.withInitial(() -> new HoldEvaluator(cache));
+    }
+
+    @Override
+    public int chooseHolds(GameView game, long deadline) {
+        HoldEvaluator evaluator = evaluators.get();
+        if (!inTime(evaluator, game, deadline)) {
+            return GreedyStrategy.INSTANCE.chooseHolds(game, deadline);
+        }
+        return evaluator.bestHolds(game);
+    }
+
+    @Override
+    public int chooseBox(GameView game, long deadline) {
+        HoldEvaluator evaluator = evaluators.get();
+        if (!inTime(evaluator, game, deadline)) {
+            return GreedyStrategy.INSTANCE.chooseBox(game, deadline);
+        }
+        return evaluator.bestBox(game);
+    }
+
+    private static boolean inTime(HoldEvaluator evaluator, GameView game, long deadline) {
+        return System.nanoTime() - deadline <= 0 || evaluator.isPrepared(game);
+    }
+}
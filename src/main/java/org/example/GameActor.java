@@ -0,0 +1,131 @@
+package org.example;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Runs a {@link YahtzeeGame} as a single-writer actor, so that any number of threads can drive and watch it.
+ *
+ * <p>Commands from any thread go into a lock-free queue, and are applied to the game one at a time, in order, by
+ * whichever executor thread is draining the queue; only one thread ever touches the game at once. After each command
+ * an immutable {@link GameSnapshot} is published, and readers get the latest one with a single volatile read.
+ *
+ * <p>An actor holds no thread of its own while it is idle, so many actors can share a small executor. Each drain
+ * applies at most {@link #BATCH_SIZE} commands before giving the thread back, so a busy game cannot starve the others.
+ * Listeners registered on the game itself are called on the draining thread.
+ */
+public class GameActor {
+    static final int BATCH_SIZE = 64;
+
+    private final YahtzeeGame game;
+    private final Executor executor;
+    private final MpscQueue<Runnable> commands = new MpscQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final List<Consumer<GameSnapshot>> snapshotListeners = new CopyOnWriteArrayList<>();
+    private volatile GameSnapshot snapshot;
+    // Only touched by the draining thread.
+    private long version;
+
+    /**
+     * Takes ownership of the game, which must not be used directly from now on. Only standard games can be run as
+     * actors, since snapshots are packed states of the standard rules.
+     */
+    public GameActor(YahtzeeGame game, Executor executor) {
+        if (game.getScoringTable() != ScoringTable.get()) {
+            throw new IllegalArgumentException("Only standard games can be run as actors, not " + game.getRules());
+        }
+        this.game = game;
+        this.executor = executor;
+        this.snapshot = GameSnapshot.of(game, 0);
+    }
+
+    /**
+     * Returns the state after the most recently applied command.
+     */
+    public GameSnapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Calls the listener with each new snapshot, on the thread that applied the command.
+     */
+    public void addSnapshotListener(Consumer<GameSnapshot> listener) {
+        snapshotListeners.add(listener);
+    }
+
+    public CompletableFuture<GameSnapshot> rollDice() {
+        return execute(game -> {
+            game.rollDice();
+            return null;
+        }).thenApply(ignored -> snapshot);
+    }
+
+    public CompletableFuture<GameSnapshot> setDieHeld(int die, boolean held) {
+        return execute(game -> {
+            game.setDieHeld(die, held);
+            return null;
+        }).thenApply(ignored -> snapshot);
+    }
+
+    /**
+     * Plays the given box (see {@link ScoringTable}) for the current player.
+     */
+    public CompletableFuture<GameSnapshot> makeMove(int box) {
+        return execute(game -> {
+            game.makeMove(game.getCombination(box));
+            return null;
+        }).thenApply(ignored -> snapshot);
+    }
+
+    /**
+     * Applies an arbitrary command to the game on the actor's thread and completes with its result, or exceptionally
+     * with whatever it threw. The snapshot is republished afterwards, so the command may change the game.
+     */
+    public <T> CompletableFuture<T> execute(Function<YahtzeeGame, T> command) {
+        var result = new CompletableFuture<T>();
+        commands.offer(() -> {
+            try {
+                T value = command.apply(game);
+                publish();
+                result.complete(value);
+            } catch (Throwable t) {
+                // A rejected command may still have changed something, e.g. held a die before failing.
+                publish();
+                result.completeExceptionally(t);
+            }
+        });
+        if (scheduled.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+        return result;
+    }
+
+    private void publish() {
+        GameSnapshot published = GameSnapshot.of(game, ++version);
+        snapshot = published;
+        for (Consumer<GameSnapshot> listener : snapshotListeners) {
+            listener.accept(published);
+        }
+    }
+
+    private void drain() {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            Runnable command = commands.poll();
+            if (command == null) {
+                break;
+            }
+            command.run();
+        }
+
+        scheduled.set(false);
+        // Anything offered after the last poll must be picked up, by this actor or by the producer that wins the flag.
+        if (!commands.isEmpty() && scheduled.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package org.example;
+
+/**
+ * What changed in a {@link YahtzeeGame}. Several events can be merged into one, e.g. a move also advances the turn
+ * and rolls the next player's dice, and a Swing listener can coalesce everything that happened during one tick of the
+ * event dispatch thread.
+ *
+ * <p>Events are interned, so firing and merging them never allocates.
+ *
+ * @param types       the {@link Type}s of change, one bit per type ordinal
+ * @param changedDice the dice whose hold state changed, one bit per die
+ */
+public record GameEvent(int types, int changedDice) {
+    public enum Type {
+        DICE_ROLLED,
+        DIE_HELD,
+        MOVE_MADE,
+        TURN_ADVANCED,
+        GAME_OVER;
+
+        int mask() {
+            return 1 << ordinal();
+        }
+    }
+
+    public static final int ALL_TYPES = (1 << Type.values().length) - 1;
+
+    private static final int ALL_DICE = (1 << ScoringTable.MAX_DICE_COUNT) - 1;
+    private static final GameEvent[] EVENTS = new GameEvent[(ALL_TYPES + 1) * (ALL_DICE + 1)];
+
+    static {
+        for (int types = 0; types <= ALL_TYPES; types++) {
+            for (int dice = 0; dice <= ALL_DICE; dice++) {
+                EVENTS[types * (ALL_DICE + 1) + dice] = new GameEvent(types, dice);
+            }
+        }
+    }
+
+    public static GameEvent of(Type type) {
+        return EVENTS[type.mask() * (ALL_DICE + 1)];
+    }
+
+    public static GameEvent dieHeld(int die) {
+        return EVENTS[Type.DIE_HELD.mask() * (ALL_DICE + 1) + (1 << die)];
+    }
+
+    /**
+     * Returns the bit mask of the given types, for subscribing to them.
+     */
+    public static int maskOf(Type... types) {
+        int mask = 0;
+        for (Type type : types) {
+            mask |= type.mask();
+        }
+        return mask;
+    }
+
+    public boolean is(Type type) {
+        return (types & type.mask()) != 0;
+    }
+
+    /**
+     * Returns {@code true} if the hold state of the given die changed.
+     */
+    public boolean isDieChanged(int die) {
+        return (changedDice & (1 << die)) != 0;
+    }
+
+    public GameEvent with(Type type) {
+        return merge(of(type));
+    }
+
+    /**
+     * Returns an event describing both this and the other change.
+     */
+    public GameEvent merge(GameEvent other) {
+        return EVENTS[(types | other.types) * (ALL_DICE + 1) + (changedDice | other.changedDice)];
+    }
+}
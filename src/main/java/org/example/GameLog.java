@@ -0,0 +1,339 @@
+package org.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+/**
+ * An append-only log of every action taken in any number of games, kept in memory-mapped segment files.
+ *
+ * <p>Each action is one fixed-width 16 byte record: the game id, the event type, the player, an argument (the die for
+ * a hold, the box for a move), the rolls remaining and the five dice after the action. A game can be rebuilt, up to
+ * any turn, by replaying its records. The only thing about the games kept in the heap is where each one's records
+ * start, so a replay reads from there and stops as soon as it has the moves it was asked for.
+ *
+ * <p>Appends are synchronized, so games on different threads can share a log.
+ */
+public class GameLog implements Closeable {
+    public static final int RECORD_SIZE = 16;
+
+    public static final byte START = 1;
+    public static final byte ROLL = 2;
+    public static final byte HOLD = 3;
+    public static final byte MOVE = 4;
+    public static final byte DICE = 5;
+
+    private static final int MAGIC = 0x59544C47; // "YTLG"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int COUNT_OFFSET = 8;
+
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    // starts[gameId], the position of the game's first record: the segment in the high int, the offset in the low.
+    private long[] starts = new long[64];
+    private long nextGameId;
+
+    /**
+     * Opens the log in the given directory, creating it if needed. New segments hold {@code recordsPerSegment}
+     * records each.
+     */
+    public GameLog(Path directory, int recordsPerSegment) throws IOException {
+        this.directory = directory;
+        this.recordsPerSegment = recordsPerSegment;
+        Files.createDirectories(directory);
+
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.filter(p -> p.getFileName().toString().matches("segment-\\d+\\.log")).sorted().toList();
+        }
+        for (Path file : files) {
+            MappedByteBuffer segment = map(file, Files.size(file));
+            if (segment.getInt(0) != MAGIC || segment.getInt(4) != VERSION) {
+                throw new IOException(file + " is not a game log segment");
+            }
+            segments.add(segment);
+        }
+        if (segments.isEmpty()) {
+            addSegment();
+        }
+
+        for (int segment = 0; segment < segments.size(); segment++) {
+            MappedByteBuffer buffer = segments.get(segment);
+            long end = HEADER_SIZE + buffer.getLong(COUNT_OFFSET) * RECORD_SIZE;
+            for (int offset = HEADER_SIZE; offset < end; offset += RECORD_SIZE) {
+                if (buffer.get(offset + 8) == START) {
+                    long gameId = buffer.getLong(offset);
+                    addStart(gameId, segment, offset);
+                    nextGameId = Math.max(nextGameId, gameId + 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts logging the given game, which should not have been played yet, and returns its id in the log. Only
+     * standard games can be logged, since replays are of the standard rules.
+     */
+    public synchronized long attach(YahtzeeGame game) throws IOException {
+        if (game.getScoringTable() != ScoringTable.get()) {
+            throw new IllegalArgumentException("Only standard games can be logged, not " + game.getRules());
+        }
+        long gameId = nextGameId++;
+        long position = append(gameId, START, 0, game.getPlayers().size(), game);
+        addStart(gameId, (int) (position >>> 32), (int) position);
+        game.setRecorder(new Recorder(gameId));
+        return gameId;
+    }
+
+    /**
+     * Calls the visitor for every record in the log, in the order they were appended.
+     */
+    public void scan(RecordVisitor visitor) {
+        scan(0, visitor, () -> false);
+    }
+
+    // Visits the records from the given position on, until done says to stop.
+    private synchronized void scan(long position, RecordVisitor visitor, BooleanSupplier done) {
+        int offset = (int) position;
+        for (int segment = (int) (position >>> 32); segment < segments.size(); segment++, offset = HEADER_SIZE) {
+            MappedByteBuffer buffer = segments.get(segment);
+            long end = HEADER_SIZE + buffer.getLong(COUNT_OFFSET) * RECORD_SIZE;
+            for (; offset < end; offset += RECORD_SIZE) {
+                if (done.getAsBoolean()) {
+                    return;
+                }
+                visitor.visit(buffer.getLong(offset), buffer.get(offset + 8), buffer.get(offset + 9),
+                        buffer.get(offset + 10), buffer.get(offset + 11), buffer.getInt(offset + 12));
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the given game as it was at the end.
+     */
+    public YahtzeeGame replay(long gameId) {
+        return replay(gameId, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Rebuilds the given game as it was after {@code moves} moves. The players are named "Player 1", "Player 2"
+     * and so on, since the log does not keep names.
+     */
+    public YahtzeeGame replay(long gameId, int moves) {
+        long start;
+        synchronized (this) {
+            if (gameId < 0 || gameId >= nextGameId) {
+                throw new IllegalArgumentException("No game " + gameId + " in " + directory);
+            }
+            start = starts[(int) gameId];
+        }
+        var replayer = new Replayer(gameId, moves);
+        scan(start, replayer, replayer::isDone);
+        return replayer.game;
+    }
+
+    /**
+     * Flushes all segments to disk.
+     */
+    public synchronized void force() {
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+
+    @Override
+    public void close() {
+        force();
+    }
+
+    /**
+     * Returns the five dice packed three bits each, die 0 in the lowest bits.
+     */
+    static int packDice(YahtzeeDice dice) {
+        int packed = 0;
+        for (int i = 0; i < dice.getDiceCount(); i++) {
+            packed |= dice.getDie(i) << (3 * i);
+        }
+        return packed;
+    }
+
+    static int unpackDie(int packedDice, int die) {
+        return (packedDice >>> (3 * die)) & 7;
+    }
+
+    // Appends a record and returns its position, as in starts.
+    private synchronized long append(long gameId, byte type, int player, int arg, YahtzeeGame game)
+            throws IOException {
+        MappedByteBuffer segment = segments.get(segments.size() - 1);
+        long count = segment.getLong(COUNT_OFFSET);
+        if (HEADER_SIZE + (count + 1) * RECORD_SIZE > segment.capacity()) {
+            segment = addSegment();
+            count = 0;
+        }
+
+        int offset = (int) (HEADER_SIZE + count * RECORD_SIZE);
+        segment.putLong(offset, gameId);
+        segment.put(offset + 8, type);
+        segment.put(offset + 9, (byte) player);
+        segment.put(offset + 10, (byte) arg);
+        segment.put(offset + 11, (byte) game.getRollsRemaining());
+        segment.putInt(offset + 12, packDice(game.getDice()));
+        // Publish the record only once it has been written.
+        segment.putLong(COUNT_OFFSET, count + 1);
+        return (long) (segments.size() - 1) << 32 | offset;
+    }
+
+    private void addStart(long gameId, int segment, int offset) {
+        if (gameId >= starts.length) {
+            starts = Arrays.copyOf(starts, Math.max(starts.length * 2, Math.toIntExact(gameId + 1)));
+        }
+        starts[(int) gameId] = (long) segment << 32 | offset;
+    }
+
+    private MappedByteBuffer addSegment() throws IOException {
+        Path file = directory.resolve(String.format("segment-%05d.log", segments.size()));
+        MappedByteBuffer segment = map(file, HEADER_SIZE + (long) recordsPerSegment * RECORD_SIZE);
+        segment.putInt(0, MAGIC);
+        segment.putInt(4, VERSION);
+        segment.putLong(COUNT_OFFSET, 0);
+        segments.add(segment);
+        return segment;
+    }
+
+    private static MappedByteBuffer map(Path file, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            return buffer;
+        }
+    }
+
+    @FunctionalInterface
+    public interface RecordVisitor {
+        void visit(long gameId, byte type, int player, int arg, int rollsRemaining, int packedDice);
+    }
+
+    private class Recorder implements GameRecorder {
+        private final long gameId;
+
+        Recorder(long gameId) {
+            this.gameId = gameId;
+        }
+
+        @Override
+        public void diceRolled(YahtzeeGame game) {
+            appendUnchecked(ROLL, game.getWhoseTurn(), 0, game);
+        }
+
+        @Override
+        public void dieHeld(YahtzeeGame game, int die, boolean held) {
+            appendUnchecked(HOLD, game.getWhoseTurn(), die | (held ? 8 : 0), game);
+        }
+
+        @Override
+        public void diceSet(YahtzeeGame game) {
+            appendUnchecked(DICE, game.getWhoseTurn(), 0, game);
+        }
+
+        @Override
+        public void moveMade(YahtzeeGame game, int player, int box) {
+            appendUnchecked(MOVE, player, box, game);
+        }
+
+        private void appendUnchecked(byte type, int player, int arg, YahtzeeGame game) {
+            try {
+                append(gameId, type, player, arg, game);
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not extend the game log", e);
+            }
+        }
+    }
+
+    /**
+     * Replays one game's records. The dice are fed the faces the log says they rolled, in the order they roll them.
+     */
+    private static class Replayer implements RecordVisitor, DiceRoller {
+        private final long gameId;
+        private final int[] faces = new int[ScoringTable.DICE_COUNT];
+        private int movesLeft;
+        private int next;
+        private int end;
+        private YahtzeeGame game;
+
+        Replayer(long gameId, int moves) {
+            this.gameId = gameId;
+            this.movesLeft = moves;
+        }
+
+        boolean isDone() {
+            return game != null && (movesLeft == 0 || game.isGameOver());
+        }
+
+        @Override
+        public int nextFace() {
+            if (next == end) {
+                throw new IllegalStateException("The log has no more dice for game " + gameId);
+            }
+            return faces[next++];
+        }
+
+        @Override
+        public void visit(long id, byte type, int player, int arg, int rollsRemaining, int packedDice) {
+            if (id != gameId || movesLeft == 0) {
+                return;
+            }
+
+            switch (type) {
+                case START -> {
+                    List<YahtzeePlayer> players = new ArrayList<>();
+                    for (int i = 0; i < arg; i++) {
+                        players.add(new YahtzeePlayer("Player " + (i + 1)));
+                    }
+                    feed(packedDice, true);
+                    game = new YahtzeeGame(players, new YahtzeeDice(this));
+                }
+                case ROLL -> {
+                    feed(packedDice, false);
+                    game.rollDice();
+                }
+                case HOLD -> game.setDieHeld(arg & 7, (arg & 8) != 0);
+                case DICE -> {
+                    List<Integer> dice = new ArrayList<>();
+                    for (int i = 0; i < ScoringTable.DICE_COUNT; i++) {
+                        dice.add(unpackDie(packedDice, i));
+                    }
+                    game.setDice(dice);
+                }
+                case MOVE -> {
+                    feed(packedDice, true);
+                    game.makeMove(game.getCombination(arg));
+                    movesLeft--;
+                }
+                default -> throw new IllegalStateException("Unknown record type " + type);
+            }
+        }
+
+        private void feed(int packedDice, boolean all) {
+            next = 0;
+            end = 0;
+            for (int i = 0; i < ScoringTable.DICE_COUNT; i++) {
+                if (all || !game.getDice().isHeld(i)) {
+                    faces[end++] = unpackDie(packedDice, i);
+                }
+            }
+        }
+    }
+}
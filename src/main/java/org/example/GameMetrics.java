@@ -0,0 +1,200 @@
+package org.example;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency histograms for every game in the JVM, exposed over JMX as
+ * {@value #OBJECT_NAME} once {@link #register} has been called.
+ *
+ * <p>Counters are {@link LongAdder}s and latencies go into {@link LatencyHistogram}s, both striped so that recording
+ * never locks and threads on different cores rarely touch the same cache line. Counting costs a few nanoseconds;
+ * timing adds two {@link System#nanoTime} calls, and can be switched off at run time through
+ * {@link #setTimingEnabled}.
+ */
+public final class GameMetrics implements GameMetricsMBean {
+    public static final String OBJECT_NAME = "org.example:type=GameMetrics";
+
+    private static final GameMetrics INSTANCE = new GameMetrics();
+
+    private final LongAdder gamesStarted = new LongAdder();
+    private final LongAdder gamesFinished = new LongAdder();
+    private final LongAdder rolls = new LongAdder();
+    private final LongAdder moves = new LongAdder();
+    private final LongAdder bonusYahtzees = new LongAdder();
+    private final LongAdder jokerPlays = new LongAdder();
+    private final LatencyHistogram moveLatency = new LatencyHistogram();
+    private final LatencyHistogram fanOutLatency = new LatencyHistogram();
+    private final LatencyHistogram renderLatency = new LatencyHistogram();
+    private volatile boolean timingEnabled = true;
+
+    private GameMetrics() {
+    }
+
+    public static GameMetrics get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server. Calling this more than once does nothing.
+     */
+    public static void register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException e) {
+            // Already registered.
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register " + OBJECT_NAME, e);
+        }
+    }
+
+    /**
+     * Returns the current {@link System#nanoTime}, or 0 if timing is switched off, to pass to {@link #moveMade(long)}
+     * or {@link #listenersNotified(long)}.
+     */
+    public long startTimer() {
+        return timingEnabled ? System.nanoTime() : 0;
+    }
+
+    void gameStarted() {
+        gamesStarted.increment();
+    }
+
+    void gameFinished() {
+        gamesFinished.increment();
+    }
+
+    void diceRolled() {
+        rolls.increment();
+    }
+
+    void bonusYahtzee() {
+        bonusYahtzees.increment();
+    }
+
+    void jokerPlayed() {
+        jokerPlays.increment();
+    }
+
+    void moveMade(long start) {
+        moves.increment();
+        record(moveLatency, start);
+    }
+
+    void listenersNotified(long start) {
+        record(fanOutLatency, start);
+    }
+
+    void scoreTableRendered(long start) {
+        record(renderLatency, start);
+    }
+
+    private static void record(LatencyHistogram histogram, long start) {
+        if (start != 0) {
+            histogram.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public long getGamesStarted() {
+        return gamesStarted.sum();
+    }
+
+    @Override
+    public long getGamesFinished() {
+        return gamesFinished.sum();
+    }
+
+    @Override
+    public long getRolls() {
+        return rolls.sum();
+    }
+
+    @Override
+    public long getMoves() {
+        return moves.sum();
+    }
+
+    @Override
+    public long getBonusYahtzees() {
+        return bonusYahtzees.sum();
+    }
+
+    @Override
+    public long getJokerPlays() {
+        return jokerPlays.sum();
+    }
+
+    @Override
+    public boolean isTimingEnabled() {
+        return timingEnabled;
+    }
+
+    @Override
+    public void setTimingEnabled(boolean enabled) {
+        timingEnabled = enabled;
+    }
+
+    @Override
+    public double getMoveMeanNanos() {
+        return moveLatency.getMeanNanos();
+    }
+
+    @Override
+    public long getMoveP50Nanos() {
+        return moveLatency.getPercentileNanos(50);
+    }
+
+    @Override
+    public long getMoveP99Nanos() {
+        return moveLatency.getPercentileNanos(99);
+    }
+
+    @Override
+    public long getMoveMaxNanos() {
+        return moveLatency.getMaxNanos();
+    }
+
+    @Override
+    public double getListenerFanOutMeanNanos() {
+        return fanOutLatency.getMeanNanos();
+    }
+
+    @Override
+    public long getListenerFanOutP50Nanos() {
+        return fanOutLatency.getPercentileNanos(50);
+    }
+
+    @Override
+    public long getListenerFanOutP99Nanos() {
+        return fanOutLatency.getPercentileNanos(99);
+    }
+
+    @Override
+    public long getListenerFanOutMaxNanos() {
+        return fanOutLatency.getMaxNanos();
+    }
+
+    @Override
+    public double getScoreTableRenderMeanNanos() {
+        return renderLatency.getMeanNanos();
+    }
+
+    @Override
+    public long getScoreTableRenderP50Nanos() {
+        return renderLatency.getPercentileNanos(50);
+    }
+
+    @Override
+    public long getScoreTableRenderP99Nanos() {
+        return renderLatency.getPercentileNanos(99);
+    }
+
+    @Override
+    public long getScoreTableRenderMaxNanos() {
+        return renderLatency.getMaxNanos();
+    }
+}
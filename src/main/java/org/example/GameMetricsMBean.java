@@ -0,0 +1,46 @@
+package org.example;
+
+/**
+ * The JMX view of {@link GameMetrics}. Latencies are in nanoseconds.
+ */
+public interface GameMetricsMBean {
+    long getGamesStarted();
+
+    long getGamesFinished();
+
+    long getRolls();
+
+    long getMoves();
+
+    long getBonusYahtzees();
+
+    long getJokerPlays();
+
+    boolean isTimingEnabled();
+
+    void setTimingEnabled(boolean enabled);
+
+    double getMoveMeanNanos();
+
+    long getMoveP50Nanos();
+
+    long getMoveP99Nanos();
+
+    long getMoveMaxNanos();
+
+    double getListenerFanOutMeanNanos();
+
+    long getListenerFanOutP50Nanos();
+
+    long getListenerFanOutP99Nanos();
+
+    long getListenerFanOutMaxNanos();
+
+    double getScoreTableRenderMeanNanos();
+
+    long getScoreTableRenderP50Nanos();
+
+    long getScoreTableRenderP99Nanos();
+
+    long getScoreTableRenderMaxNanos();
+}
@@ -0,0 +1,598 @@
+package org.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Stream;
+
+/**
+ * A columnar store of finished games, for questions over many of them such as how often Yahtzee is scratched, or the
+ * average upper section total when the bonus is missed.
+ *
+ * <p>Each player of each game is a row of int columns: the seat, the number of players, the upper section total
+ * without the bonus, the bonus, the bonus Yahtzees, the final score, whether the player won (ties count for everyone
+ * tied), and the score in every box. Rows are buffered and written out in immutable segment files of
+ * {@code rowsPerSegment} rows, each column on its own and compressed the smaller of two ways: bit-packed as offsets from
+ * the column's minimum in the segment, or as bit-packed runs of equal values. Each segment keeps every column's minimum
+ * and maximum, so a query skips segments none of whose rows can match, and only decodes the columns it uses.
+ *
+ * <p>Segments are memory-mapped and scanned in parallel, a block of rows at a time; nothing about the games is kept in
+ * the heap. Games on different threads can share a store: the lock is only held to copy a batch of rows into the buffer,
+ * and a full buffer is encoded and written out by the thread that filled it, after letting go. A query sees the segments
+ * written when it starts.
+ */
+public class GameRecordStore implements Closeable {
+    public static final int PLAYER = 0;
+    public static final int PLAYERS = 1;
+    public static final int UPPER_TOTAL = 2;
+    public static final int UPPER_BONUS = 3;
+    public static final int BONUS_YAHTZEES = 4;
+    public static final int TOTAL = 5;
+    public static final int WINNER = 6;
+    private static final int FIRST_BOX = 7;
+    private static final String[] COLUMN_NAMES = {
+            "Player", "Players", "Upper section total", "Upper section bonus", "Bonus Yahtzees", "Total", "Winner"};
+
+    private static final int MAGIC = 0x59545243; // "YTRC"
+    private static final int VERSION = 1;
+    private static final int RULES_NAME_SIZE = 32;
+    private static final int HEADER_SIZE = 16 + RULES_NAME_SIZE;
+    private static final int COLUMN_HEADER_SIZE = 24;
+    private static final byte PACKED = 0;
+    private static final byte RUN_LENGTH = 1;
+    private static final int BLOCK_ROWS = 1024;
+
+    private final Path directory;
+    private final RuleSet rules;
+    private final int rowsPerSegment;
+    private final int columnCount;
+    private final List<Segment> segments = new ArrayList<>();
+    // Queries of the same parallelism share a pool.
+    private final Map<Integer, ForkJoinPool> queryPools = new HashMap<>();
+    // buffer[column][row] for the rows not written out yet.
+    private int[][] buffer;
+    private int bufferedRows;
+    private int nextSegment;
+
+    /**
+     * Opens the store of games played by the given rules in the given directory, creating it if needed. New segments
+     * hold {@code rowsPerSegment} rows each.
+     */
+    public GameRecordStore(Path directory, RuleSet rules, int rowsPerSegment) throws IOException {
+        if (rules.name().length() > RULES_NAME_SIZE) {
+            throw new IllegalArgumentException("The rules name " + rules.name() + " is too long");
+        }
+        this.directory = directory;
+        this.rules = rules;
+        this.rowsPerSegment = rowsPerSegment;
+        columnCount = FIRST_BOX + rules.getBoxCount();
+        buffer = new int[columnCount][rowsPerSegment];
+        Files.createDirectories(directory);
+
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.filter(p -> p.getFileName().toString().matches("records-\\d+\\.col")).sorted().toList();
+        }
+        for (Path file : files) {
+            Segment segment = new Segment(file);
+            if (!segment.rulesName.equals(rules.name()) || segment.columns.length != columnCount) {
+                throw new IOException(file + " holds games of " + segment.rulesName + ", not " + rules.name());
+            }
+            segments.add(segment);
+        }
+        nextSegment = segments.size();
+    }
+
+    /**
+     * Returns the column of the given box's scores.
+     */
+    public static int box(int box) {
+        return FIRST_BOX + box;
+    }
+
+    public String getColumnName(int column) {
+        return column < FIRST_BOX ? COLUMN_NAMES[column] : rules.boxes().get(column - FIRST_BOX).name();
+    }
+
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    /**
+     * Adds a row for each player of the game, which must be over.
+     */
+    public void append(YahtzeeGame game) throws IOException {
+        appendAll(List.of(game));
+    }
+
+    /**
+     * Adds a row for each player of each of the games, which must all be over. The rows are laid out before taking the
+     * lock, and any segment they fill is encoded and written out after letting it go, so appending a batch of games at a
+     * time keeps threads that share the store from waiting on each other.
+     */
+    public void appendAll(List<YahtzeeGame> games) throws IOException {
+        int rowCount = 0;
+        for (YahtzeeGame game : games) {
+            if (!game.getRules().equals(rules)) {
+                throw new IllegalArgumentException("This store holds games of " + rules + ", not " + game.getRules());
+            }
+            if (!game.isGameOver()) {
+                throw new IllegalArgumentException("Only finished games can be stored");
+            }
+            rowCount += game.getPlayers().size();
+        }
+        int[][] rows = new int[columnCount][rowCount];
+        int row = 0;
+        for (YahtzeeGame game : games) {
+            row = addRows(rows, row, game);
+        }
+
+        List<PendingSegment> full = new ArrayList<>();
+        synchronized (this) {
+            for (int copied = 0; copied < rowCount; ) {
+                if (bufferedRows == rowsPerSegment) {
+                    full.add(takeBuffer());
+                }
+                int take = Math.min(rowCount - copied, rowsPerSegment - bufferedRows);
+                for (int column = 0; column < columnCount; column++) {
+                    System.arraycopy(rows[column], copied, buffer[column], bufferedRows, take);
+                }
+                bufferedRows += take;
+                copied += take;
+            }
+        }
+        for (PendingSegment segment : full) {
+            write(segment);
+        }
+    }
+
+    /**
+     * Writes out the rows appended since the last segment, as a segment of their own. Segments that other threads are
+     * writing out at the same time are added when they finish.
+     */
+    public void flush() throws IOException {
+        PendingSegment segment;
+        synchronized (this) {
+            if (bufferedRows == 0) {
+                return;
+            }
+            segment = takeBuffer();
+        }
+        write(segment);
+    }
+
+    /**
+     * Flushes the store, and stops the threads of its queries.
+     */
+    @Override
+    public void close() throws IOException {
+        flush();
+        synchronized (this) {
+            queryPools.values().forEach(ForkJoinPool::shutdown);
+            queryPools.clear();
+        }
+    }
+
+    /**
+     * Returns the number of rows written out to segments.
+     */
+    public synchronized long getRowCount() {
+        long rows = 0;
+        for (Segment segment : segments) {
+            rows += segment.rows;
+        }
+        return rows;
+    }
+
+    /**
+     * Starts a query over the rows written out so far, which runs on {@code parallelism} threads.
+     */
+    public synchronized Query query(int parallelism) {
+        return new Query(List.copyOf(segments), queryPools.computeIfAbsent(parallelism, ForkJoinPool::new));
+    }
+
+    // Lays out a row for each player of the game from the given row on, and returns the row after them.
+    private int addRows(int[][] rows, int row, YahtzeeGame game) {
+        int players = game.getPlayers().size();
+        int best = Integer.MIN_VALUE;
+        for (int player = 0; player < players; player++) {
+            best = Math.max(best, game.getPlayerScore(player));
+        }
+        for (int player = 0; player < players; player++, row++) {
+            rows[PLAYER][row] = player;
+            rows[PLAYERS][row] = players;
+            rows[UPPER_TOTAL][row] = game.getUpperSectionScore(player);
+            rows[UPPER_BONUS][row] = game.getUpperSectionBonusScore(player);
+            rows[BONUS_YAHTZEES][row] = game.getBonusYahtzeeCount(player);
+            rows[TOTAL][row] = game.getPlayerScore(player);
+            rows[WINNER][row] = game.getPlayerScore(player) == best ? 1 : 0;
+            Map<Combination, Integer> moves = game.getPlayerMoves(player);
+            for (int box = 0; box < rules.getBoxCount(); box++) {
+                rows[FIRST_BOX + box][row] = moves.get(game.getCombination(box));
+            }
+        }
+        return row;
+    }
+
+    // Hands the buffered rows over to be written out as the next segment, and starts a new buffer. Called holding the
+    // lock.
+    private PendingSegment takeBuffer() {
+        var segment = new PendingSegment(directory.resolve(String.format("records-%05d.col", nextSegment++)), buffer,
+                bufferedRows);
+        buffer = new int[columnCount][rowsPerSegment];
+        bufferedRows = 0;
+        return segment;
+    }
+
+    private void write(PendingSegment pending) throws IOException {
+        write(pending.file, pending.columns, pending.rows);
+        var segment = new Segment(pending.file);
+        synchronized (this) {
+            segments.add(segment);
+        }
+    }
+
+    private void write(Path file, int[][] columns, int rowCount) throws IOException {
+        long[][] data = new long[columnCount][];
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + columnCount * COLUMN_HEADER_SIZE)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(rowCount).putInt(columnCount);
+        header.put(Arrays.copyOf(rules.name().getBytes(StandardCharsets.US_ASCII), RULES_NAME_SIZE));
+
+        long offset = header.capacity();
+        for (int column = 0; column < columnCount; column++) {
+            int[] values = columns[column];
+            int min = Integer.MAX_VALUE;
+            int max = Integer.MIN_VALUE;
+            int runs = 0;
+            int longestRun = 0;
+            for (int row = 0, run = 0; row < rowCount; row++) {
+                min = Math.min(min, values[row]);
+                max = Math.max(max, values[row]);
+                run = row > 0 && values[row] == values[row - 1] ? run + 1 : 1;
+                runs += run == 1 ? 1 : 0;
+                longestRun = Math.max(longestRun, run);
+            }
+
+            int width = bitsFor(max - min);
+            int runWidth = bitsFor(longestRun - 1);
+            byte encoding;
+            if (words(runs, width) + words(runs, runWidth) < words(rowCount, width)) {
+                encoding = RUN_LENGTH;
+                data[column] = new long[words(runs, width) + words(runs, runWidth)];
+                int lengths = words(runs, width) * 64;
+                for (int row = 0, run = 0; row < rowCount; run++) {
+                    int end = row;
+                    while (end < rowCount && values[end] == values[row]) {
+                        end++;
+                    }
+                    put(data[column], 0, run, width, values[row] - min);
+                    put(data[column], lengths, run, runWidth, end - row - 1);
+                    row = end;
+                }
+            } else {
+                encoding = PACKED;
+                data[column] = new long[words(rowCount, width)];
+                for (int row = 0; row < rowCount; row++) {
+                    put(data[column], 0, row, width, values[row] - min);
+                }
+            }
+
+            header.put(encoding).put((byte) width).put((byte) runWidth).put((byte) 0);
+            header.putInt(min).putInt(max).putInt(runs).putLong(offset);
+            offset += data[column].length * 8L;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            writeFully(channel, header.flip());
+            for (long[] words : data) {
+                ByteBuffer bytes = ByteBuffer.allocate(words.length * 8).order(ByteOrder.LITTLE_ENDIAN);
+                bytes.asLongBuffer().put(words);
+                writeFully(channel, bytes);
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+
+    private static int bitsFor(int value) {
+        return 32 - Integer.numberOfLeadingZeros(value);
+    }
+
+    private static int words(int count, int width) {
+        return (int) (((long) count * width + 63) >>> 6);
+    }
+
+    // Packs the index'th value of the given width, starting at bit base of the words.
+    private static void put(long[] words, long base, int index, int width, int value) {
+        if (width == 0) {
+            return;
+        }
+        long bit = base + (long) index * width;
+        int word = (int) (bit >>> 6);
+        int shift = (int) (bit & 63);
+        words[word] |= (long) value << shift;
+        if (shift + width > 64) {
+            words[word + 1] |= (long) value >>> (64 - shift);
+        }
+    }
+
+    /**
+     * The count, sum, minimum and maximum of a column over the rows that matched.
+     */
+    public record Aggregate(long count, long sum, int min, int max) {
+        static final Aggregate EMPTY = new Aggregate(0, 0, Integer.MAX_VALUE, Integer.MIN_VALUE);
+
+        public double mean() {
+            return count == 0 ? Double.NaN : (double) sum / count;
+        }
+
+        Aggregate combine(Aggregate other) {
+            return new Aggregate(count + other.count, sum + other.sum, Math.min(min, other.min),
+                    Math.max(max, other.max));
+        }
+    }
+
+    /**
+     * Filters, groups and aggregates the rows. Filters are inclusive ranges of a column's values, and all of them must
+     * match.
+     */
+    public static final class Query {
+        private final List<Segment> segments;
+        private final ForkJoinPool pool;
+        private final List<int[]> filters = new ArrayList<>();
+
+        private Query(List<Segment> segments, ForkJoinPool pool) {
+            this.segments = segments;
+            this.pool = pool;
+        }
+
+        /**
+         * Keeps only the rows whose value in the column is between {@code min} and {@code max}, inclusive.
+         */
+        public Query where(int column, int min, int max) {
+            filters.add(new int[] {column, min, max});
+            return this;
+        }
+
+        /**
+         * Keeps only the rows with the given value in the column.
+         */
+        public Query where(int column, int value) {
+            return where(column, value, value);
+        }
+
+        /**
+         * Returns the number of rows that match.
+         */
+        public long count() {
+            return aggregate(PLAYER).count();
+        }
+
+        /**
+         * Aggregates the column over the rows that match.
+         */
+        public Aggregate aggregate(int column) {
+            return run(-1, column).getOrDefault(0, Aggregate.EMPTY);
+        }
+
+        /**
+         * Aggregates the column over the rows that match, separately for each value of the group column.
+         */
+        public SortedMap<Integer, Aggregate> aggregateBy(int groupColumn, int column) {
+            return run(groupColumn, column);
+        }
+
+        private SortedMap<Integer, Aggregate> run(int groupColumn, int column) {
+            return pool.invoke(new ScanTask(this, groupColumn, column, 0, segments.size()));
+        }
+
+        private SortedMap<Integer, Aggregate> scan(Segment segment, int groupColumn, int column) {
+            var results = new TreeMap<Integer, Aggregate>();
+            // Filters that every row passes are dropped, and a filter that no row can pass skips the segment.
+            List<int[]> active = new ArrayList<>();
+            for (int[] filter : filters) {
+                ColumnHeader header = segment.columns[filter[0]];
+                if (filter[1] > header.max || filter[2] < header.min) {
+                    return results;
+                }
+                if (filter[1] > header.min || filter[2] < header.max) {
+                    active.add(filter);
+                }
+            }
+
+            // One reader per column used, however many times.
+            ColumnReader[] readers = new ColumnReader[segment.columns.length];
+            for (int[] filter : active) {
+                readers[filter[0]] = segment.reader(filter[0]);
+            }
+            readers[column] = segment.reader(column);
+            if (groupColumn >= 0) {
+                readers[groupColumn] = segment.reader(groupColumn);
+            }
+
+            int groupMin = groupColumn >= 0 ? segment.columns[groupColumn].min : 0;
+            int groups = groupColumn >= 0 ? segment.columns[groupColumn].max - groupMin + 1 : 1;
+            long[] counts = new long[groups];
+            long[] sums = new long[groups];
+            int[] mins = new int[groups];
+            int[] maxes = new int[groups];
+            Arrays.fill(mins, Integer.MAX_VALUE);
+            Arrays.fill(maxes, Integer.MIN_VALUE);
+
+            int[][] values = new int[readers.length][];
+            for (int start = 0; start < segment.rows; start += BLOCK_ROWS) {
+                int rows = Math.min(BLOCK_ROWS, segment.rows - start);
+                for (int c = 0; c < readers.length; c++) {
+                    if (readers[c] != null) {
+                        values[c] = readers[c].read(rows);
+                    }
+                }
+                int[] aggregated = values[column];
+                int[] grouped = groupColumn >= 0 ? values[groupColumn] : null;
+                matching:
+                for (int row = 0; row < rows; row++) {
+                    for (int[] filter : active) {
+                        int value = values[filter[0]][row];
+                        if (value < filter[1] || value > filter[2]) {
+                            continue matching;
+                        }
+                    }
+                    int group = grouped == null ? 0 : grouped[row] - groupMin;
+                    int value = aggregated[row];
+                    counts[group]++;
+                    sums[group] += value;
+                    mins[group] = Math.min(mins[group], value);
+                    maxes[group] = Math.max(maxes[group], value);
+                }
+            }
+
+            for (int group = 0; group < groups; group++) {
+                if (counts[group] > 0) {
+                    results.put(groupMin + group, new Aggregate(counts[group], sums[group], mins[group], maxes[group]));
+                }
+            }
+            return results;
+        }
+    }
+
+    private static class ScanTask extends RecursiveTask<SortedMap<Integer, Aggregate>> {
+        private final Query query;
+        private final int groupColumn;
+        private final int column;
+        private final int from;
+        private final int to;
+
+        ScanTask(Query query, int groupColumn, int column, int from, int to) {
+            this.query = query;
+            this.groupColumn = groupColumn;
+            this.column = column;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected SortedMap<Integer, Aggregate> compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                var left = new ScanTask(query, groupColumn, column, from, mid);
+                var right = new ScanTask(query, groupColumn, column, mid, to);
+                left.fork();
+                SortedMap<Integer, Aggregate> result = right.compute();
+                left.join().forEach((group, aggregate) -> result.merge(group, aggregate, Aggregate::combine));
+                return result;
+            }
+            return from == to ? new TreeMap<>() : query.scan(query.segments.get(from), groupColumn, column);
+        }
+    }
+
+    // Rows taken out of the buffer, on their way to the given segment file.
+    private record PendingSegment(Path file, int[][] columns, int rows) {
+    }
+
+    private record ColumnHeader(byte encoding, int width, int runWidth, int min, int max, int runs, long offset) {
+    }
+
+    private static final class Segment {
+        final MappedByteBuffer data;
+        final String rulesName;
+        final int rows;
+        final ColumnHeader[] columns;
+
+        Segment(Path file) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                data.order(ByteOrder.LITTLE_ENDIAN);
+            }
+            if (data.capacity() < HEADER_SIZE || data.getInt(0) != MAGIC || data.getInt(4) != VERSION) {
+                throw new IOException(file + " is not a game record segment");
+            }
+            rows = data.getInt(8);
+            byte[] name = new byte[RULES_NAME_SIZE];
+            data.get(16, name);
+            rulesName = new String(name, StandardCharsets.US_ASCII).trim();
+            columns = new ColumnHeader[data.getInt(12)];
+            for (int column = 0; column < columns.length; column++) {
+                int at = HEADER_SIZE + column * COLUMN_HEADER_SIZE;
+                columns[column] = new ColumnHeader(data.get(at), data.get(at + 1), data.get(at + 2),
+                        data.getInt(at + 4), data.getInt(at + 8), data.getInt(at + 12), data.getLong(at + 16));
+            }
+        }
+
+        ColumnReader reader(int column) {
+            return new ColumnReader(data, columns[column]);
+        }
+    }
+
+    // Decodes a column a block at a time, from the start.
+    private static final class ColumnReader {
+        private final MappedByteBuffer data;
+        private final ColumnHeader header;
+        private final int[] block = new int[BLOCK_ROWS];
+        private int next;
+        private int runLeft;
+        private int runValue;
+
+        ColumnReader(MappedByteBuffer data, ColumnHeader header) {
+            this.data = data;
+            this.header = header;
+        }
+
+        int[] read(int rows) {
+            if (header.encoding == PACKED) {
+                for (int i = 0; i < rows; i++) {
+                    block[i] = header.min + get(0, next++, header.width);
+                }
+                return block;
+            }
+
+            long lengths = (long) words(header.runs, header.width) * 64;
+            for (int i = 0; i < rows; ) {
+                if (runLeft == 0) {
+                    runValue = header.min + get(0, next, header.width);
+                    runLeft = get(lengths, next, header.runWidth) + 1;
+                    next++;
+                }
+                int take = Math.min(runLeft, rows - i);
+                Arrays.fill(block, i, i + take, runValue);
+                runLeft -= take;
+                i += take;
+            }
+            return block;
+        }
+
+        private int get(long base, int index, int width) {
+            if (width == 0) {
+                return 0;
+            }
+            long bit = base + (long) index * width;
+            long at = header.offset + (bit >>> 6) * 8;
+            int shift = (int) (bit & 63);
+            long value = data.getLong((int) at) >>> shift;
+            if (shift + width > 64) {
+                value |= data.getLong((int) at + 8) << (64 - shift);
+            }
+            return (int) (value & ((1L << width) - 1));
+        }
+    }
+}
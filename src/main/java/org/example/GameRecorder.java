@@ -0,0 +1,27 @@
+package org.example;
+
+/**
+ * Told about each action taken in a {@link YahtzeeGame}, after the game state has been updated.
+ */
+public interface GameRecorder {
+    /**
+     * The current player rolled the dice.
+     */
+    void diceRolled(YahtzeeGame game);
+
+    /**
+     * The current player held or released a die.
+     */
+    void dieHeld(YahtzeeGame game, int die, boolean held);
+
+    /**
+     * The dice were set to the faces they show, rather than rolled.
+     */
+    void diceSet(YahtzeeGame game);
+
+    /**
+     * The player played the given {@link ScoringTable} box. The turn has passed and the dice are rolled for the next
+     * player.
+     */
+    void moveMade(YahtzeeGame game, int player, int box);
+}
@@ -0,0 +1,437 @@
+package org.example;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hosts any number of games for clients connecting over TCP, one thread per connection. Connection threads are
+ * virtual threads where the JVM has them (Java 21 and later), so thousands of idle connections cost next to nothing;
+ * otherwise they are ordinary cached threads.
+ *
+ * <p>The protocol is line based. Each request line gets exactly one response line, either as below or
+ * {@code ERR <message>}:
+ *
+ * <pre>
+ * NEW &lt;players&gt; [seed]   GAME &lt;id&gt;          start a game and play it on this connection
+ * JOIN &lt;id&gt;               GAME &lt;id&gt;          play an existing game on this connection
+ * STATE                   STATE &lt;player&gt; &lt;rolls remaining&gt; &lt;d1&gt; .. &lt;d5&gt;
+ * HOLD &lt;die&gt; &lt;0|1&gt;        OK
+ * ROLL                    STATE ...
+ * MOVE &lt;box&gt;              STATE ...            or OVER &lt;score&gt; .. once the last move is made
+ * SCORES                  SCORES &lt;score&gt; ..
+ * STATS                   STATS &lt;sessions&gt; &lt;moves&gt; &lt;sessions/sec&gt; &lt;moves/sec&gt; &lt;p50 ns&gt; &lt;p99 ns&gt;
+ * QUIT                    BYE
+ * </pre>
+ *
+ * <p>Boxes are numbered as in {@link ScoringTable}. Several connections can play the same game. Each game runs as a
+ * {@link GameActor} on a small pool shared by all games, so its commands are applied one at a time without locking.
+ * A game is dropped when it ends, or when the connection that started it starts another or closes; connections
+ * that joined it can play on, but no others can join.
+ */
+public class GameServer implements Closeable {
+    private final ServerSocket serverSocket;
+    private final ExecutorService connectionExecutor = newConnectionExecutor();
+    private final Thread acceptor;
+    private final Set<Socket> sockets = ConcurrentHashMap.newKeySet();
+    private final ForkJoinPool gameExecutor = new ForkJoinPool(Runtime.getRuntime().availableProcessors(),
+            ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+    private final Map<Long, GameActor> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong nextSessionId = new AtomicLong();
+
+    private final long startNanos = System.nanoTime();
+    private final LongAdder sessionsStarted = new LongAdder();
+    private final LongAdder sessionsCompleted = new LongAdder();
+    private final LongAdder moves = new LongAdder();
+    private final LatencyHistogram moveLatency = new LatencyHistogram();
+
+    /**
+     * Starts a server on the loopback interface. Pass port 0 to pick any free port; {@link #getPort} tells which.
+     */
+    public GameServer(int port) throws IOException {
+        GameMetrics.register();
+        serverSocket = new ServerSocket();
+        serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 4096);
+        acceptor = new Thread(this::acceptConnections, "GameServer acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    public Stats getStats() {
+        return new Stats(sessionsStarted.sum(), sessionsCompleted.sum(), moves.sum(),
+                Duration.ofNanos(System.nanoTime() - startNanos), moveLatency);
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (Socket socket : sockets) {
+            socket.close();
+        }
+        connectionExecutor.shutdownNow();
+        gameExecutor.shutdown();
+    }
+
+    /**
+     * Returns an executor that runs each task in a new virtual thread, or in a cached daemon thread if virtual threads
+     * are not available.
+     */
+    static ExecutorService newConnectionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    private void acceptConnections() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                sockets.add(socket);
+                connectionExecutor.execute(() -> serve(socket));
+            } catch (IOException e) {
+                // Closed while waiting for a connection.
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        var connection = new Connection();
+        try (socket;
+             var in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+             var out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String response;
+                try {
+                    response = handle(connection, line.trim().split(" +"));
+                } catch (IllegalArgumentException | IllegalStateException | IndexOutOfBoundsException e) {
+                    response = "ERR " + e.getMessage();
+                }
+                out.write(response);
+                out.write('\n');
+                out.flush();
+                if (response.equals("BYE")) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            // The client went away.
+        } finally {
+            sockets.remove(socket);
+            sessions.remove(connection.started);
+        }
+    }
+
+    private String handle(Connection connection, String[] command) {
+        switch (command[0]) {
+            case "NEW" -> {
+                int playerCount = Integer.parseInt(command[1]);
+                if (playerCount < 1 || playerCount > 16) {
+                    throw new IllegalArgumentException("Games must have between 1 and 16 players");
+                }
+                List<YahtzeePlayer> players = new ArrayList<>();
+                for (int i = 0; i < playerCount; i++) {
+                    players.add(new YahtzeePlayer("Player " + (i + 1)));
+                }
+                YahtzeeDice dice = command.length > 2
+                        ? new YahtzeeDice(DiceRoller.seeded(Long.parseLong(command[2])))
+                        : new YahtzeeDice();
+
+                long id = nextSessionId.getAndIncrement();
+                connection.game = new GameActor(new YahtzeeGame(players, dice), gameExecutor);
+                connection.gameId = id;
+                // A connection only plays one game at a time, so the one it started last is done with.
+                sessions.remove(connection.started);
+                connection.started = id;
+                sessions.put(id, connection.game);
+                sessionsStarted.increment();
+                return "GAME " + id;
+            }
+            case "JOIN" -> {
+                long id = Long.parseLong(command[1]);
+                GameActor game = sessions.get(id);
+                if (game == null) {
+                    throw new IllegalArgumentException("No game " + id);
+                }
+                connection.game = game;
+                connection.gameId = id;
+                return "GAME " + id;
+            }
+            case "STATS" -> {
+                Stats stats = getStats();
+                return String.format("STATS %d %d %.1f %.1f %d %d", stats.sessionsStarted(), stats.moves(),
+                        stats.sessionsPerSecond(), stats.movesPerSecond(),
+                        stats.moveLatency().getPercentileNanos(50), stats.moveLatency().getPercentileNanos(99));
+            }
+            case "QUIT" -> {
+                return "BYE";
+            }
+            default -> {
+                GameActor actor = connection.game;
+                if (actor == null) {
+                    throw new IllegalStateException("No game; send NEW or JOIN first");
+                }
+                long gameId = connection.gameId;
+                try {
+                    return actor.execute(game -> handleGameCommand(gameId, game, command)).join();
+                } catch (CompletionException e) {
+                    if (e.getCause() instanceof RuntimeException cause) {
+                        throw cause;
+                    }
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private String handleGameCommand(long gameId, YahtzeeGame game, String[] command) {
+        if (game.isGameOver() && !command[0].equals("SCORES")) {
+            throw new IllegalStateException("The game is over");
+        }
+
+        switch (command[0]) {
+            case "STATE" -> {
+                return state(game);
+            }
+            case "HOLD" -> {
+                game.setDieHeld(Integer.parseInt(command[1]), command[2].equals("1"));
+                return "OK";
+            }
+            case "ROLL" -> {
+                game.rollDice();
+                return state(game);
+            }
+            case "MOVE" -> {
+                int box = Integer.parseInt(command[1]);
+                if (box < 0 || box >= ScoringTable.BOX_COUNT) {
+                    throw new IllegalArgumentException("No box " + box);
+                }
+                long start = System.nanoTime();
+                game.makeMove(game.getCombination(box));
+                moveLatency.record(System.nanoTime() - start);
+                moves.increment();
+                if (game.isGameOver()) {
+                    sessions.remove(gameId);
+                    sessionsCompleted.increment();
+                    return scores("OVER", game);
+                }
+                return state(game);
+            }
+            case "SCORES" -> {
+                return scores("SCORES", game);
+            }
+            default -> throw new IllegalArgumentException("Unknown command " + command[0]);
+        }
+    }
+
+    private static String state(YahtzeeGame game) {
+        var sb = new StringBuilder("STATE ").append(game.getWhoseTurn()).append(' ').append(game.getRollsRemaining());
+        for (int i = 0; i < ScoringTable.DICE_COUNT; i++) {
+            sb.append(' ').append(game.getDice().getDie(i));
+        }
+        return sb.toString();
+    }
+
+    private static String scores(String prefix, YahtzeeGame game) {
+        var sb = new StringBuilder(prefix);
+        for (int player = 0; player < game.getPlayers().size(); player++) {
+            sb.append(' ').append(game.getPlayerScore(player));
+        }
+        return sb.toString();
+    }
+
+    private static class Connection {
+        // The game this connection started last, or -1.
+        private long started = -1;
+        private GameActor game;
+        private long gameId;
+    }
+
+    /**
+     * Server throughput since it started.
+     *
+     * @param moveLatency how long the server took to apply each move, excluding the network
+     */
+    public record Stats(long sessionsStarted, long sessionsCompleted, long moves, Duration uptime,
+                        LatencyHistogram moveLatency) {
+        public double sessionsPerSecond() {
+            return sessionsStarted / (uptime.toNanos() / 1e9);
+        }
+
+        public double movesPerSecond() {
+            return moves / (uptime.toNanos() / 1e9);
+        }
+    }
+
+    /**
+     * A blocking client for the protocol. Not thread-safe; use one per connection.
+     */
+    public static class Client implements Closeable {
+        private final Socket socket;
+        private final BufferedReader in;
+        private final BufferedWriter out;
+
+        public Client(int port) throws IOException {
+            socket = new Socket(InetAddress.getLoopbackAddress(), port);
+            socket.setTcpNoDelay(true);
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII));
+        }
+
+        /**
+         * Sends one request and returns the response, split into words. Throws {@link IllegalStateException} if the
+         * server answers {@code ERR}.
+         */
+        public String[] send(String request) throws IOException {
+            out.write(request);
+            out.write('\n');
+            out.flush();
+            String response = in.readLine();
+            if (response == null) {
+                throw new IOException("The server closed the connection");
+            }
+            if (response.startsWith("ERR")) {
+                throw new IllegalStateException(response.substring(Math.min(4, response.length())));
+            }
+            return response.split(" ");
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+
+    /**
+     * Plays one game to the end over the given client, holding the most common face for both rerolls and then playing
+     * the open box that scores the most. Returns the final scores. The round trip of each move is recorded in
+     * {@code moveLatency}.
+     */
+    static int[] playGame(Client client, int players, long seed, LatencyHistogram moveLatency) throws IOException {
+        ScoringTable table = ScoringTable.get();
+        int[] played = new int[players];
+        int[] dice = new int[ScoringTable.DICE_COUNT];
+        client.send("NEW " + players + " " + seed);
+        String[] response = client.send("STATE");
+        while (response[0].equals("STATE")) {
+            int player = Integer.parseInt(response[1]);
+            int rolls = Integer.parseInt(response[2]);
+            for (int i = 0; i < dice.length; i++) {
+                dice[i] = Integer.parseInt(response[3 + i]);
+            }
+
+            int multiset = table.multisetOf(ScoringTable.rollIndex(dice));
+            int keep = 1;
+            for (int face = 2; face <= ScoringTable.FACE_COUNT; face++) {
+                if (table.count(multiset, face) >= table.count(multiset, keep)) {
+                    keep = face;
+                }
+            }
+            if (rolls > 0 && table.count(multiset, keep) < ScoringTable.DICE_COUNT) {
+                for (int i = 0; i < dice.length; i++) {
+                    client.send("HOLD " + i + (dice[i] == keep ? " 1" : " 0"));
+                }
+                response = client.send("ROLL");
+                continue;
+            }
+
+            int best = -1;
+            for (int box = 0; box < ScoringTable.BOX_COUNT; box++) {
+                if ((played[player] & (1 << box)) == 0
+                        && (best == -1 || table.score(multiset, box, false) > table.score(multiset, best, false))) {
+                    best = box;
+                }
+            }
+            played[player] |= 1 << best;
+            long start = System.nanoTime();
+            response = client.send("MOVE " + best);
+            moveLatency.record(System.nanoTime() - start);
+        }
+
+        int[] scores = new int[players];
+        for (int i = 0; i < players; i++) {
+            scores[i] = Integer.parseInt(response[1 + i]);
+        }
+        return scores;
+    }
+
+    /**
+     * Starts a server and loads it with many concurrent clients, each on its own connection, then reports throughput
+     * and latency.
+     *
+     * <p>Usage: {@code GameServer [connections] [games per connection] [players]}
+     */
+    public static void main(String[] args) throws Exception {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int gamesPerConnection = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int players = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+
+        var roundTrip = new LatencyHistogram();
+        try (var server = new GameServer(0)) {
+            ExecutorService clients = newConnectionExecutor();
+            List<Future<?>> results = new ArrayList<>();
+            for (int c = 0; c < connections; c++) {
+                long firstSeed = (long) c * gamesPerConnection;
+                results.add(clients.submit(() -> {
+                    try (var client = new Client(server.getPort())) {
+                        for (int g = 0; g < gamesPerConnection; g++) {
+                            playGame(client, players, firstSeed + g, roundTrip);
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+            clients.shutdown();
+
+            Stats stats = server.getStats();
+            System.out.printf("connections=%d sessions=%d moves=%d elapsed=%.2fs%n", connections,
+                    stats.sessionsCompleted(), stats.moves(), stats.uptime().toNanos() / 1e9);
+            System.out.printf("sessions/sec=%.0f moves/sec=%.0f%n", stats.sessionsPerSecond(),
+                    stats.movesPerSecond());
+            System.out.println("server move latency: " + stats.moveLatency());
+            System.out.println("client move round trip: " + roundTrip);
+        }
+    }
+}
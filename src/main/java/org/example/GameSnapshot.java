@@ -0,0 +1,46 @@
+package org.example;
+
+import java.util.List;
+
+/**
+ * An immutable copy of a game's state at one point, safe to read from any thread.
+ *
+ * @param version        how many commands had been applied to the game when the snapshot was taken
+ * @param whoseTurn      the current player
+ * @param rollsRemaining the current player's rolls left this turn
+ * @param packedDice     the dice, packed as by {@link GameLog#packDice}
+ * @param heldDice       the held dice, one bit per die
+ * @param gameOver       whether every player has filled their scorecard
+ * @param players        each player's scorecard
+ */
+public record GameSnapshot(long version, int whoseTurn, int rollsRemaining, int packedDice, int heldDice,
+                           boolean gameOver, List<PackedGameState> players) {
+    public static GameSnapshot of(YahtzeeGame game, long version) {
+        PackedGameState[] players = new PackedGameState[game.getPlayers().size()];
+        for (int player = 0; player < players.length; player++) {
+            players[player] = PackedGameState.of(game, player);
+        }
+
+        YahtzeeDice dice = game.getDice();
+        int held = 0;
+        for (int i = 0; i < dice.getDiceCount(); i++) {
+            if (dice.isHeld(i)) {
+                held |= 1 << i;
+            }
+        }
+        return new GameSnapshot(version, game.getWhoseTurn(), game.getRollsRemaining(), GameLog.packDice(dice), held,
+                game.isGameOver(), List.of(players));
+    }
+
+    public int getDie(int die) {
+        return GameLog.unpackDie(packedDice, die);
+    }
+
+    public boolean isHeld(int die) {
+        return (heldDice & (1 << die)) != 0;
+    }
+
+    public int getPlayerScore(int player) {
+        return players.get(player).getPlayerScore();
+    }
+}
@@ -0,0 +1,55 @@
+package org.example;
+
+/**
+ * A read-only view of a game, for strategies to decide from. See {@link YahtzeeGame#getView}.
+ */
+public interface GameView {
+    /**
+     * Returns the compiled rules of the game, which number its boxes and multisets.
+     */
+    ScoringTable getScoringTable();
+
+    int getPlayerCount();
+
+    int getWhoseTurn();
+
+    int getRollsRemaining();
+
+    /**
+     * Returns the face (1-6) of the given die.
+     */
+    int getDie(int die);
+
+    boolean isHeld(int die);
+
+    /**
+     * Returns the multiset of the dice in {@link #getScoringTable}.
+     */
+    int getMultiset();
+
+    /**
+     * Returns the boxes the player has played, with bit {@code b} set if box {@code b} has been played.
+     */
+    int getPlayedBoxes(int player);
+
+    /**
+     * Returns what the dice would score in the given box for the current player, with any Joker applied.
+     */
+    int getScore(int box);
+
+    int getPlayerScore(int player);
+
+    int getUpperSectionScore(int player);
+
+    /**
+     * Returns {@code true} if the player's Yahtzee box has scored, see {@link YahtzeeGame#hasYahtzeeBonus}.
+     */
+    boolean hasYahtzeeBonus(int player);
+
+    /**
+     * Returns the player's state packed as by {@link PackedGameState#of}, which only packs standard games.
+     */
+    PackedGameState getState(int player);
+
+    boolean isGameOver();
+}
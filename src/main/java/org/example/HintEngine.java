@@ -0,0 +1,199 @@
+package org.example;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Works out hints for a human player's turn in the background: the expected final score of playing each box now, the
+ * best dice to hold, and the value of the dice held at the moment, all assuming optimal play from here on.
+ *
+ * <p>Every roll, hold and move starts a new round of hints from a copy of the game, on a single shared thread, and
+ * makes every earlier round stale. A stale round that has not started is cancelled, and one that has stops at its next
+ * hint. Hints are handed to the listener one at a time as they are worked out, through the delivery executor. A hint
+ * is only delivered if the game has not changed since its round started, checked on the delivery thread; when that is
+ * the thread the game is played on, as with {@code SwingUtilities::invokeLater}, listeners never see a hint for an
+ * earlier state.
+ *
+ * <p>The value table for the rules is loaded, or solved, on the hint thread the first time it is needed, so the first
+ * hints can take a while. If it cannot be loaded, the engine gives no hints from then on, rather than trying again
+ * every round. Evaluating a turn is the slow part after that. Turns come from the table's {@link DecisionCache}, which
+ * the engine asks to evaluate the next player's turn as each turn starts, and the turn after a box the player has
+ * {@linkplain #boxSelected selected}; later rounds in the same turn only look values up.
+ */
+public class HintEngine implements YahtzeeGame.GameStateListener {
+    private static final ExecutorService HINTS = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "hints");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Only used on the hint thread.
+    private static final Map<RuleSet, ValueTable> TABLES = new HashMap<>();
+
+    private final YahtzeeGame game;
+    private final Callable<ValueTable> table;
+    private final Executor delivery;
+    private final HintListener listener;
+    private final AtomicLong round = new AtomicLong();
+    private Future<?> pending;
+    // Set on the hint thread once the value table is loaded.
+    private volatile DecisionCache cache;
+    // Set on the hint thread if it could not be.
+    private volatile boolean unavailable;
+    // Only used on the hint thread.
+    private HoldEvaluator evaluator;
+
+    /**
+     * Receives hints for the current player's turn, on the delivery executor.
+     */
+    public interface HintListener {
+        /**
+         * The expected final score of playing the box with the dice as they are.
+         */
+        void boxHint(int box, double value);
+
+        /**
+         * The best dice to hold, or -1 if the dice are best played as they are, with the expected final score of
+         * doing so; and the expected final score of rolling with the dice held now, or {@code NaN} with no rolls left.
+         */
+        void holdHint(int bestHolds, double bestValue, double heldValue);
+    }
+
+    /**
+     * Starts hinting the human players' turns of the game, whose rules {@link SolitaireSolver#supports} must support.
+     * Must be called on the thread that plays the game.
+     */
+    public HintEngine(YahtzeeGame game, Executor delivery, HintListener listener) {
+        this(game, () -> defaultTable(game.getRules()), delivery, listener);
+    }
+
+    /**
+     * Starts hinting from the value table the callable returns, which is called on the hint thread.
+     */
+    HintEngine(YahtzeeGame game, Callable<ValueTable> table, Executor delivery, HintListener listener) {
+        if (!SolitaireSolver.supports(game.getRules())) {
+            throw new IllegalArgumentException("There are no hints for " + game.getRules());
+        }
+        this.game = game;
+        this.table = table;
+        this.delivery = delivery;
+        this.listener = listener;
+        game.addGameStateListener(this, GameEvent.Type.DICE_ROLLED, GameEvent.Type.DIE_HELD,
+                GameEvent.Type.MOVE_MADE, GameEvent.Type.TURN_ADVANCED);
+        restart();
+    }
+
+    @Override
+    public void gameStateChanged(GameEvent event) {
+        restart();
+    }
+
+    // Called on the game's thread, so the copy is consistent.
+    private void restart() {
+        long current = round.incrementAndGet();
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
+        }
+        if (unavailable || game.isGameOver() || game.isBotTurn()) {
+            return;
+        }
+
+        GameView view = game.copyView();
+        pending = HINTS.submit(() -> hint(current, view));
+        if (cache != null) {
+            cache.speculateNextTurn(view);
+        }
+    }
+
+    /**
+     * Tells the engine the current player is thinking of playing the given box, so that the turn after it can be
+     * evaluated ahead of time. Must be called on the thread that plays the game.
+     */
+    public void boxSelected(int box) {
+        DecisionCache current = cache;
+        if (current != null && !game.isGameOver() && !game.hasPlayed(game.getWhoseTurn(), game.getCombination(box))) {
+            current.speculateMove(game.getView(), box);
+        }
+    }
+
+    private void hint(long current, GameView view) {
+        if (unavailable) {
+            // Rounds submitted before the load failed.
+            return;
+        }
+        if (evaluator == null) {
+            try {
+                cache = DecisionCache.of(table.call());
+                evaluator = new HoldEvaluator(cache);
+            } catch (Exception e) {
+                unavailable = true;
+                System.err.println("No hints, the value table could not be loaded: " + e);
+                return;
+            }
+            if (isStale(current)) {
+                return;
+            }
+        }
+
+        evaluator.prepare(view);
+        int holds = -1;
+        double bestValue = evaluator.evaluateStop(view);
+        double heldValue = Double.NaN;
+        if (view.getRollsRemaining() > 0) {
+            double[] values = evaluator.evaluateHolds(view);
+            int held = 0;
+            for (int die = 0; die < view.getScoringTable().getDiceCount(); die++) {
+                held |= view.isHeld(die) ? 1 << die : 0;
+            }
+            heldValue = values[held];
+            holds = evaluator.bestHolds(view);
+            if (holds >= 0) {
+                bestValue = values[holds];
+            }
+        }
+        deliver(current, holds, bestValue, heldValue);
+
+        int played = view.getPlayedBoxes(view.getWhoseTurn());
+        for (int box = 0; box < view.getScoringTable().getBoxCount() && !isStale(current); box++) {
+            if ((played & (1 << box)) == 0) {
+                deliver(current, box, evaluator.evaluateBox(view, box));
+            }
+        }
+    }
+
+    private void deliver(long current, int holds, double bestValue, double heldValue) {
+        delivery.execute(() -> {
+            if (!isStale(current)) {
+                listener.holdHint(holds, bestValue, heldValue);
+            }
+        });
+    }
+
+    private void deliver(long current, int box, double value) {
+        delivery.execute(() -> {
+            if (!isStale(current)) {
+                listener.boxHint(box, value);
+            }
+        });
+    }
+
+    private boolean isStale(long current) {
+        return round.get() != current;
+    }
+
+    private static ValueTable defaultTable(RuleSet rules) throws IOException {
+        ValueTable table = TABLES.get(rules);
+        if (table == null) {
+            table = SolitaireSolver.loadOrSolve(rules, SolitaireSolver.defaultPath(rules));
+            TABLES.put(rules, table);
+        }
+        return table;
+    }
+}
@@ -0,0 +1,141 @@
+package org.example;
+
+/**
+ * Scores every way of holding the current dice exactly: the current player's expected final score for each of the 32
+ * hold masks, assuming optimal play for the rest of the game.
+ *
+ * <p>The value of a hold is the probability-weighted value of the rolls it can lead to, read from the reroll
+ * transitions in {@link KeepTable}. Evaluating a turn fills in the values of every keep for both rerolls at once, so it
+ * is done once, on the first question about a turn, and every later question about that turn (for any dice and either
+ * reroll) is a table lookup. With a {@link DecisionCache}, the turn comes from the cache instead, often evaluated ahead
+ * of time. Not thread-safe; each thread needs its own evaluator.
+ */
+public class HoldEvaluator {
+    public static final int HOLD_COUNT = 1 << ScoringTable.DICE_COUNT;
+
+    private final DecisionCache cache;
+    private final ScoringTable scoring;
+    private final KeepTable keeps = KeepTable.get();
+    private TurnEvaluator evaluator;
+    private int state = -1;
+
+    /**
+     * Creates an evaluator for games of the rules the table was solved for.
+     */
+    public HoldEvaluator(ValueTable table) {
+        this.cache = null;
+        this.evaluator = new TurnEvaluator(table);
+        this.scoring = table.getScoringTable();
+    }
+
+    /**
+     * Creates an evaluator that takes its turns from the cache.
+     */
+    public HoldEvaluator(DecisionCache cache) {
+        this.cache = cache;
+        this.scoring = cache.getTable().getScoringTable();
+    }
+
+    /**
+     * Returns the expected final score of holding each subset of the dice and rolling, indexed by hold mask (bit
+     * {@code i} set to hold die {@code i}). The game must be in the middle of a turn with rolls remaining.
+     */
+    public double[] evaluateHolds(GameView game) {
+        var values = new double[HOLD_COUNT];
+        evaluateHolds(game, values);
+        return values;
+    }
+
+    /**
+     * Like {@link #evaluateHolds(GameView)}, writing into the given array of {@link #HOLD_COUNT} values.
+     */
+    public void evaluateHolds(GameView game, double[] values) {
+        int rolls = game.getRollsRemaining();
+        if (rolls == 0) {
+            throw new IllegalStateException("There are no rolls remaining");
+        }
+
+        prepare(game);
+        double score = game.getPlayerScore(game.getWhoseTurn());
+        for (int holds = 0; holds < HOLD_COUNT; holds++) {
+            values[holds] = score + evaluator.keepValues[rolls][keeps.keepOf(game, holds)];
+        }
+    }
+
+    /**
+     * Returns the expected final score of playing the best box with the dice as they are.
+     */
+    public double evaluateStop(GameView game) {
+        prepare(game);
+        return game.getPlayerScore(game.getWhoseTurn()) + evaluator.rollValues[0][game.getMultiset()];
+    }
+
+    /**
+     * Returns the expected final score of playing the given box with the dice as they are.
+     */
+    public double evaluateBox(GameView game, int box) {
+        prepare(game);
+        return game.getPlayerScore(game.getWhoseTurn())
+                + evaluator.boxValue(state >>> 7, (state >>> 1) & 63, (state & 1) != 0, game.getMultiset(), box);
+    }
+
+    /**
+     * Returns the best dice to hold for the next roll, or -1 if the dice are best played as they are.
+     */
+    public int bestHolds(GameView game) {
+        prepare(game);
+        int multiset = game.getMultiset();
+        int keep = evaluator.bestKeep[game.getRollsRemaining()][multiset];
+        if (game.getRollsRemaining() == 0 || keep == keeps.fullKeep(multiset)) {
+            return -1;
+        }
+
+        int[] remaining = new int[ScoringTable.FACE_COUNT + 1];
+        for (int face = 1; face <= ScoringTable.FACE_COUNT; face++) {
+            remaining[face] = keeps.count(keep, face);
+        }
+        int holds = 0;
+        for (int i = 0; i < ScoringTable.DICE_COUNT; i++) {
+            if (remaining[game.getDie(i)]-- > 0) {
+                holds |= 1 << i;
+            }
+        }
+        return holds;
+    }
+
+    /**
+     * Returns the box that maximizes the expected final score with the dice as they are.
+     */
+    public int bestBox(GameView game) {
+        prepare(game);
+        return evaluator.bestBox[game.getMultiset()];
+    }
+
+    /**
+     * Returns {@code true} if the current player's turn has already been evaluated, so questions about it are
+     * immediate.
+     */
+    public boolean isPrepared(GameView game) {
+        return state == ValueTable.stateOf(game, game.getWhoseTurn());
+    }
+
+    /**
+     * Evaluates the current player's turn, unless it already has been.
+     */
+    public void prepare(GameView game) {
+        if (game.getScoringTable() != scoring) {
+            throw new IllegalArgumentException("The value table is for " + scoring.getRules() + ", not "
+                    + game.getScoringTable().getRules());
+        }
+
+        int current = ValueTable.stateOf(game, game.getWhoseTurn());
+        if (current != state) {
+            if (cache != null) {
+                evaluator = cache.get(current);
+            } else {
+                evaluator.evaluate(current >>> 7, (current >>> 1) & 63, (current & 1) != 0);
+            }
+            state = current;
+        }
+    }
+}
@@ -2,18 +2,18 @@ package org.example;
 
 import javax.swing.*;
 import java.awt.*;
-import java.awt.geom.Rectangle2D;
-import java.util.HashMap;
 
 public class JDiceToggleButton extends JToggleButton implements YahtzeeGame.GameStateListener {
     private YahtzeeGame game;
     private int die;
+    private final DiceFaceCache.Faces faces = new DiceFaceCache.Faces();
 
     public JDiceToggleButton(YahtzeeGame game, int die) {
         super();
         this.game = game;
         this.die = die;
-        game.addGameStateListener(this);
+        game.addGameStateListener(SwingUtils.coalesceOnEdt(this), GameEvent.Type.DICE_ROLLED,
+                GameEvent.Type.DIE_HELD, GameEvent.Type.TURN_ADVANCED);
         setHideActionText(true);
     }
 
@@ -21,15 +21,16 @@ public class JDiceToggleButton extends JToggleButton implements YahtzeeGame.Game
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
 
-        var hints = new HashMap<>();
-        hints.put(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-        ((Graphics2D) g).addRenderingHints(hints);
-        new DicePainter().paintDice(g, new Rectangle2D.Double(0, 0, getWidth(), getHeight()), game.getDice().getDie(die));
+        faces.paint((Graphics2D) g, getWidth(), getHeight(), getForeground(), game.getDice().getDie(die));
     }
 
     @Override
-    public void gameStateChanged() {
-        repaint();
+    public void gameStateChanged(GameEvent event) {
+        // A roll leaves held dice alone, and holding other dice changes nothing here.
+        boolean rolled = event.is(GameEvent.Type.DICE_ROLLED) && !game.getDice().isHeld(die);
+        if (rolled || event.is(GameEvent.Type.TURN_ADVANCED) || event.isDieChanged(die)) {
+            repaint();
+        }
     }
 
     @Override
@@ -0,0 +1,174 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * Precomputed reroll transitions. A "keep" is the multiset of dice a player holds before rolling, from none at all to
+ * all five. For each of the 462 keeps this table holds the probability distribution over the {@link ScoringTable}
+ * multisets the roll can produce, and for each multiset the distinct keeps that can be taken from it.
+ *
+ * <p>Both are stored as flat arrays with start offsets, so the solver can walk them without any indirection.
+ */
+public final class KeepTable {
+    public static final int KEEP_COUNT = 462;
+
+    // Keeps are identified by their face counts written as a base 6 number, since no count can exceed 5.
+    private static final int KEY_COUNT = 46656;
+    private static final int[] POWERS = {1, 6, 36, 216, 1296, 7776};
+
+    private static final KeepTable INSTANCE = new KeepTable();
+
+    private final int[] keepOfKey = new int[KEY_COUNT];
+    private final int[] keyOfKeep = new int[KEEP_COUNT];
+    private final int[] fullKeep = new int[ScoringTable.MULTISET_COUNT];
+
+    final int[] outcomeStart = new int[KEEP_COUNT + 1];
+    final int[] outcomeMultiset;
+    final double[] outcomeProbability;
+
+    final int[] subKeepStart = new int[ScoringTable.MULTISET_COUNT + 1];
+    final int[] subKeeps;
+
+    private KeepTable() {
+        ScoringTable table = ScoringTable.get();
+        Arrays.fill(keepOfKey, -1);
+
+        int next = 0;
+        for (int key = 0; key < KEY_COUNT; key++) {
+            if (size(key) <= ScoringTable.DICE_COUNT) {
+                keepOfKey[key] = next;
+                keyOfKeep[next++] = key;
+            }
+        }
+
+        // Roll the free dice of every keep in every possible way.
+        int[] multisetKeys = new int[ScoringTable.MULTISET_COUNT];
+        int[] keyToMultiset = new int[KEY_COUNT];
+        for (int m = 0; m < ScoringTable.MULTISET_COUNT; m++) {
+            multisetKeys[m] = keyOfHistogram(table.histogram(m));
+            keyToMultiset[multisetKeys[m]] = m;
+            fullKeep[m] = keepOfKey[multisetKeys[m]];
+        }
+
+        int[] multisets = new int[KEEP_COUNT * ScoringTable.MULTISET_COUNT];
+        double[] probabilities = new double[multisets.length];
+        double[] distribution = new double[ScoringTable.MULTISET_COUNT];
+        int outcomes = 0;
+        for (int keep = 0; keep < KEEP_COUNT; keep++) {
+            Arrays.fill(distribution, 0);
+            int free = ScoringTable.DICE_COUNT - size(keyOfKeep[keep]);
+            int rolls = (int) Math.pow(ScoringTable.FACE_COUNT, free);
+            for (int roll = 0; roll < rolls; roll++) {
+                int key = keyOfKeep[keep];
+                for (int r = roll, i = 0; i < free; i++, r /= ScoringTable.FACE_COUNT) {
+                    key += POWERS[r % ScoringTable.FACE_COUNT];
+                }
+                distribution[keyToMultiset[key]] += 1.0 / rolls;
+            }
+
+            outcomeStart[keep] = outcomes;
+            for (int m = 0; m < ScoringTable.MULTISET_COUNT; m++) {
+                if (distribution[m] > 0) {
+                    multisets[outcomes] = m;
+                    probabilities[outcomes++] = distribution[m];
+                }
+            }
+        }
+        outcomeStart[KEEP_COUNT] = outcomes;
+        outcomeMultiset = Arrays.copyOf(multisets, outcomes);
+        outcomeProbability = Arrays.copyOf(probabilities, outcomes);
+
+        // Every sub-multiset of every roll.
+        int[] keeps = new int[ScoringTable.MULTISET_COUNT * (1 << ScoringTable.DICE_COUNT)];
+        int count = 0;
+        for (int m = 0; m < ScoringTable.MULTISET_COUNT; m++) {
+            subKeepStart[m] = count;
+            for (int key = 0; key < KEY_COUNT; key++) {
+                if (keepOfKey[key] != -1 && isSubset(key, multisetKeys[m])) {
+                    keeps[count++] = keepOfKey[key];
+                }
+            }
+        }
+        subKeepStart[ScoringTable.MULTISET_COUNT] = count;
+        subKeeps = Arrays.copyOf(keeps, count);
+    }
+
+    public static KeepTable get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the keep made by holding the dice selected by {@code heldMask} (bit {@code i} for die {@code i}).
+     */
+    public int keepOf(YahtzeeDice dice, int heldMask) {
+        int key = 0;
+        for (int i = 0; i < ScoringTable.DICE_COUNT; i++) {
+            if ((heldMask & (1 << i)) != 0) {
+                key += POWERS[dice.getDie(i) - 1];
+            }
+        }
+        return keepOfKey[key];
+    }
+
+    /**
+     * Returns the keep made by holding the dice selected by {@code heldMask} in the game's current roll.
+     */
+    public int keepOf(GameView game, int heldMask) {
+        int key = 0;
+        for (int i = 0; i < ScoringTable.DICE_COUNT; i++) {
+            if ((heldMask & (1 << i)) != 0) {
+                key += POWERS[game.getDie(i) - 1];
+            }
+        }
+        return keepOfKey[key];
+    }
+
+    /**
+     * Returns the keep that holds every die of the given multiset.
+     */
+    public int fullKeep(int multiset) {
+        return fullKeep[multiset];
+    }
+
+    /**
+     * Returns the keep that holds no dice, whose outcomes are the opening roll of a turn.
+     */
+    public int emptyKeep() {
+        return keepOfKey[0];
+    }
+
+    /**
+     * Returns how many dice of the given face (1-6) the keep holds.
+     */
+    public int count(int keep, int face) {
+        return keyOfKeep[keep] / POWERS[face - 1] % ScoringTable.FACE_COUNT;
+    }
+
+    private static int keyOfHistogram(int histogram) {
+        int key = 0;
+        for (int face = 0; face < ScoringTable.FACE_COUNT; face++) {
+            key += ((histogram >>> (3 * face)) & 7) * POWERS[face];
+        }
+        return key;
+    }
+
+    private static int size(int key) {
+        int size = 0;
+        for (int face = 0; face < ScoringTable.FACE_COUNT; face++) {
+            size += key % ScoringTable.FACE_COUNT;
+            key /= ScoringTable.FACE_COUNT;
+        }
+        return size;
+    }
+
+    private static boolean isSubset(int key, int of) {
+        for (int face = 0; face < ScoringTable.FACE_COUNT; face++) {
+            if (key % ScoringTable.FACE_COUNT > of % ScoringTable.FACE_COUNT) {
+                return false;
+            }
+            key /= ScoringTable.FACE_COUNT;
+            of /= ScoringTable.FACE_COUNT;
+        }
+        return true;
+    }
+}
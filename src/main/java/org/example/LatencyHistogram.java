@@ -0,0 +1,160 @@
+package org.example;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free histogram of latencies in nanoseconds, for recording from many threads at once.
+ *
+ * <p>Buckets are log-linear: every power of two is split into 16 buckets, so a percentile is reported to within about
+ * 6% of the true value, and the whole range of a {@code long} fits in 960 counters.
+ *
+ * <p>Like a {@link java.util.concurrent.atomic.LongAdder}, the histogram is striped: it keeps a set of counters for
+ * each of a few stripes, and a thread only records into the stripe its id hashes to, so threads on different cores
+ * rarely share a cache line. Recording is three uncontended atomic additions, and a compare-and-set only when the
+ * maximum grows. Reads add up every stripe, so they cost more, but are rare.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+    // A power of two of at least twice the cores, up to 64.
+    private static final int STRIPE_COUNT = Math.min(64,
+            Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1)) << 1);
+    // Each stripe is one array: a cache line of padding, the buckets, the count, total and maximum, and more padding.
+    private static final int PAD = 8;
+    private static final int COUNT = PAD + BUCKET_COUNT;
+    private static final int TOTAL = COUNT + 1;
+    private static final int MAX = TOTAL + 1;
+    private static final int STRIPE_SIZE = MAX + 1 + PAD;
+
+    private final AtomicLongArray[] stripes = new AtomicLongArray[STRIPE_COUNT];
+
+    public LatencyHistogram() {
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            stripes[i] = new AtomicLongArray(STRIPE_SIZE);
+        }
+    }
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        AtomicLongArray stripe = stripes[stripeOf(Thread.currentThread().getId())];
+        stripe.getAndIncrement(PAD + bucketOf(value));
+        stripe.getAndIncrement(COUNT);
+        stripe.getAndAdd(TOTAL, value);
+        for (long max = stripe.get(MAX); value > max; max = stripe.get(MAX)) {
+            if (stripe.compareAndSet(MAX, max, value)) {
+                break;
+            }
+        }
+    }
+
+    public long getCount() {
+        return sum(COUNT);
+    }
+
+    public double getMeanNanos() {
+        long n = getCount();
+        return n == 0 ? 0 : (double) sum(TOTAL) / n;
+    }
+
+    public long getMaxNanos() {
+        long max = 0;
+        for (AtomicLongArray stripe : stripes) {
+            max = Math.max(max, stripe.get(MAX));
+        }
+        return max;
+    }
+
+    /**
+     * Returns the latency below which the given percentage (0-100) of recordings fall, or 0 if nothing was recorded.
+     * The result is the upper bound of the bucket holding that recording.
+     */
+    public long getPercentileNanos(double percent) {
+        long n = 0;
+        long[] snapshot = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = sum(PAD + i);
+            n += snapshot[i];
+        }
+        if (n == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percent / 100 * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(upperBound(i), getMaxNanos());
+            }
+        }
+        return getMaxNanos();
+    }
+
+    /**
+     * Adds every recording in {@code other} to this histogram.
+     */
+    public void add(LatencyHistogram other) {
+        AtomicLongArray stripe = stripes[stripeOf(Thread.currentThread().getId())];
+        for (int i = PAD; i < MAX; i++) {
+            long c = other.sum(i);
+            if (c != 0) {
+                stripe.getAndAdd(i, c);
+            }
+        }
+        long otherMax = other.getMaxNanos();
+        for (long max = stripe.get(MAX); otherMax > max; max = stripe.get(MAX)) {
+            if (stripe.compareAndSet(MAX, max, otherMax)) {
+                break;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d mean=%s p50=%s p90=%s p99=%s p99.9=%s max=%s", getCount(),
+                format((long) getMeanNanos()), format(getPercentileNanos(50)), format(getPercentileNanos(90)),
+                format(getPercentileNanos(99)), format(getPercentileNanos(99.9)), format(getMaxNanos()));
+    }
+
+    private static String format(long nanos) {
+        if (nanos < TimeUnit.MILLISECONDS.toNanos(1)) {
+            return String.format("%.1fus", nanos / 1e3);
+        }
+        return String.format("%.2fms", nanos / 1e6);
+    }
+
+    private long sum(int index) {
+        long sum = 0;
+        for (AtomicLongArray stripe : stripes) {
+            sum += stripe.get(index);
+        }
+        return sum;
+    }
+
+    // Spreads thread ids, which are mostly consecutive, over the stripes.
+    private static int stripeOf(long threadId) {
+        long h = threadId * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & (STRIPE_COUNT - 1);
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long subBucket = bucket % SUB_BUCKETS;
+        long next = (SUB_BUCKETS + subBucket + 1) << (exponent - SUB_BUCKET_BITS);
+        return next < 0 ? Long.MAX_VALUE : next - 1;
+    }
+}
@@ -2,6 +2,8 @@ package org.example;
 
 import javax.swing.*;
 import javax.swing.table.TableCellRenderer;
+import javax.swing.table.TableColumn;
+import javax.swing.table.TableColumnModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.KeyEvent;
@@ -10,12 +12,22 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
-import java.util.prefs.Preferences;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class Main {
+    // How long the table shows a bot's move before the next bot plays.
+    private static final int BOT_TURN_DELAY_MS = 500;
+    private static final ExecutorService BOT_DECISIONS = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "bot-decisions");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private static KeyEventDispatcher dispatcher;
 
     public static void main(String[] args) {
+        GameMetrics.register();
         NewGameDialog dialog = new NewGameDialog(null);
         dialog.addActionListener(e -> {
             YahtzeeGame game = dialog.getGame();
@@ -24,16 +36,15 @@ public class Main {
             } else {
                 JFrame f = getNewGameFrame(dialog.getGame());
                 showStandingsWhenGameEnds(game, f.getContentPane());
-                game.addGameStateListener(() -> {
-                    if (game.isGameOver()) {
-                        f.setVisible(false);
-                        f.dispose();
-                        dialog.setVisible(true);
-                    }
-                });
+                playBotTurns(game);
+                game.addGameStateListener(SwingUtils.coalesceOnEdt(event -> {
+                    f.setVisible(false);
+                    f.dispose();
+                    dialog.setVisible(true);
+                }), GameEvent.Type.GAME_OVER);
                 dialog.setVisible(false);
                 f.setVisible(true);
-                SwingUtils.resizeAndSaveWindowState(Preferences.userNodeForPackage(Main.class), f,
+                SwingUtils.resizeAndSaveWindowState(SettingsStore.forPackage(Main.class), f,
                         "game_window_size", "game_window_pos");
             }
         });
@@ -41,7 +52,7 @@ public class Main {
     }
 
     public static JFrame getNewGameFrame(YahtzeeGame game) {
-        JFrame f = new JFrame("Yahtzee!");
+        JFrame f = new JFrame(game.getRules().name() + "!");
 
         Action quitAction = new AbstractAction("Quit") {
             @Override
@@ -69,7 +80,7 @@ public class Main {
         c.weighty = 1;
         c.fill = GridBagConstraints.BOTH;
 
-        c.gridwidth = 5;
+        c.gridwidth = holdActions.size();
         MakeMoveAction makeMoveAction = new MakeMoveAction(game);
         JTable moveTable = getMoveTable(game);
         moveTable.getSelectionModel().addListSelectionListener(e -> {
@@ -96,7 +107,7 @@ public class Main {
         c.weighty = 0;
         c.gridy++;
         c.gridwidth = 1;
-        for (int i = 0; i < 5; i++) {
+        for (int i = 0; i < holdActions.size(); i++) {
             var button = new JDiceToggleButton(game, i);
             button.setAction(holdActions.get(i));
             f.getContentPane().add(button, c);
@@ -105,7 +116,7 @@ public class Main {
         c.gridy++;
         c.weighty = 0;
         c.anchor = GridBagConstraints.CENTER;
-        for (int i = 0; i < 5; i++) {
+        for (int i = 0; i < holdActions.size(); i++) {
             var checkbox = new JCheckBox(holdActions.get(i));
             checkbox.setHideActionText(true);
             checkbox.setHorizontalAlignment(SwingConstants.CENTER);
@@ -156,6 +167,12 @@ public class Main {
                         action = holdActions.get(4);
                         toggle = true;
                         break;
+                    case KeyEvent.VK_6:
+                        if (holdActions.size() > 5) {
+                            action = holdActions.get(5);
+                            toggle = true;
+                        }
+                        break;
                     case KeyEvent.VK_SPACE:
                         action = makeMoveAction;
                         break;
@@ -203,7 +220,18 @@ public class Main {
     }
 
     private static JTable getMoveTable(YahtzeeGame game) {
-        JTable moveTable = new JTable(new ScoreTableModel(game)) {
+        // Hints are for people, and need a value table for the rules.
+        boolean hints = SolitaireSolver.supports(game.getRules())
+                && game.getPlayers().stream().anyMatch(player -> !player.isBot());
+        // Win chances are only worth showing with someone to beat.
+        boolean winChances = SolitaireSolver.supports(game.getRules()) && game.getPlayers().size() > 1;
+        var model = new ScoreTableModel(game, hints, winChances);
+        HintEngine hintEngine = hints ? new HintEngine(game, SwingUtilities::invokeLater, model) : null;
+        if (winChances) {
+            new WinProbabilityTracker(game, SwingUtilities::invokeLater, model::setWinChances);
+        }
+
+        JTable moveTable = new JTable(model) {
             private final Font regularFont;
             private final Font boldFont;
             private final Font strikethroughFont;
@@ -214,6 +242,13 @@ public class Main {
                 strikethroughFont = regularFont.deriveFont(Collections.singletonMap(TextAttribute.STRIKETHROUGH, TextAttribute.STRIKETHROUGH_ON));
             }
 
+            @Override
+            protected void paintComponent(Graphics g) {
+                long start = GameMetrics.get().startTimer();
+                super.paintComponent(g);
+                GameMetrics.get().scoreTableRendered(start);
+            }
+
             @Override
             public Component prepareRenderer(TableCellRenderer renderer, int row, int column) {
                 Component result = super.prepareRenderer(renderer, row, column);
@@ -226,17 +261,18 @@ public class Main {
                 result.setEnabled(true);
 
                 ScoreTableModel.Row modelRow = ((ScoreTableModel) getModel()).getRow(row);
-                Object o = modelRow.getValue(0);
+                Object o = modelRow.leftColumnValue();
 
                 if (modelRow.style() == ScoreTableModel.RowStyle.TOTAL) {
                     result.setFont(boldFont);
                 } else if (modelRow.style() == ScoreTableModel.RowStyle.COMBO) {
                     Combination combo = o instanceof Combination ? (Combination) o : null;
-                    if (column == 0 && combo != null && game.getPlayerMoves(game.getWhoseTurn()).containsKey(combo)) {
+                    if (column == 0 && combo != null && game.hasPlayed(game.getWhoseTurn(), combo)) {
                         // Current player has already played this combo
                         result.setFont(strikethroughFont);
                         result.setEnabled(false);
-                    } else if (column > 0 && combo != null && game.getPlayerMoves(column - 1).containsKey(combo)) {
+                    } else if (column > 0 && column != model.hintColumn() && combo != null
+                            && game.hasPlayed(column - 1, combo)) {
                         // Player for this column has already locked in this combo.
                         result.setFont(regularFont);
                         result.setEnabled(false);
@@ -249,6 +285,26 @@ public class Main {
 
         moveTable.setColumnSelectionAllowed(false);
         moveTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+
+        // The column headers show whose turn it is. Relabel them in place rather than rebuilding the columns.
+        game.addGameStateListener(SwingUtils.coalesceOnEdt(event -> {
+            TableColumnModel columns = moveTable.getColumnModel();
+            for (int i = 0; i < columns.getColumnCount(); i++) {
+                TableColumn column = columns.getColumn(i);
+                column.setHeaderValue(moveTable.getModel().getColumnName(column.getModelIndex()));
+            }
+            moveTable.getTableHeader().repaint();
+        }), GameEvent.Type.TURN_ADVANCED);
+
+        if (hintEngine != null) {
+            // Picking a box, before playing it, is the hint to evaluate the turn after it.
+            moveTable.getSelectionModel().addListSelectionListener(e -> {
+                int row = moveTable.getSelectedRow();
+                if (!e.getValueIsAdjusting() && row != -1 && moveTable.getValueAt(row, 0) instanceof Combination combo) {
+                    hintEngine.boxSelected(game.getBox(combo));
+                }
+            });
+        }
         return moveTable;
     }
 
@@ -262,6 +318,8 @@ public class Main {
             putValue(AbstractAction.ACCELERATOR_KEY, KeyStroke.getKeyStroke(KeyEvent.VK_ENTER, KeyEvent.CTRL_DOWN_MASK));
             setEnabled(false);
             updateName();
+            game.addGameStateListener(SwingUtils.coalesceOnEdt(this), GameEvent.Type.DICE_ROLLED,
+                    GameEvent.Type.TURN_ADVANCED);
         }
 
         @Override
@@ -271,15 +329,23 @@ public class Main {
 
         public void setCombinationToPlay(Combination combo) {
             this.combinationToPlay = combo;
-            setEnabled(combo != null && !game.getPlayerMoves(game.getWhoseTurn()).containsKey(combo));
+            updateEnabled();
             updateName();
         }
 
         @Override
-        public void gameStateChanged() {
+        public void gameStateChanged(GameEvent event) {
+            if (event.is(GameEvent.Type.TURN_ADVANCED)) {
+                updateEnabled();
+            }
             updateName();
         }
 
+        private void updateEnabled() {
+            setEnabled(combinationToPlay != null && !game.isBotTurn()
+                    && !game.hasPlayed(game.getWhoseTurn(), combinationToPlay));
+        }
+
         private void updateName() {
             if (combinationToPlay == null) {
                 putValue(AbstractAction.NAME, "Select combination to play...");
@@ -301,7 +367,9 @@ public class Main {
             putValue(AbstractAction.NAME, "Hold die " + (die + 1));
             putValue(AbstractAction.MNEMONIC_KEY, '1' + die);
             putValue(AbstractAction.ACCELERATOR_KEY, KeyStroke.getKeyStroke('1' + die, KeyEvent.CTRL_DOWN_MASK));
-            game.addGameStateListener(this);
+            setEnabled(!game.isBotTurn());
+            game.addGameStateListener(SwingUtils.coalesceOnEdt(this), GameEvent.Type.DIE_HELD,
+                    GameEvent.Type.TURN_ADVANCED);
         }
 
         @Override
@@ -310,8 +378,11 @@ public class Main {
         }
 
         @Override
-        public void gameStateChanged() {
-            putValue(AbstractAction.SELECTED_KEY, game.getDice().isHeld(die));
+        public void gameStateChanged(GameEvent event) {
+            if (event.isDieChanged(die) || event.is(GameEvent.Type.TURN_ADVANCED)) {
+                putValue(AbstractAction.SELECTED_KEY, game.getDice().isHeld(die));
+                setEnabled(!game.isBotTurn());
+            }
         }
     }
 
@@ -320,11 +391,12 @@ public class Main {
 
         public RollAction(YahtzeeGame game) {
             this.game = game;
-            setEnabled(game.getRollsRemaining() > 0);
+            setEnabled(game.getRollsRemaining() > 0 && !game.isBotTurn());
             putValue(AbstractAction.NAME, "Roll, " + game.getRollsRemaining() + " remaining");
             putValue(AbstractAction.ACCELERATOR_KEY, KeyStroke.getKeyStroke(KeyEvent.VK_R, KeyEvent.CTRL_DOWN_MASK));
             putValue(AbstractAction.MNEMONIC_KEY, KeyEvent.VK_R);
-            game.addGameStateListener(this);
+            game.addGameStateListener(SwingUtils.coalesceOnEdt(this), GameEvent.Type.DICE_ROLLED,
+                    GameEvent.Type.TURN_ADVANCED);
         }
 
         @Override
@@ -333,41 +405,87 @@ public class Main {
         }
 
         @Override
-        public void gameStateChanged() {
+        public void gameStateChanged(GameEvent event) {
             putValue(AbstractAction.NAME, "Roll, " + game.getRollsRemaining() + " remaining");
-            setEnabled(game.getRollsRemaining() > 0);
+            setEnabled(game.getRollsRemaining() > 0 && !game.isBotTurn());
         }
     }
 
-    private static void showStandingsWhenGameEnds(YahtzeeGame game, Component parent) {
-        game.addGameStateListener(() -> {
-            // Detect the game over scenario.
-            if (game.isGameOver()) {
-                // Create the standings:
-                StringBuilder builder = new StringBuilder("Game over!\n\n");
-
-                List<Integer> standings = new ArrayList<>();
-                for (int i = 0; i < game.getPlayers().size(); i++) {
-                    standings.add(i);
+    /**
+     * Plays each bot's turn when it comes round, after a short pause so that the previous move can be seen.
+     */
+    private static void playBotTurns(YahtzeeGame game) {
+        Timer timer = new Timer(BOT_TURN_DELAY_MS, e -> playBotDecision(game));
+        timer.setRepeats(false);
+        game.addGameStateListener(SwingUtils.coalesceOnEdt(event -> {
+            if (game.isBotTurn()) {
+                timer.restart();
+            }
+        }), GameEvent.Type.TURN_ADVANCED);
+        if (game.isBotTurn()) {
+            timer.start();
+        }
+    }
+
+    /**
+     * Works out the current bot's next decision from a copy of the game on the bot thread, then makes it on the event
+     * dispatch thread, and goes on to the next decision until the bot has played a box. A search can take the whole
+     * decision budget, which the window should not freeze for.
+     */
+    private static void playBotDecision(YahtzeeGame game) {
+        if (!game.isBotTurn()) {
+            return;
+        }
+        YahtzeePlayer player = game.getPlayers().get(game.getWhoseTurn());
+        YahtzeeStrategy strategy = player.getStrategy();
+        long budgetNanos = player.getDecisionBudget().toNanos();
+        GameView view = game.copyView();
+        BOT_DECISIONS.execute(() -> {
+            int holds = view.getRollsRemaining() > 0 ? strategy.chooseHolds(view, System.nanoTime() + budgetNanos) : -1;
+            int box = holds < 0 ? strategy.chooseBox(view, System.nanoTime() + budgetNanos) : -1;
+            SwingUtilities.invokeLater(() -> {
+                if (box >= 0) {
+                    game.makeMove(game.getCombination(box));
+                    return;
+                }
+                for (int die = 0; die < game.getDice().getDiceCount(); die++) {
+                    boolean held = (holds & (1 << die)) != 0;
+                    if (game.getDice().isHeld(die) != held) {
+                        game.setDieHeld(die, held);
+                    }
                 }
+                game.rollDice();
+                playBotDecision(game);
+            });
+        });
+    }
 
-                standings.sort(Comparator.comparing(game::getPlayerScore).reversed());
+    private static void showStandingsWhenGameEnds(YahtzeeGame game, Component parent) {
+        game.addGameStateListener(SwingUtils.coalesceOnEdt(event -> {
+            // Create the standings:
+            StringBuilder builder = new StringBuilder("Game over!\n\n");
 
-                int place = 0;
-                int lastScore = Integer.MAX_VALUE;
-                for (int player : standings) {
-                    int currentScore = game.getPlayerScore(player);
-                    if (currentScore < lastScore) {
-                        place++;
-                    }
-                    builder.append(place).append(". ").append(game.getPlayers().get(player).getName())
-                            .append(" ").append(currentScore).append("\n");
+            List<Integer> standings = new ArrayList<>();
+            for (int i = 0; i < game.getPlayers().size(); i++) {
+                standings.add(i);
+            }
+
+            standings.sort(Comparator.comparing(game::getPlayerScore).reversed());
 
-                    lastScore = currentScore;
+            int place = 0;
+            int lastScore = Integer.MAX_VALUE;
+            for (int player : standings) {
+                int currentScore = game.getPlayerScore(player);
+                if (currentScore < lastScore) {
+                    place++;
                 }
+                builder.append(place).append(". ").append(game.getPlayers().get(player).getName())
+                        .append(" ").append(currentScore).append("\n");
 
-                JOptionPane.showMessageDialog(parent, builder);
+                lastScore = currentScore;
             }
-        });
+
+            JOptionPane.showMessageDialog(parent, builder);
+        }), GameEvent.Type.GAME_OVER);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,76 @@
+package org.example;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * An unbounded lock-free queue for many producers and a single consumer (Vyukov's linked MPSC queue).
+ *
+ * <p>An offer is one atomic swap of the tail, whatever the contention, and never waits for other producers or the
+ * consumer. Only one thread at a time may call {@link #poll}.
+ */
+final class MpscQueue<E> {
+    private static final VarHandle TAIL;
+    private static final VarHandle NEXT;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            TAIL = lookup.findVarHandle(MpscQueue.class, "tail", Node.class);
+            NEXT = lookup.findVarHandle(Node.class, "next", Node.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    // The consumer's end; head itself is a consumed (or dummy) node.
+    private Node<E> head;
+    @SuppressWarnings("unused") // Accessed through TAIL.
+    private volatile Node<E> tail;
+
+    MpscQueue() {
+        head = new Node<>(null);
+        tail = head;
+    }
+
+    void offer(E value) {
+        var node = new Node<>(value);
+        @SuppressWarnings("unchecked")
+        Node<E> previous = (Node<E>) TAIL.getAndSet(this, node);
+        NEXT.setRelease(previous, node);
+    }
+
+    /**
+     * Returns the oldest element, or {@code null} if there is none. An element whose producer has swapped the tail
+     * but not yet linked it in is not visible until it has.
+     */
+    E poll() {
+        @SuppressWarnings("unchecked")
+        Node<E> next = (Node<E>) NEXT.getAcquire(head);
+        if (next == null) {
+            return null;
+        }
+        E value = next.value;
+        next.value = null;
+        head = next;
+        return value;
+    }
+
+    /**
+     * Returns {@code true} if nothing has been offered that has not been polled. Unlike {@link #poll}, this also
+     * counts an element that is still being linked in.
+     */
+    boolean isEmpty() {
+        return TAIL.getVolatile(this) == head;
+    }
+
+    private static final class Node<E> {
+        E value;
+        @SuppressWarnings("unused") // Accessed through NEXT.
+        volatile Node<E> next;
+
+        Node(E value) {
+            this.value = value;
+        }
+    }
+}
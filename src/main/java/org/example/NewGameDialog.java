@@ -7,13 +7,19 @@ import javax.swing.event.DocumentListener;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
-import java.util.prefs.Preferences;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
 
 public class NewGameDialog {
     private static final String DESIRED_PLAYER_COUNT_KEY = "desired_player_count";
     private static final String PLAYER_NAME_KEY = "player_name";
+    private static final String PLAYER_TYPE_KEY = "player_type";
+    private static final String RULES_KEY = "rules";
     private static final String NEW_GAME_DIALOG_SIZE = "new_game_dialog_size";
     private static final String NEW_GAME_DIALOG_POS = "new_game_dialog_pos";
 
@@ -21,8 +27,13 @@ public class NewGameDialog {
     private YahtzeeGame game = null;
     private final List<ActionListener> listeners = new ArrayList<>();
     private final List<YahtzeePlayer> players = new ArrayList<>();
-    private final Preferences prefs = Preferences.userNodeForPackage(NewGameDialog.class);
+    private final List<PlayerType> playerTypes = new ArrayList<>();
+    private final Map<RuleSet, ValueTable> valueTables = new HashMap<>();
+    private final SettingsStore prefs = SettingsStore.forPackage(NewGameDialog.class);
     int desiredPlayerCount = prefs.getInt(DESIRED_PLAYER_COUNT_KEY, 2);
+    private RuleSet rules = RuleSet.BUILT_IN.stream()
+            .filter(r -> r.name().equals(prefs.get(RULES_KEY, RuleSet.YAHTZEE.name())))
+            .findFirst().orElse(RuleSet.YAHTZEE);
 
     public NewGameDialog(Frame owner) {
         dialog = new JDialog(owner);
@@ -63,6 +74,21 @@ public class NewGameDialog {
             var c = new GridBagConstraints();
             c.gridy = 0;
             c.anchor = GridBagConstraints.LINE_START;
+            spinnerPanel.add(new JLabel("Rules"), c);
+
+            c.weightx = 1;
+            c.fill = GridBagConstraints.HORIZONTAL;
+            JComboBox<RuleSet> rulesBox = new JComboBox<>(RuleSet.BUILT_IN.toArray(new RuleSet[0]));
+            rulesBox.setSelectedItem(rules);
+            rulesBox.addActionListener(e -> {
+                rules = (RuleSet) rulesBox.getSelectedItem();
+                prefs.put(RULES_KEY, rules.name());
+            });
+            spinnerPanel.add(rulesBox, c);
+
+            c.gridy++;
+            c.weightx = 0;
+            c.fill = GridBagConstraints.NONE;
             spinnerPanel.add(new JLabel("Players"), c);
 
             c.weightx = 1;
@@ -90,8 +116,41 @@ public class NewGameDialog {
             JButton startButton = new JButton("Start game!");
             startButton.setMnemonic('S');
             startButton.addActionListener(e -> {
-                game = new YahtzeeGame(players.subList(0, desiredPlayerCount));
-                fireActionPerformedEvent(e);
+                List<PlayerType> types = playerTypes.subList(0, desiredPlayerCount);
+                if (valueTables.containsKey(rules) || !types.contains(PlayerType.EXPECTED_VALUE_BOT)
+                        && !types.contains(PlayerType.WIN_PROBABILITY_BOT)) {
+                    startGame(e, rules);
+                    return;
+                }
+                if (!SolitaireSolver.supports(rules)) {
+                    JOptionPane.showMessageDialog(dialog, "Expected value and win probability bots cannot play "
+                            + rules + ".");
+                    return;
+                }
+
+                // The first game with a bot that plays by the value table has to solve it, which takes a while.
+                RuleSet gameRules = rules;
+                Path path = SolitaireSolver.defaultPath(gameRules);
+                startButton.setEnabled(false);
+                startButton.setText("Loading...");
+                new SwingWorker<ValueTable, Void>() {
+                    @Override
+                    protected ValueTable doInBackground() throws Exception {
+                        return SolitaireSolver.loadOrSolve(gameRules, path);
+                    }
+
+                    @Override
+                    protected void done() {
+                        startButton.setEnabled(true);
+                        startButton.setText("Start game!");
+                        try {
+                            valueTables.put(gameRules, get());
+                            startGame(e, gameRules);
+                        } catch (InterruptedException | ExecutionException ex) {
+                            JOptionPane.showMessageDialog(dialog, "Could not load " + path + ": " + ex.getCause());
+                        }
+                    }
+                }.execute();
             });
             cont.add(startButton, outerConstraints);
 
@@ -107,6 +166,30 @@ public class NewGameDialog {
         return cont;
     }
 
+    private void startGame(ActionEvent e, RuleSet gameRules) {
+        for (int i = 0; i < desiredPlayerCount; i++) {
+            players.get(i).setStrategy(switch (playerTypes.get(i)) {
+                case HUMAN -> null;
+                case GREEDY_BOT -> GreedyStrategy.INSTANCE;
+                case EXPECTED_VALUE_BOT -> new ExpectedValueStrategy(DecisionCache.of(valueTables.get(gameRules)));
+                // Follows the game, so it can only be created with it.
+                case WIN_PROBABILITY_BOT -> null;
+            });
+        }
+        game = YahtzeeGame.of(gameRules, players.subList(0, desiredPlayerCount));
+        for (int i = 0; i < desiredPlayerCount; i++) {
+            if (playerTypes.get(i) == PlayerType.WIN_PROBABILITY_BOT) {
+                players.get(i).setStrategy(new WinProbabilityEngine(game, valueTables.get(gameRules),
+                        Runtime.getRuntime().availableProcessors(), WinProbabilityEngine.DEFAULT_MEMORY_BUDGET));
+            }
+        }
+        if (valueTables.containsKey(gameRules)) {
+            // Bots' turns are evaluated while the player before them plays.
+            DecisionCache.of(valueTables.get(gameRules)).attach(game);
+        }
+        fireActionPerformedEvent(e);
+    }
+
     private void fireActionPerformedEvent(ActionEvent e) {
         for (ActionListener l : listeners) {
             l.actionPerformed(e);
@@ -142,6 +225,10 @@ public class NewGameDialog {
             if (i >= players.size()) {
                 player = new YahtzeePlayer(prefs.get(PLAYER_NAME_KEY + i, String.format("Player %d", i + 1)));
                 players.add(player);
+                // A stored type that is no longer a constant, say after a rename, falls back to a human.
+                String type = prefs.get(PLAYER_TYPE_KEY + i, PlayerType.HUMAN.name());
+                playerTypes.add(Arrays.stream(PlayerType.values()).filter(t -> t.name().equals(type))
+                        .findFirst().orElse(PlayerType.HUMAN));
             } else {
                 player = players.get(i);
             }
@@ -154,9 +241,20 @@ public class NewGameDialog {
             c.fill = GridBagConstraints.HORIZONTAL;
             JTextField nameField = new JTextField(player.getName());
             cont.add(nameField, c);
-            c.gridy++;
 
             int playerIndex = i;
+            c.weightx = 0;
+            c.fill = GridBagConstraints.NONE;
+            JComboBox<PlayerType> typeBox = new JComboBox<>(PlayerType.values());
+            typeBox.setSelectedItem(playerTypes.get(i));
+            typeBox.addActionListener(e -> {
+                PlayerType type = (PlayerType) typeBox.getSelectedItem();
+                playerTypes.set(playerIndex, type);
+                prefs.put(PLAYER_TYPE_KEY + playerIndex, type.name());
+            });
+            cont.add(typeBox, c);
+            c.gridy++;
+
             nameField.getDocument().addDocumentListener(new DocumentListener() {
                 @Override
                 public void insertUpdate(DocumentEvent e) {
@@ -187,4 +285,22 @@ public class NewGameDialog {
     public YahtzeeGame getGame() {
         return game;
     }
+
+    private enum PlayerType {
+        HUMAN("Human"),
+        GREEDY_BOT("Greedy bot"),
+        EXPECTED_VALUE_BOT("Expected value bot"),
+        WIN_PROBABILITY_BOT("Win probability bot");
+
+        private final String label;
+
+        PlayerType(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
 }
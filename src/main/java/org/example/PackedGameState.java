@@ -0,0 +1,206 @@
+package org.example;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One player's game state packed into two longs, cheap to copy, compare and hash.
+ *
+ * <p>{@code key} holds everything that matters for decisions: the played boxes, the upper total capped at the bonus
+ * threshold, whether the Yahtzee box scored 50, and, if it is the player's turn, the dice (as face counts, so their
+ * order does not matter) and the rolls remaining. Two states with the same key play out identically, so solvers and
+ * caches can key on it directly. {@code scores} holds what is needed to rebuild the scorecard: the score in each box
+ * and the bonus Yahtzee count.
+ *
+ * <pre>
+ * key:    played (13) | capped upper total (6) | Yahtzee bonus (1) | face counts (6 x 3) | rolls remaining (2)
+ * scores: upper box counts (6 x 3) | Chance, Three of a kind, Four of a kind (3 x 5) |
+ *         Full house, Small straight, Large straight, Yahtzee scored (4 x 1) | bonus Yahtzees (4)
+ * </pre>
+ *
+ * <p>The layout is that of the standard {@link RuleSet#YAHTZEE} scorecard, so only standard games can be packed.
+ */
+public record PackedGameState(long key, long scores) {
+    private static final int UPPER_SHIFT = ScoringTable.BOX_COUNT;
+    private static final int YAHTZEE_BONUS_SHIFT = UPPER_SHIFT + 6;
+    private static final int HISTOGRAM_SHIFT = YAHTZEE_BONUS_SHIFT + 1;
+    private static final int ROLLS_SHIFT = HISTOGRAM_SHIFT + 3 * ScoringTable.FACE_COUNT;
+
+    private static final int SUM_BOXES_SHIFT = 3 * ScoringTable.FACE_COUNT;
+    private static final int FIXED_BOXES_SHIFT = SUM_BOXES_SHIFT + 3 * 5;
+    private static final int BONUS_COUNT_SHIFT = FIXED_BOXES_SHIFT + 4;
+    private static final int[] FIXED_SCORES = {25, 30, 40, 50};
+
+    /**
+     * Packs the given player's state. The dice and rolls remaining are only included if it is the player's turn.
+     */
+    public static PackedGameState of(YahtzeeGame game, int player) {
+        if (game.getScoringTable() != ScoringTable.get()) {
+            throw new IllegalArgumentException("Only standard games can be packed, not " + game.getRules());
+        }
+
+        Map<Combination, Integer> moves = game.getPlayerMoves(player);
+        long scores = 0;
+        for (int box = 0; box < ScoringTable.BOX_COUNT; box++) {
+            Integer score = moves.get(game.getCombination(box));
+            if (score != null) {
+                scores |= encodeScore(box, score);
+            }
+        }
+        scores |= (long) game.getBonusYahtzeeCount(player) << BONUS_COUNT_SHIFT;
+
+        int played = game.getPlayedBoxes(player);
+        int upper = Math.min(game.getUpperSectionScore(player), ValueTable.UPPER_BONUS_THRESHOLD);
+        boolean yahtzeeBonus = (played & (1 << ScoringTable.YAHTZEE)) != 0
+                && moves.get(game.getCombination(ScoringTable.YAHTZEE)) != 0;
+        long key = played | (long) upper << UPPER_SHIFT | (yahtzeeBonus ? 1L : 0) << YAHTZEE_BONUS_SHIFT;
+        if (player == game.getWhoseTurn() && !game.isGameOver()) {
+            int histogram = ScoringTable.get().histogram(game.getDice().getMultiset());
+            key |= (long) histogram << HISTOGRAM_SHIFT | (long) game.getRollsRemaining() << ROLLS_SHIFT;
+        }
+        return new PackedGameState(key, scores);
+    }
+
+    public int getPlayedBoxes() {
+        return (int) key & ((1 << ScoringTable.BOX_COUNT) - 1);
+    }
+
+    public boolean isPlayed(int box) {
+        return (getPlayedBoxes() & (1 << box)) != 0;
+    }
+
+    /**
+     * Returns the upper section total, capped at {@link ValueTable#UPPER_BONUS_THRESHOLD}.
+     */
+    public int getCappedUpperTotal() {
+        return (int) (key >>> UPPER_SHIFT) & 63;
+    }
+
+    /**
+     * Returns {@code true} if the Yahtzee box scored 50, making further Yahtzees worth a bonus.
+     */
+    public boolean hasYahtzeeBonus() {
+        return ((key >>> YAHTZEE_BONUS_SHIFT) & 1) != 0;
+    }
+
+    /**
+     * Returns the dice as face counts packed like {@link ScoringTable#histogram}, or 0 if it is not the player's turn.
+     */
+    public int getDiceHistogram() {
+        return (int) (key >>> HISTOGRAM_SHIFT) & ((1 << (3 * ScoringTable.FACE_COUNT)) - 1);
+    }
+
+    public int getRollsRemaining() {
+        return (int) (key >>> ROLLS_SHIFT) & 3;
+    }
+
+    /**
+     * Returns the {@link ValueTable} state for this scorecard.
+     */
+    public int getValueTableState() {
+        return ValueTable.state(getPlayedBoxes(), getCappedUpperTotal(), hasYahtzeeBonus());
+    }
+
+    /**
+     * Returns the score in the given box, or -1 if it has not been played.
+     */
+    public int getBoxScore(int box) {
+        if (!isPlayed(box)) {
+            return -1;
+        }
+
+        if (box <= ScoringTable.SIXES) {
+            return (int) (scores >>> (3 * box) & 7) * (box + 1);
+        } else if (box <= ScoringTable.FOUR_OF_A_KIND) {
+            return (int) (scores >>> (SUM_BOXES_SHIFT + 5 * (box - ScoringTable.CHANCE))) & 31;
+        }
+
+        boolean scored = ((scores >>> (FIXED_BOXES_SHIFT + box - ScoringTable.FULL_HOUSE)) & 1) != 0;
+        return scored ? FIXED_SCORES[box - ScoringTable.FULL_HOUSE] : 0;
+    }
+
+    public int getBonusYahtzeeCount() {
+        return (int) (scores >>> BONUS_COUNT_SHIFT) & 15;
+    }
+
+    public int getUpperSectionScore() {
+        int total = 0;
+        for (int box = 0; box <= ScoringTable.SIXES; box++) {
+            total += Math.max(0, getBoxScore(box));
+        }
+        return total;
+    }
+
+    public int getPlayerScore() {
+        int upper = getUpperSectionScore();
+        int total = upper + (upper >= ValueTable.UPPER_BONUS_THRESHOLD ? ValueTable.UPPER_BONUS : 0);
+        for (int box = ScoringTable.CHANCE; box < ScoringTable.BOX_COUNT; box++) {
+            total += Math.max(0, getBoxScore(box));
+        }
+        return total + 100 * getBonusYahtzeeCount();
+    }
+
+    /**
+     * Writes this state into the given player's scorecard. If it is that player's turn, the dice and the rolls
+     * remaining are restored too (the dice come back sorted, since only their face counts are kept).
+     */
+    public void applyTo(YahtzeeGame game, int player) {
+        int[] boxScores = new int[ScoringTable.BOX_COUNT];
+        for (int box = 0; box < ScoringTable.BOX_COUNT; box++) {
+            boxScores[box] = getBoxScore(box);
+        }
+        game.restoreScorecard(player, boxScores, getBonusYahtzeeCount());
+
+        int histogram = getDiceHistogram();
+        if (player == game.getWhoseTurn() && histogram != 0) {
+            Integer[] dice = new Integer[ScoringTable.DICE_COUNT];
+            int i = 0;
+            for (int face = 1; face <= ScoringTable.FACE_COUNT; face++) {
+                for (int count = (histogram >>> (3 * (face - 1))) & 7; count > 0; count--) {
+                    dice[i++] = face;
+                }
+            }
+            game.setDice(List.of(dice));
+            game.restoreRollsRemaining(getRollsRemaining());
+        }
+    }
+
+    /**
+     * Returns a well-mixed 64-bit hash of the whole state, for open-addressing tables.
+     */
+    public long hash64() {
+        return mix(key * 0x9E3779B97F4A7C15L ^ scores);
+    }
+
+    /**
+     * Returns a well-mixed 64-bit hash of the decision-relevant part of the state.
+     */
+    public long keyHash64() {
+        return mix(key);
+    }
+
+    @Override
+    public int hashCode() {
+        long h = hash64();
+        return (int) (h ^ (h >>> 32));
+    }
+
+    // The finalizer of MurmurHash3, which spreads every input bit over the whole output.
+    static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static long encodeScore(int box, int score) {
+        if (box <= ScoringTable.SIXES) {
+            return (long) (score / (box + 1)) << (3 * box);
+        } else if (box <= ScoringTable.FOUR_OF_A_KIND) {
+            return (long) score << (SUM_BOXES_SHIFT + 5 * (box - ScoringTable.CHANCE));
+        }
+        return (score != 0 ? 1L : 0) << (FIXED_BOXES_SHIFT + box - ScoringTable.FULL_HOUSE);
+    }
+}
@@ -0,0 +1,53 @@
+package org.example;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Rolls dice from a {@link RandomGenerator}. Rather than drawing once per die, each draw is a uniform number below
+ * 6<sup>24</sup>, whose base 6 digits give the next 24 faces.
+ */
+public final class RandomDiceRoller implements DiceRoller {
+    private static final int FACES_PER_DRAW = 24;
+    private static final long DRAW_BOUND = 4_738_381_338_321_616_896L; // 6^24
+
+    private final RandomGenerator random;
+    private long faces;
+    private int remaining;
+
+    RandomDiceRoller(RandomGenerator random) {
+        this.random = random;
+    }
+
+    @Override
+    public int nextFace() {
+        if (remaining == 0) {
+            faces = random.nextLong(DRAW_BOUND);
+            remaining = FACES_PER_DRAW;
+        }
+
+        remaining--;
+        int face = (int) (faces % 6) + 1;
+        faces /= 6;
+        return face;
+    }
+
+    /**
+     * Fills {@code faces} with the next faces, e.g. to pre-generate the rolls for a {@link BufferedDiceRoller}.
+     */
+    public void nextFaces(byte[] faces) {
+        for (int i = 0; i < faces.length; i++) {
+            faces[i] = (byte) nextFace();
+        }
+    }
+
+    /**
+     * Returns a new roller with an independent stream, for use by another thread. Only supported if the random source
+     * is a {@link RandomGenerator.SplittableGenerator}.
+     */
+    public RandomDiceRoller split() {
+        if (random instanceof RandomGenerator.SplittableGenerator splittable) {
+            return new RandomDiceRoller(splittable.split());
+        }
+        throw new UnsupportedOperationException(random.getClass().getName() + " cannot be split");
+    }
+}
@@ -0,0 +1,136 @@
+package org.example;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The rules of a dice game of the Yahtzee family: how many dice there are, the boxes and how they score, and the
+ * bonuses. A rule set is only a declaration; {@link ScoringTable#of} compiles it into the lookup tables games are
+ * actually scored from, once per rule set, and every game of that variant shares them.
+ *
+ * @param name                 the name of the variant
+ * @param diceCount            the number of dice, 1 to {@link ScoringTable#MAX_DICE_COUNT}
+ * @param boxes                the boxes in score sheet order, upper section boxes first
+ * @param upperBonusThreshold  the upper section total that earns the upper bonus
+ * @param upperBonus           the upper bonus
+ * @param yahtzeeBonus         the bonus for each further roll that fills the all-same box after it scored, or 0
+ * @param jokers               whether such a roll also scores {@link BoxRule.Scoring#FIXED} boxes in full once its
+ *                             upper box has been played
+ */
+public record RuleSet(String name, int diceCount, List<BoxRule> boxes, int upperBonusThreshold, int upperBonus,
+                      int yahtzeeBonus, boolean jokers) {
+    /**
+     * The standard rules, whose boxes are numbered by the constants in {@link ScoringTable}.
+     */
+    public static final RuleSet YAHTZEE = new RuleSet("Yahtzee", 5, List.of(
+            BoxRule.face("Aces", 1),
+            BoxRule.face("Twos", 2),
+            BoxRule.face("Threes", 3),
+            BoxRule.face("Fours", 4),
+            BoxRule.face("Fives", 5),
+            BoxRule.face("Sixes", 6),
+            BoxRule.chance("Chance"),
+            BoxRule.sets("Three of a kind", BoxRule.Scoring.ALL_DICE, 0, 3),
+            BoxRule.sets("Four of a kind", BoxRule.Scoring.ALL_DICE, 0, 4),
+            BoxRule.sets("Full house", BoxRule.Scoring.FIXED, 25, 3, 2),
+            BoxRule.run("Small straight", 4, 30),
+            BoxRule.run("Large straight", 5, 40),
+            BoxRule.sets("Yahtzee", BoxRule.Scoring.FIXED, 50, 5)),
+            63, 35, 100, true);
+
+    /**
+     * Scandinavian Yatzy: pairs instead of a full house worth a fixed 25, fixed straights, sets that score only their
+     * own dice, and no bonus Yatzys or Jokers.
+     */
+    public static final RuleSet YATZY = new RuleSet("Yatzy", 5, List.of(
+            BoxRule.face("Ones", 1),
+            BoxRule.face("Twos", 2),
+            BoxRule.face("Threes", 3),
+            BoxRule.face("Fours", 4),
+            BoxRule.face("Fives", 5),
+            BoxRule.face("Sixes", 6),
+            BoxRule.sets("One pair", BoxRule.Scoring.MATCHED_DICE, 0, 2),
+            BoxRule.sets("Two pairs", BoxRule.Scoring.MATCHED_DICE, 0, 2, 2),
+            BoxRule.sets("Three of a kind", BoxRule.Scoring.MATCHED_DICE, 0, 3),
+            BoxRule.sets("Four of a kind", BoxRule.Scoring.MATCHED_DICE, 0, 4),
+            BoxRule.straight("Small straight", 15, 1, 2, 3, 4, 5),
+            BoxRule.straight("Large straight", 20, 2, 3, 4, 5, 6),
+            BoxRule.sets("Full house", BoxRule.Scoring.ALL_DICE, 0, 3, 2),
+            BoxRule.chance("Chance"),
+            BoxRule.sets("Yatzy", BoxRule.Scoring.FIXED, 50, 5)),
+            63, 50, 0, false);
+
+    /**
+     * Maxi Yatzy, Yatzy with six dice and more boxes. The saved rolls of some house rules are not supported.
+     */
+    public static final RuleSet MAXI_YATZY = new RuleSet("Maxi Yatzy", 6, List.of(
+            BoxRule.face("Ones", 1),
+            BoxRule.face("Twos", 2),
+            BoxRule.face("Threes", 3),
+            BoxRule.face("Fours", 4),
+            BoxRule.face("Fives", 5),
+            BoxRule.face("Sixes", 6),
+            BoxRule.sets("One pair", BoxRule.Scoring.MATCHED_DICE, 0, 2),
+            BoxRule.sets("Two pairs", BoxRule.Scoring.MATCHED_DICE, 0, 2, 2),
+            BoxRule.sets("Three pairs", BoxRule.Scoring.MATCHED_DICE, 0, 2, 2, 2),
+            BoxRule.sets("Three of a kind", BoxRule.Scoring.MATCHED_DICE, 0, 3),
+            BoxRule.sets("Four of a kind", BoxRule.Scoring.MATCHED_DICE, 0, 4),
+            BoxRule.sets("Five of a kind", BoxRule.Scoring.MATCHED_DICE, 0, 5),
+            BoxRule.straight("Small straight", 15, 1, 2, 3, 4, 5),
+            BoxRule.straight("Large straight", 20, 2, 3, 4, 5, 6),
+            BoxRule.straight("Full straight", 21, 1, 2, 3, 4, 5, 6),
+            BoxRule.sets("Full house", BoxRule.Scoring.MATCHED_DICE, 0, 3, 2),
+            BoxRule.sets("Villa", BoxRule.Scoring.MATCHED_DICE, 0, 3, 3),
+            BoxRule.sets("Tower", BoxRule.Scoring.MATCHED_DICE, 0, 4, 2),
+            BoxRule.chance("Chance"),
+            BoxRule.sets("Maxi Yatzy", BoxRule.Scoring.FIXED, 100, 6)),
+            84, 50, 0, false);
+
+    public static final List<RuleSet> BUILT_IN = List.of(YAHTZEE, YATZY, MAXI_YATZY);
+
+    public RuleSet {
+        boxes = List.copyOf(boxes);
+        if (diceCount < 1 || diceCount > ScoringTable.MAX_DICE_COUNT) {
+            throw new IllegalArgumentException(name + " has " + diceCount + " dice, which is out of range");
+        }
+        if (boxes.isEmpty() || boxes.size() > Integer.SIZE - 1) {
+            throw new IllegalArgumentException(name + " has " + boxes.size() + " boxes, which is out of range");
+        }
+        boolean lower = false;
+        for (BoxRule box : boxes) {
+            if (box.isUpper() && lower) {
+                throw new IllegalArgumentException(name + " has upper box " + box.name() + " after a lower box");
+            }
+            lower |= !box.isUpper();
+        }
+    }
+
+    /**
+     * Returns the built-in rule set with the given name, ignoring case.
+     */
+    public static RuleSet named(String name) {
+        for (RuleSet rules : BUILT_IN) {
+            if (rules.name.equalsIgnoreCase(name)) {
+                return rules;
+            }
+        }
+        throw new IllegalArgumentException("No rules named " + name);
+    }
+
+    public int getBoxCount() {
+        return boxes.size();
+    }
+
+    // Written out rather than generated: the first call of a generated record method bootstraps method handles, which
+    // takes longer than the rest of a headless game, and ScoringTable#of hashes the rule set on every startup. Lookups
+    // of the same instance never get as far as equals.
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, diceCount, boxes, upperBonusThreshold, upperBonus, yahtzeeBonus, jokers);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,121 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * The exact probability distribution of a player's final score, as worked out by {@link DistributionSolver}.
+ *
+ * <p>Probabilities are kept for every score from the lowest possible to the highest, so tail questions are as exact as
+ * questions about the middle. Immutable.
+ */
+public final class ScoreDistribution {
+    private final int min;
+    private final double[] probabilities;
+
+    ScoreDistribution(int min, double[] probabilities) {
+        int first = 0;
+        int last = probabilities.length - 1;
+        while (first < last && probabilities[first] == 0) {
+            first++;
+        }
+        while (last > first && probabilities[last] == 0) {
+            last--;
+        }
+        this.min = min + first;
+        this.probabilities = Arrays.copyOfRange(probabilities, first, last + 1);
+    }
+
+    /**
+     * Returns the distribution of a score that is certain.
+     */
+    static ScoreDistribution of(int score) {
+        return new ScoreDistribution(score, new double[] {1});
+    }
+
+    /**
+     * Returns the lowest score with a non-zero probability.
+     */
+    public int getMin() {
+        return min;
+    }
+
+    /**
+     * Returns the highest score with a non-zero probability.
+     */
+    public int getMax() {
+        return min + probabilities.length - 1;
+    }
+
+    /**
+     * Returns the probability of finishing with exactly the given score.
+     */
+    public double getProbability(int score) {
+        return score < min || score > getMax() ? 0 : probabilities[score - min];
+    }
+
+    /**
+     * Returns the probability of finishing with the given score or more.
+     */
+    public double getProbabilityAtLeast(int score) {
+        double sum = 0;
+        for (int s = getMax(); s >= Math.max(score, min); s--) {
+            sum += probabilities[s - min];
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the probability that this player finishes with a higher score than a player whose score independently
+     * follows the other distribution.
+     */
+    public double getProbabilityBeating(ScoreDistribution other) {
+        // The probability that the other score is below the current one.
+        double below = 0;
+        for (int score = other.min; score < min && score <= other.getMax(); score++) {
+            below += other.getProbability(score);
+        }
+        double sum = 0;
+        for (int score = min; score <= getMax(); score++) {
+            sum += probabilities[score - min] * below;
+            below += other.getProbability(score);
+        }
+        return sum;
+    }
+
+    public double getMean() {
+        double mean = 0;
+        for (int i = 0; i < probabilities.length; i++) {
+            mean += (min + i) * probabilities[i];
+        }
+        return mean;
+    }
+
+    public double getStandardDeviation() {
+        double mean = getMean();
+        double variance = 0;
+        for (int i = 0; i < probabilities.length; i++) {
+            variance += (min + i - mean) * (min + i - mean) * probabilities[i];
+        }
+        return Math.sqrt(variance);
+    }
+
+    /**
+     * Returns the smallest score such that the probability of finishing with it or less is at least {@code fraction}.
+     */
+    public int getPercentile(double fraction) {
+        double seen = 0;
+        for (int i = 0; i < probabilities.length; i++) {
+            seen += probabilities[i];
+            if (seen >= fraction) {
+                return min + i;
+            }
+        }
+        return getMax();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("mean=%.2f sd=%.2f min=%d p1=%d p50=%d p99=%d max=%d", getMean(), getStandardDeviation(),
+                min, getPercentile(0.01), getPercentile(0.5), getPercentile(0.99), getMax());
+    }
+}
@@ -0,0 +1,124 @@
+package org.example;
+
+/**
+ * Streaming statistics over final scores. Memory use is fixed regardless of how many scores are added: a running mean
+ * and variance (Welford's method) plus a histogram with one bucket per possible score.
+ *
+ * <p>Not thread-safe. Give each worker its own instance and {@link #combine} them at the end.
+ */
+public class ScoreStatistics {
+    /**
+     * The highest possible Yahtzee score: every box at its maximum, the upper bonus and twelve bonus Yahtzees.
+     */
+    public static final int MAX_SCORE = 1575;
+
+    private final long[] histogram;
+    private long count;
+    private double mean;
+    private double m2;
+    private int min = Integer.MAX_VALUE;
+    private int max = Integer.MIN_VALUE;
+
+    /**
+     * Creates statistics over standard Yahtzee scores.
+     */
+    public ScoreStatistics() {
+        this(MAX_SCORE);
+    }
+
+    /**
+     * Creates statistics over scores from 0 to {@code maxScore}, such as {@link ScoringTable#getMaxScore} of other
+     * rules.
+     */
+    public ScoreStatistics(int maxScore) {
+        histogram = new long[maxScore + 1];
+    }
+
+    public void add(int score) {
+        if (score < 0 || score >= histogram.length) {
+            throw new IllegalArgumentException("Score " + score + " is not between 0 and " + (histogram.length - 1));
+        }
+        count++;
+        double delta = score - mean;
+        mean += delta / count;
+        m2 += delta * (score - mean);
+        min = Math.min(min, score);
+        max = Math.max(max, score);
+        histogram[score]++;
+    }
+
+    /**
+     * Adds all the scores seen by {@code other} to this instance.
+     */
+    public void combine(ScoreStatistics other) {
+        if (other.count == 0) {
+            return;
+        }
+        if (other.max >= histogram.length) {
+            throw new IllegalArgumentException("Scores up to " + other.max + " do not fit these statistics");
+        }
+
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        m2 += other.m2 + delta * delta * ((double) count * other.count / total);
+        count = total;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        for (int i = 0; i <= other.max; i++) {
+            histogram[i] += other.histogram[i];
+        }
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public double getVariance() {
+        return count > 1 ? m2 / (count - 1) : 0;
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    public int getMin() {
+        return min;
+    }
+
+    public int getMax() {
+        return max;
+    }
+
+    /**
+     * Returns how many times the given score was seen.
+     */
+    public long getFrequency(int score) {
+        return histogram[score];
+    }
+
+    /**
+     * Returns the smallest score such that at least {@code fraction} of the scores are less than or equal to it.
+     */
+    public int getPercentile(double fraction) {
+        long target = (long) Math.ceil(fraction * count);
+        long seen = 0;
+        for (int score = 0; score < histogram.length; score++) {
+            seen += histogram[score];
+            if (seen >= target && seen > 0) {
+                return score;
+            }
+        }
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("n=%d mean=%.2f sd=%.2f min=%d p50=%d p99=%d max=%d", count, getMean(),
+                getStandardDeviation(), min, getPercentile(0.5), getPercentile(0.99), max);
+    }
+}
@@ -1,17 +1,59 @@
 package org.example;
 
+import javax.swing.event.TableModelEvent;
 import javax.swing.table.AbstractTableModel;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 import java.util.function.Function;
 
-public class ScoreTableModel extends AbstractTableModel implements YahtzeeGame.GameStateListener {
+/**
+ * The score sheet. Cell values are computed when the game changes rather than when cells are rendered, so painting
+ * the table only reads from a cache: a roll recomputes the current player's column, a move recomputes every column.
+ *
+ * <p>With hints, a last column shows what the {@link HintEngine} works out for the current player: the expected final
+ * score of playing each box, and of the best and the current holds. Hints arrive on the event dispatch thread a cell at
+ * a time, and are cleared when the turn moves on.
+ *
+ * <p>With win chances, a last row shows each player's chance of winning as the {@link WinProbabilityTracker} estimates
+ * it, updated after every roll and move.
+ */
+public class ScoreTableModel extends AbstractTableModel
+        implements YahtzeeGame.GameStateListener, HintEngine.HintListener {
     private final YahtzeeGame game;
     private final List<Row> rows;
+    // values[row][player], the model's values for columns 1 and up.
+    private final Object[][] values;
+    private final boolean hints;
+    private final Object[] hintValues;
+    private final int[] rowOfBox;
+    private double[] winChances;
+    private int winChanceRow = -1;
+    private int bestHoldRow;
+    private int heldRow;
 
     public ScoreTableModel(YahtzeeGame game) {
+        this(game, false);
+    }
+
+    /**
+     * Creates the score sheet, with a column for hints if {@code hints} is set. The caller starts the hint engine.
+     */
+    public ScoreTableModel(YahtzeeGame game, boolean hints) {
+        this(game, hints, false);
+    }
+
+    /**
+     * Creates the score sheet, with a row for each player's chance of winning if {@code winChances} is set. The caller
+     * starts the tracker.
+     */
+    public ScoreTableModel(YahtzeeGame game, boolean hints, boolean winChances) {
+        this(game, hints, winChances, true);
+    }
+
+    private ScoreTableModel(YahtzeeGame game, boolean hints, boolean winChances, boolean listen) {
         this.game = game;
+        this.hints = hints;
         rows = new ArrayList<>();
         for (Combination combo : game.getUpperCombinations()) {
             rows.add(getComboRow(game, combo));
@@ -26,12 +68,50 @@ public class ScoreTableModel extends AbstractTableModel implements YahtzeeGame.G
             rows.add(getComboRow(game, combo));
         }
 
-        rows.add(new Row("Bonus Yahtzees", RowStyle.TOTAL, game::getBonusYahtzeeCount));
-        rows.add(new Row("Bonus Yahtzee score", RowStyle.TOTAL, game::getBonusYahtzeeScore));
+        if (game.getRules().yahtzeeBonus() > 0) {
+            rows.add(new Row("Bonus Yahtzees", RowStyle.TOTAL, game::getBonusYahtzeeCount));
+            rows.add(new Row("Bonus Yahtzee score", RowStyle.TOTAL, game::getBonusYahtzeeScore));
+        }
         rows.add(new Row("Lower section score", RowStyle.TOTAL, game::getLowerSectionScore));
         rows.add(new Row("Grand total", RowStyle.TOTAL, game::getPlayerScore));
+        if (hints) {
+            bestHoldRow = rows.size();
+            rows.add(new Row("Best hold", RowStyle.HINT, player -> ""));
+            heldRow = rows.size();
+            rows.add(new Row("Your hold", RowStyle.HINT, player -> ""));
+        }
+        if (winChances) {
+            winChanceRow = rows.size();
+            rows.add(new Row("Win chance", RowStyle.HINT, player -> this.winChances == null ? ""
+                    : String.format("%.0f%%", 100 * this.winChances[player])));
+        }
+
+        rowOfBox = new int[game.getRules().getBoxCount()];
+        for (int row = 0; row < rows.size(); row++) {
+            if (rows.get(row).leftColumnValue() instanceof Combination combo) {
+                rowOfBox[game.getBox(combo)] = row;
+            }
+        }
+        hintValues = new Object[rows.size()];
+        Arrays.fill(hintValues, "");
 
-        game.addGameStateListener(this);
+        values = new Object[rows.size()][game.getPlayers().size()];
+        for (int player = 0; player < game.getPlayers().size(); player++) {
+            computeColumn(player);
+        }
+
+        if (listen) {
+            game.addGameStateListener(SwingUtils.coalesceOnEdt(this), GameEvent.Type.DICE_ROLLED,
+                    GameEvent.Type.DIE_HELD, GameEvent.Type.MOVE_MADE, GameEvent.Type.TURN_ADVANCED);
+        }
+    }
+
+    /**
+     * Creates a score sheet that does not listen to the game, so that the caller passes it the game's events on its own
+     * thread. For benchmarks, which should not post work to the event dispatch thread.
+     */
+    static ScoreTableModel unattached(YahtzeeGame game) {
+        return new ScoreTableModel(game, false, false, false);
     }
 
     public Row getRow(int row) {
@@ -45,12 +125,18 @@ public class ScoreTableModel extends AbstractTableModel implements YahtzeeGame.G
 
     @Override
     public int getColumnCount() {
-        return 1 + game.getPlayers().size();
+        return 1 + game.getPlayers().size() + (hints ? 1 : 0);
     }
 
     @Override
     public Object getValueAt(int rowIndex, int columnIndex) {
-        return rows.get(rowIndex).getValue(columnIndex);
+        if (columnIndex == 0) {
+            return rows.get(rowIndex).leftColumnValue();
+        }
+        if (columnIndex == hintColumn()) {
+            return hintValues[rowIndex];
+        }
+        return values[rowIndex][columnIndex - 1];
     }
 
     @Override
@@ -58,26 +144,95 @@ public class ScoreTableModel extends AbstractTableModel implements YahtzeeGame.G
         if (column == 0) {
             return "";
         }
+        if (column == hintColumn()) {
+            return "Expected";
+        }
 
         return (column - 1 == game.getWhoseTurn() ? "⬇ " : "") + game.getPlayers().get(column - 1).getName();
     }
 
+    /**
+     * Returns the model index of the hint column, or -1 if there are no hints.
+     */
+    public int hintColumn() {
+        return hints ? 1 + game.getPlayers().size() : -1;
+    }
+
+    @Override
+    public void gameStateChanged(GameEvent event) {
+        // Hints are for the dice as they were; new ones follow from the hint engine.
+        boolean newDice = event.is(GameEvent.Type.MOVE_MADE) || event.is(GameEvent.Type.DICE_ROLLED);
+        if (hints && newDice) {
+            Arrays.fill(hintValues, "");
+        } else if (hints && event.is(GameEvent.Type.DIE_HELD)) {
+            setHint(heldRow, "");
+        }
+
+        if (event.is(GameEvent.Type.MOVE_MADE)) {
+            // Scores and totals change for the player who moved, potential scores for the next one.
+            for (int player = 0; player < game.getPlayers().size(); player++) {
+                computeColumn(player);
+            }
+            fireTableRowsUpdated(0, rows.size() - 1);
+        } else if (event.is(GameEvent.Type.DICE_ROLLED) || event.is(GameEvent.Type.TURN_ADVANCED)) {
+            int player = game.getWhoseTurn();
+            computeColumn(player);
+            fireTableChanged(new TableModelEvent(this, 0, rows.size() - 1, player + 1));
+            if (hints && newDice) {
+                fireTableChanged(new TableModelEvent(this, 0, rows.size() - 1, hintColumn()));
+            }
+        }
+    }
+
+    @Override
+    public void boxHint(int box, double value) {
+        setHint(rowOfBox[box], String.format("%.1f", value));
+    }
+
     @Override
-    public void gameStateChanged() {
-        fireTableStructureChanged();
+    public void holdHint(int bestHolds, double bestValue, double heldValue) {
+        var best = new StringBuilder(bestHolds == -1 ? "Score now" : "Hold");
+        for (int die = 0; bestHolds != -1 && die < game.getDice().getDiceCount(); die++) {
+            if ((bestHolds & (1 << die)) != 0) {
+                best.append(' ').append(die + 1);
+            }
+        }
+        setHint(bestHoldRow, best.append(": ").append(String.format("%.1f", bestValue)).toString());
+        setHint(heldRow, Double.isNaN(heldValue) ? "" : String.format("%.1f", heldValue));
+    }
+
+    /**
+     * Shows each player's chance of winning. Must be called on the event dispatch thread.
+     */
+    public void setWinChances(double[] chances) {
+        winChances = chances.clone();
+        for (int player = 0; player < game.getPlayers().size(); player++) {
+            values[winChanceRow][player] = rows.get(winChanceRow).valueCalc().apply(player);
+        }
+        fireTableRowsUpdated(winChanceRow, winChanceRow);
+    }
+
+    private void setHint(int row, Object value) {
+        hintValues[row] = value;
+        fireTableCellUpdated(row, hintColumn());
+    }
+
+    private void computeColumn(int player) {
+        for (int row = 0; row < rows.size(); row++) {
+            values[row][player] = rows.get(row).valueCalc().apply(player);
+        }
     }
 
     public enum RowStyle {
         COMBO,
-        TOTAL
+        TOTAL,
+        HINT
     }
 
     private static Row getComboRow(YahtzeeGame game, Combination combo) {
         return new Row(combo, RowStyle.COMBO, (player) -> {
-            Map<Combination, Integer> playerMoves = game.getPlayerMoves(player);
-            int score = playerMoves.getOrDefault(combo, -1);
-            if (score != -1) {
-                return score;
+            if (game.hasPlayed(player, combo)) {
+                return game.getPlayerMoves(player).get(combo);
             }
 
             // If it's this player's turn, calculate what the combo would be worth.
@@ -91,12 +246,5 @@ public class ScoreTableModel extends AbstractTableModel implements YahtzeeGame.G
     }
 
     public record Row(Object leftColumnValue, RowStyle style, Function<Integer, Object> valueCalc) {
-        Object getValue(int column) {
-            if (column == 0) {
-                return leftColumnValue;
-            }
-
-            return valueCalc.apply(column - 1);
-        }
     }
 }
@@ -0,0 +1,251 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Precomputed scores for every possible roll of the dice, compiled from a {@link RuleSet}.
+ *
+ * <p>The 7776 ordered rolls of five dice collapse to 252 distinct multisets (the order of the dice never matters for
+ * scoring). Each multiset has a row of scores, one per box, so scoring a roll is an array lookup. A second set of
+ * rows holds the scores with the Joker overrides for the fixed-score boxes applied.
+ *
+ * <p>The constants describe the standard {@link RuleSet#YAHTZEE} rules, which {@link #get} compiles; other rule sets
+ * are compiled by {@link #of}, once each, and may have other dice and box counts.
+ */
+public final class ScoringTable {
+    public static final int ACES = 0;
+    public static final int TWOS = 1;
+    public static final int THREES = 2;
+    public static final int FOURS = 3;
+    public static final int FIVES = 4;
+    public static final int SIXES = 5;
+    public static final int CHANCE = 6;
+    public static final int THREE_OF_A_KIND = 7;
+    public static final int FOUR_OF_A_KIND = 8;
+    public static final int FULL_HOUSE = 9;
+    public static final int SMALL_STRAIGHT = 10;
+    public static final int LARGE_STRAIGHT = 11;
+    public static final int YAHTZEE = 12;
+    public static final int BOX_COUNT = 13;
+
+    public static final int DICE_COUNT = 5;
+    public static final int MAX_DICE_COUNT = 6;
+    public static final int FACE_COUNT = 6;
+    public static final int ROLL_COUNT = 7776;
+    public static final int MULTISET_COUNT = 252;
+
+    private static final Map<RuleSet, ScoringTable> TABLES = new ConcurrentHashMap<>();
+    private static final ScoringTable INSTANCE = of(RuleSet.YAHTZEE);
+
+    private final RuleSet rules;
+    private final int diceCount;
+    private final int boxCount;
+    private final int multisetCount;
+    private final short[] multisetOfRoll;
+    private final short[] multisetOfHistogram = new short[1 << (3 * FACE_COUNT)];
+    // Face counts packed 3 bits per face, face 1 in the lowest bits.
+    private final int[] histograms;
+    private final byte[] scores;
+    private final byte[] jokerScores;
+    private final boolean[] allSame;
+    private final int[] upperBoxOfFace = new int[FACE_COUNT + 1];
+    private final int upperBoxes;
+    private final int allSameBox;
+
+    private ScoringTable(RuleSet rules) {
+        this.rules = rules;
+        diceCount = rules.diceCount();
+        boxCount = rules.getBoxCount();
+
+        Arrays.fill(upperBoxOfFace, -1);
+        int upper = 0;
+        int allSameIndex = -1;
+        for (int box = boxCount - 1; box >= 0; box--) {
+            BoxRule rule = rules.boxes().get(box);
+            if (rule.isUpper()) {
+                upperBoxOfFace[rule.args().get(0)] = box;
+                upper |= 1 << box;
+            } else if (rule.isAllSame(diceCount)) {
+                allSameIndex = box;
+            }
+        }
+        upperBoxes = upper;
+        allSameBox = allSameIndex;
+
+        // Enumerate the multisets in a fixed order, so that indices are stable between runs.
+        int rollCount = (int) Math.pow(FACE_COUNT, diceCount);
+        multisetOfRoll = new short[rollCount];
+        int[] histograms = new int[rollCount];
+        Arrays.fill(multisetOfHistogram, (short) -1);
+        int[] counts = new int[FACE_COUNT];
+        int next = 0;
+        for (int roll = 0; roll < rollCount; roll++) {
+            Arrays.fill(counts, 0);
+            int r = roll;
+            for (int i = 0; i < diceCount; i++) {
+                counts[r % FACE_COUNT]++;
+                r /= FACE_COUNT;
+            }
+
+            int histogram = 0;
+            for (int face = 0; face < FACE_COUNT; face++) {
+                histogram |= counts[face] << (3 * face);
+            }
+
+            if (multisetOfHistogram[histogram] == -1) {
+                multisetOfHistogram[histogram] = (short) next;
+                histograms[next++] = histogram;
+            }
+
+            multisetOfRoll[roll] = multisetOfHistogram[histogram];
+        }
+
+        multisetCount = next;
+        this.histograms = Arrays.copyOf(histograms, multisetCount);
+        scores = new byte[multisetCount * boxCount];
+        jokerScores = new byte[multisetCount * boxCount];
+        allSame = new boolean[multisetCount];
+        for (int m = 0; m < multisetCount; m++) {
+            for (int face = 0; face < FACE_COUNT; face++) {
+                counts[face] = (histograms[m] >>> (3 * face)) & 7;
+            }
+            computeScores(m, counts);
+        }
+    }
+
+    /**
+     * Returns the table for the standard {@link RuleSet#YAHTZEE} rules.
+     */
+    public static ScoringTable get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the table compiled from the given rules, compiling it on first use.
+     */
+    public static ScoringTable of(RuleSet rules) {
+        return TABLES.computeIfAbsent(rules, ScoringTable::new);
+    }
+
+    public RuleSet getRules() {
+        return rules;
+    }
+
+    public int getDiceCount() {
+        return diceCount;
+    }
+
+    public int getBoxCount() {
+        return boxCount;
+    }
+
+    public int getMultisetCount() {
+        return multisetCount;
+    }
+
+    /**
+     * Returns the highest score a player can reach: every box at its best, with or without a Joker, the upper bonus,
+     * and a bonus Yahtzee on every turn after the first. 1575 for the standard rules.
+     */
+    public int getMaxScore() {
+        int points = rules.upperBonus() + rules.yahtzeeBonus() * (boxCount - 1);
+        for (int box = 0; box < boxCount; box++) {
+            int best = 0;
+            for (int m = 0; m < multisetCount; m++) {
+                best = Math.max(best, Math.max(score(m, box, false), score(m, box, true)));
+            }
+            points += best;
+        }
+        return points;
+    }
+
+    /**
+     * Returns the upper box that counts the given face (1-6), or -1 if there is none.
+     */
+    public int upperBox(int face) {
+        return upperBoxOfFace[face];
+    }
+
+    public boolean isUpper(int box) {
+        return (upperBoxes & (1 << box)) != 0;
+    }
+
+    /**
+     * Returns the box that needs all the dice to show the same face, such as Yahtzee, or -1 if there is none.
+     */
+    public int allSameBox() {
+        return allSameBox;
+    }
+
+    /**
+     * Returns the index of the given ordered roll, in the range [0, 6<sup>n</sup>) for {@code n} dice.
+     */
+    public static int rollIndex(int[] dice) {
+        int index = 0;
+        for (int i = dice.length - 1; i >= 0; i--) {
+            index = index * FACE_COUNT + dice[i] - 1;
+        }
+        return index;
+    }
+
+    /**
+     * Returns the multiset index of the given ordered roll index, in the range [0, {@link #getMultisetCount}).
+     */
+    public int multisetOf(int rollIndex) {
+        return multisetOfRoll[rollIndex];
+    }
+
+    /**
+     * Returns the multiset with the given packed face counts (see {@link #histogram}), or -1 if the counts do not add
+     * up to a full roll of this table's dice.
+     */
+    public int multisetOfHistogram(int histogram) {
+        return multisetOfHistogram[histogram];
+    }
+
+    /**
+     * Returns the score the given multiset would get in the given box.
+     */
+    public int score(int multiset, int box, boolean joker) {
+        return (joker ? jokerScores : scores)[multiset * boxCount + box];
+    }
+
+    /**
+     * Returns {@code true} if every die in the multiset shows the same face.
+     */
+    public boolean isYahtzee(int multiset) {
+        return allSame[multiset];
+    }
+
+    /**
+     * Returns how many dice in the given multiset show {@code face} (1-6).
+     */
+    public int count(int multiset, int face) {
+        return (histograms[multiset] >>> (3 * (face - 1))) & 7;
+    }
+
+    /**
+     * Returns the face counts of the multiset, packed three bits per face with face 1 in the lowest bits.
+     */
+    public int histogram(int multiset) {
+        return histograms[multiset];
+    }
+
+    private void computeScores(int multiset, int[] counts) {
+        for (int count : counts) {
+            allSame[multiset] |= count == diceCount;
+        }
+
+        int row = multiset * boxCount;
+        for (int box = 0; box < boxCount; box++) {
+            BoxRule rule = rules.boxes().get(box);
+            scores[row + box] = (byte) rule.score(counts);
+            // A Joker scores the fixed-score boxes in full, except the all-same box, which it already fills.
+            boolean joker = allSame[multiset] && rules.jokers() && rule.scoring() == BoxRule.Scoring.FIXED
+                    && box != allSameBox;
+            jokerScores[row + box] = joker ? (byte) rule.points() : scores[row + box];
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package org.example;
+
+import java.awt.*;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.prefs.BackingStoreException;
+import java.util.prefs.Preferences;
+
+/**
+ * User settings kept in memory and written behind to a {@link Preferences} node.
+ *
+ * <p>Reads and writes only touch the in-memory copy, so they are cheap enough to call from every Swing event. Changed
+ * values are written to the node, and the node flushed to its backing store, on a background thread once no value
+ * has changed for the debounce interval, and at shutdown. Values are stored as short strings; points and dimensions
+ * are written as {@code "x,y"} and {@code "width,height"}. Thread-safe.
+ */
+public class SettingsStore {
+    public static final Duration DEFAULT_DEBOUNCE = Duration.ofMillis(500);
+
+    private static final Map<String, SettingsStore> STORES = new ConcurrentHashMap<>();
+    private static final ScheduledExecutorService FLUSHER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "settings-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // A value of NONE means the node has no value for the key, so reads need not ask it again.
+    private static final String NONE = new String();
+
+    private final Preferences node;
+    private final long debounceNanos;
+    private final Map<String, String> values = new ConcurrentHashMap<>();
+    private final Map<String, String> dirty = new ConcurrentHashMap<>();
+    private boolean scheduled;
+    private long lastChange;
+
+    SettingsStore(Preferences node, Duration debounce) {
+        this.node = node;
+        this.debounceNanos = debounce.toNanos();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "settings-shutdown"));
+    }
+
+    /**
+     * Returns the store for the user preferences of the given class's package. Every class in a package shares one
+     * store.
+     */
+    public static SettingsStore forPackage(Class<?> c) {
+        Preferences node = Preferences.userNodeForPackage(c);
+        return STORES.computeIfAbsent(node.absolutePath(), path -> new SettingsStore(node, DEFAULT_DEBOUNCE));
+    }
+
+    public String get(String key, String def) {
+        String value = values.computeIfAbsent(key, k -> {
+            String stored = node.get(k, null);
+            return stored != null ? stored : NONE;
+        });
+        return value == NONE ? def : value;
+    }
+
+    public void put(String key, String value) {
+        String previous = values.put(key, value);
+        if (previous != NONE && value.equals(previous)) {
+            return;
+        }
+        dirty.put(key, value);
+        scheduleFlush();
+    }
+
+    public int getInt(String key, int def) {
+        String value = get(key, null);
+        if (value != null) {
+            try {
+                return Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                // Fall through to the default.
+            }
+        }
+        return def;
+    }
+
+    public void putInt(String key, int value) {
+        put(key, Integer.toString(value));
+    }
+
+    /**
+     * Returns the point stored under the key, or {@code null} if there is none or it cannot be read.
+     */
+    public Point getPoint(String key) {
+        int[] pair = getPair(key);
+        return pair != null ? new Point(pair[0], pair[1]) : null;
+    }
+
+    public void putPoint(String key, Point point) {
+        put(key, point.x + "," + point.y);
+    }
+
+    /**
+     * Returns the dimension stored under the key, or {@code null} if there is none or it cannot be read.
+     */
+    public Dimension getDimension(String key) {
+        int[] pair = getPair(key);
+        return pair != null ? new Dimension(pair[0], pair[1]) : null;
+    }
+
+    public void putDimension(String key, Dimension dimension) {
+        put(key, dimension.width + "," + dimension.height);
+    }
+
+    /**
+     * Writes every changed value to the node and flushes it to the backing store, now, on the calling thread.
+     */
+    public void flush() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+
+        try {
+            for (String key : dirty.keySet()) {
+                // Remove before writing, so that a value changed meanwhile stays dirty.
+                String value = dirty.remove(key);
+                if (value != null) {
+                    node.put(key, value);
+                }
+            }
+            node.flush();
+        } catch (BackingStoreException | IllegalStateException e) {
+            // Settings are a convenience. If the backing store or the node is gone, the values stay in memory.
+        }
+    }
+
+    private int[] getPair(String key) {
+        String value = get(key, null);
+        if (value == null) {
+            return null;
+        }
+
+        int comma = value.indexOf(',');
+        try {
+            return new int[] {Integer.parseInt(value.substring(0, comma)),
+                    Integer.parseInt(value.substring(comma + 1))};
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+
+    // Flushes once nothing has changed for the debounce interval. Only one flush is scheduled at a time; if values
+    // changed since it was scheduled, it schedules itself again for the rest of the interval.
+    private synchronized void scheduleFlush() {
+        lastChange = System.nanoTime();
+        if (!scheduled) {
+            scheduled = true;
+            FLUSHER.schedule(this::flushIfQuiet, debounceNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void flushIfQuiet() {
+        synchronized (this) {
+            long quiet = System.nanoTime() - lastChange;
+            if (quiet < debounceNanos) {
+                FLUSHER.schedule(this::flushIfQuiet, debounceNanos - quiet, TimeUnit.NANOSECONDS);
+                return;
+            }
+            scheduled = false;
+        }
+        flush();
+    }
+}
@@ -0,0 +1,174 @@
+package org.example;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Plays complete games headlessly, in parallel, and collects score statistics.
+ *
+ * <p>The range of games is split recursively over a fork/join pool. Every split also splits the dice roller, so each
+ * leaf task rolls its dice from an independent stream and the results for a given seed do not depend on how many
+ * threads ran the simulation.
+ */
+public class Simulator {
+    private static final int GAMES_PER_LEAF = 256;
+
+    private final RuleSet rules;
+    private final int playerCount;
+    private final int parallelism;
+
+    public Simulator(int playerCount, int parallelism) {
+        this(RuleSet.YAHTZEE, playerCount, parallelism);
+    }
+
+    /**
+     * Creates a simulator of games played by the given rules.
+     */
+    public Simulator(RuleSet rules, int playerCount, int parallelism) {
+        if (playerCount < 1) {
+            throw new IllegalArgumentException("Simulated games must have at least one player");
+        }
+        this.rules = rules;
+        this.playerCount = playerCount;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Plays {@code games} games and returns the statistics over every player's final score.
+     */
+    public Result run(long games, long seed) {
+        return run(games, seed, null);
+    }
+
+    /**
+     * Plays {@code games} games, appending each to the store unless it is {@code null}, and returns the statistics over
+     * every player's final score. The store is flushed at the end.
+     */
+    public Result run(long games, long seed, GameRecordStore records) {
+        List<YahtzeePlayer> players = new ArrayList<>();
+        for (int i = 0; i < playerCount; i++) {
+            players.add(new YahtzeePlayer("Player " + (i + 1)));
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            long start = System.nanoTime();
+            ScoringTable scoring = ScoringTable.of(rules);
+            var task = new SimulationTask(scoring, scoring.getMaxScore(), players, records, 0, games,
+                    DiceRoller.seeded(seed));
+            ScoreStatistics scores = pool.invoke(task);
+            if (records != null) {
+                records.flush();
+            }
+            return new Result(games, scores, Duration.ofNanos(System.nanoTime() - start));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not write the game records", e);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Plays one game to the end, every player using {@link GreedyStrategy}.
+     */
+    static void playGame(YahtzeeGame game) {
+        while (!game.isGameOver()) {
+            game.playTurn(GreedyStrategy.INSTANCE, YahtzeePlayer.DEFAULT_DECISION_BUDGET);
+        }
+    }
+
+    public record Result(long games, ScoreStatistics scores, Duration elapsed) {
+        public double gamesPerSecond() {
+            return games / (elapsed.toNanos() / 1e9);
+        }
+    }
+
+    private static class SimulationTask extends RecursiveTask<ScoreStatistics> {
+        private final ScoringTable scoring;
+        private final int maxScore;
+        private final List<YahtzeePlayer> players;
+        private final GameRecordStore records;
+        private final long from;
+        private final long to;
+        private final RandomDiceRoller roller;
+
+        SimulationTask(ScoringTable scoring, int maxScore, List<YahtzeePlayer> players, GameRecordStore records,
+                long from, long to, RandomDiceRoller roller) {
+            this.scoring = scoring;
+            this.maxScore = maxScore;
+            this.players = players;
+            this.records = records;
+            this.from = from;
+            this.to = to;
+            this.roller = roller;
+        }
+
+        @Override
+        protected ScoreStatistics compute() {
+            if (to - from > GAMES_PER_LEAF) {
+                long mid = (from + to) >>> 1;
+                var left = new SimulationTask(scoring, maxScore, players, records, from, mid, roller.split());
+                var right = new SimulationTask(scoring, maxScore, players, records, mid, to, roller);
+                left.fork();
+                ScoreStatistics result = right.compute();
+                result.combine(left.join());
+                return result;
+            }
+
+            ScoreStatistics scores = new ScoreStatistics(maxScore);
+            // The leaf's games go to the store in one batch, rather than taking its lock for each.
+            List<YahtzeeGame> played = new ArrayList<>();
+            for (long i = from; i < to; i++) {
+                YahtzeeGame game = new YahtzeeGame(players, new YahtzeeDice(scoring, roller));
+                playGame(game);
+                if (records != null) {
+                    played.add(game);
+                }
+                for (int player = 0; player < players.size(); player++) {
+                    scores.add(game.getPlayerScore(player));
+                }
+            }
+            if (!played.isEmpty()) {
+                try {
+                    records.appendAll(played);
+                } catch (IOException e) {
+                    throw new IllegalStateException("Could not write the game records", e);
+                }
+            }
+            return scores;
+        }
+    }
+
+    /**
+     * Runs a simulation at increasing levels of parallelism and reports throughput and scaling.
+     *
+     * <p>Usage: {@code Simulator [games] [players] [seed] [rules]}
+     */
+    public static void main(String[] args) {
+        long games = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000;
+        int players = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 42;
+        RuleSet rules = args.length > 3 ? RuleSet.named(args[3]) : RuleSet.YAHTZEE;
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        // Warm up the JIT so that the single-threaded baseline is not penalized.
+        new Simulator(rules, players, cores).run(Math.min(games, 50_000), seed);
+
+        double baseline = 0;
+        for (int parallelism = 1; ; parallelism = Math.min(parallelism * 2, cores)) {
+            Result result = new Simulator(rules, players, parallelism).run(games, seed);
+            if (parallelism == 1) {
+                baseline = result.gamesPerSecond();
+            }
+            System.out.printf("threads=%d games/sec=%.0f speedup=%.2fx %s%n", parallelism, result.gamesPerSecond(),
+                    result.gamesPerSecond() / baseline, result.scores());
+            if (parallelism == cores) {
+                break;
+            }
+        }
+    }
+}
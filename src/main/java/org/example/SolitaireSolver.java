@@ -0,0 +1,180 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.FloatBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.stream.IntStream;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Computes the {@link ValueTable} for optimal solitaire play by dynamic programming over scorecard states.
+ *
+ * <p>A state only depends on states with more boxes played, so the states are solved in layers from the last turn
+ * back to the first. The played-box masks within a layer are independent and are solved in parallel.
+ *
+ * <p>Any rules with five dice, the six upper boxes first and an upper bonus threshold of at most 63 can be solved,
+ * which includes {@link RuleSet#YATZY}; the state space of six-dice rules is too large.
+ */
+public class SolitaireSolver {
+    static final int UPPER_BOXES = (1 << (ScoringTable.SIXES + 1)) - 1;
+    private static final int MAX_BOX_COUNT = 16;
+
+    private final RuleSet rules;
+    private final int allPlayed;
+    private final int threshold;
+
+    // reachableUpper[u][t] is true if the upper boxes in u can add up to t (capped at the threshold).
+    private final boolean[][] reachableUpper;
+
+    private final float[] values;
+    private final ValueTable table;
+    private final ThreadLocal<TurnEvaluator> evaluators;
+
+    private SolitaireSolver(RuleSet rules) {
+        this.rules = rules;
+        allPlayed = (1 << rules.getBoxCount()) - 1;
+        threshold = rules.upperBonusThreshold();
+        values = new float[ValueTable.stateCount(rules)];
+        table = new ValueTable(ScoringTable.of(rules), FloatBuffer.wrap(values));
+        evaluators = ThreadLocal.withInitial(() -> new TurnEvaluator(table));
+
+        reachableUpper = reachableUppers(threshold);
+    }
+
+    /**
+     * Returns a table whose entry {@code [u][t]} is true if the upper boxes in the mask {@code u} can add up to
+     * {@code t}, capped at the threshold.
+     */
+    static boolean[][] reachableUppers(int threshold) {
+        boolean[][] reachable = new boolean[UPPER_BOXES + 1][threshold + 1];
+        for (int upper = 0; upper <= UPPER_BOXES; upper++) {
+            reachable[upper][0] = true;
+            for (int face = 1; face <= ScoringTable.FACE_COUNT; face++) {
+                if ((upper & (1 << (face - 1))) == 0) {
+                    continue;
+                }
+                // Extend from a copy, so that each face is counted at most once.
+                boolean[] before = reachable[upper].clone();
+                for (int total = 0; total <= threshold; total++) {
+                    if (before[total]) {
+                        for (int count = 1; count <= ScoringTable.DICE_COUNT; count++) {
+                            reachable[upper][Math.min(threshold, total + count * face)] = true;
+                        }
+                    }
+                }
+            }
+        }
+        return reachable;
+    }
+
+    /**
+     * Returns {@code true} if the solver can solve the given rules.
+     */
+    public static boolean supports(RuleSet rules) {
+        if (rules.diceCount() != ScoringTable.DICE_COUNT || rules.getBoxCount() > MAX_BOX_COUNT
+                || rules.getBoxCount() <= ScoringTable.SIXES || rules.upperBonusThreshold() > 63) {
+            return false;
+        }
+        ScoringTable scoring = ScoringTable.of(rules);
+        for (int face = 1; face <= ScoringTable.FACE_COUNT; face++) {
+            if (scoring.upperBox(face) != face - 1) {
+                return false;
+            }
+        }
+        return !scoring.isUpper(ScoringTable.SIXES + 1);
+    }
+
+    /**
+     * Solves every reachable state of the standard rules using the given number of threads.
+     */
+    public static ValueTable solve(int parallelism) {
+        return solve(RuleSet.YAHTZEE, parallelism);
+    }
+
+    /**
+     * Solves every reachable state of the given rules using the given number of threads.
+     *
+     * @throws IllegalArgumentException if the solver does not {@link #supports support} the rules
+     */
+    public static ValueTable solve(RuleSet rules, int parallelism) {
+        if (!supports(rules)) {
+            throw new IllegalArgumentException(rules + " is too large to solve");
+        }
+
+        var solver = new SolitaireSolver(rules);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            for (int layer = rules.getBoxCount() - 1; layer >= 0; layer--) {
+                int playedCount = layer;
+                pool.submit(() -> IntStream.range(0, solver.allPlayed)
+                        .filter(played -> Integer.bitCount(played) == playedCount)
+                        .parallel()
+                        .forEach(solver::solvePlayed)).join();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        return solver.table;
+    }
+
+    /**
+     * Maps the value table at {@code path} if there is one, otherwise solves it and saves it there for next time.
+     */
+    public static ValueTable loadOrSolve(Path path) throws IOException {
+        return loadOrSolve(RuleSet.YAHTZEE, path);
+    }
+
+    /**
+     * Like {@link #loadOrSolve(Path)}, for the given rules.
+     */
+    public static ValueTable loadOrSolve(RuleSet rules, Path path) throws IOException {
+        if (Files.isRegularFile(path)) {
+            return ValueTable.load(path, rules);
+        }
+
+        ValueTable table = solve(rules, Runtime.getRuntime().availableProcessors());
+        table.save(path);
+        return table;
+    }
+
+    /**
+     * Returns the file a value table for the given rules is kept in by default, e.g. {@code yahtzee-values.bin}.
+     */
+    public static Path defaultPath(RuleSet rules) {
+        return Path.of(rules.name().toLowerCase(Locale.ROOT).replace(' ', '-') + "-values.bin");
+    }
+
+    private void solvePlayed(int played) {
+        TurnEvaluator evaluator = evaluators.get();
+        boolean[] uppers = reachableUpper[played & UPPER_BOXES];
+        int yahtzeeBox = table.getScoringTable().allSameBox();
+        boolean yahtzeePlayed = ValueTable.tracksYahtzeeBonus(rules) && yahtzeeBox >= 0
+                && (played & (1 << yahtzeeBox)) != 0;
+        for (int upper = 0; upper <= threshold; upper++) {
+            if (!uppers[upper]) {
+                continue;
+            }
+
+            values[ValueTable.state(played, upper, false)] = (float) evaluator.evaluate(played, upper, false);
+            if (yahtzeePlayed) {
+                values[ValueTable.state(played, upper, true)] = (float) evaluator.evaluate(played, upper, true);
+            }
+        }
+    }
+
+    /**
+     * Solves (or loads) the value table and prints the expected score of a new game.
+     *
+     * <p>Usage: {@code SolitaireSolver [table file] [rules]}
+     */
+    public static void main(String[] args) throws IOException {
+        RuleSet rules = args.length > 1 ? RuleSet.named(args[1]) : RuleSet.YAHTZEE;
+        Path path = args.length > 0 ? Path.of(args[0]) : defaultPath(rules);
+        long start = System.nanoTime();
+        ValueTable table = loadOrSolve(rules, path);
+        System.out.printf("Loaded %s in %d ms%n", path, (System.nanoTime() - start) / 1_000_000);
+        System.out.printf("Expected score of a new game: %.4f%n", table.get(ValueTable.state(0, 0, false)));
+    }
+}
@@ -1,19 +1,33 @@
 package org.example;
 
+import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ComponentAdapter;
 import java.awt.event.ComponentEvent;
-import java.io.*;
-import java.util.prefs.Preferences;
 
 public class SwingUtils {
-    public static void resizeAndSaveWindowState(Preferences prefs, Component comp, String sizeKey, String locationKey) {
-        Point pos = objFromPrefs(prefs, locationKey, Point.class);
+    /**
+     * Returns a listener that passes game events on to {@code listener} on the event dispatch thread, merging all the
+     * events that arrive before it gets to run. However many times the game changes during one tick, the listener
+     * runs once, with an event describing every change.
+     */
+    public static YahtzeeGame.GameStateListener coalesceOnEdt(YahtzeeGame.GameStateListener listener) {
+        return new CoalescingListener(listener);
+    }
+
+    /**
+     * Restores the component's size and location from the settings, and keeps them up to date as it is moved and
+     * resized. The settings only change in memory while the window is dragged; {@link SettingsStore} writes them out
+     * once it stops.
+     */
+    public static void resizeAndSaveWindowState(SettingsStore settings, Component comp, String sizeKey,
+                                                String locationKey) {
+        Point pos = settings.getPoint(locationKey);
         if (pos != null) {
             comp.setLocation(pos);
         }
 
-        Dimension size = objFromPrefs(prefs, sizeKey, Dimension.class);
+        Dimension size = settings.getDimension(sizeKey);
         if (size != null) {
             comp.setSize(size);
         }
@@ -21,37 +35,43 @@ public class SwingUtils {
         comp.addComponentListener(new ComponentAdapter() {
             @Override
             public void componentMoved(ComponentEvent e) {
-                objToPrefs(prefs, locationKey, comp.getLocation());
+                settings.putPoint(locationKey, comp.getLocation());
             }
 
             @Override
             public void componentResized(ComponentEvent e) {
-                objToPrefs(prefs, sizeKey, comp.getSize());
+                settings.putDimension(sizeKey, comp.getSize());
             }
         });
     }
 
-    private static <T> T objFromPrefs(Preferences prefs, String key, Class<T> clazz) {
-        byte[] serializedObj = prefs.getByteArray(key, null);
-        T result = null;
-        if (serializedObj != null) {
-            try (var in = new ObjectInputStream(new ByteArrayInputStream(serializedObj))) {
-                result = clazz.cast(in.readObject());
-            } catch (IOException | ClassCastException | ClassNotFoundException e) {
-                // Ignored.
-            }
+    private static class CoalescingListener implements YahtzeeGame.GameStateListener {
+        private final YahtzeeGame.GameStateListener listener;
+        private GameEvent pending;
+
+        CoalescingListener(YahtzeeGame.GameStateListener listener) {
+            this.listener = listener;
         }
 
-        return result;
-    }
+        @Override
+        public void gameStateChanged(GameEvent event) {
+            synchronized (this) {
+                if (pending != null) {
+                    pending = pending.merge(event);
+                    return;
+                }
+                pending = event;
+            }
+            SwingUtilities.invokeLater(this::deliver);
+        }
 
-    private static void objToPrefs(Preferences prefs, String key, Object obj) {
-        try (var bOut = new ByteArrayOutputStream(); var objOut = new ObjectOutputStream(bOut)) {
-            objOut.writeObject(obj);
-            prefs.putByteArray(key, bOut.toByteArray());
-        } catch (IOException ioe) {
-            // Ignored.
+        private void deliver() {
+            GameEvent event;
+            synchronized (this) {
+                event = pending;
+                pending = null;
+            }
+            listener.gameStateChanged(event);
         }
     }
-
 }
@@ -0,0 +1,463 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Plays strategies against each other at tables of a fixed size, in parallel, and collects statistics on how each one
+ * did.
+ *
+ * <p>Games use common random numbers. A deal fixes the dice every seat will see on every turn: the dice for seat
+ * {@code s}'s turn {@code t} come from a stream seeded by the deal, the seat and the turn only, so they do not depend
+ * on what the strategies hold or on anyone else's turns. Each deal is played once per rotation of the table, so every
+ * strategy at the table sees exactly the same dice. Differences between strategies then show up in far fewer games.
+ *
+ * <p>All statistics are streaming aggregates in fixed memory, however many games are played: a {@link ScoreStatistics}
+ * per strategy, win, draw and loss counts, head-to-head results and how often each box scored.
+ */
+public class Tournament {
+    private static final int DEALS_PER_LEAF = 16;
+
+    private final List<Entrant> entrants;
+    private final int tableSize;
+    private final int parallelism;
+
+    public Tournament(List<Entrant> entrants, int tableSize, int parallelism) {
+        if (tableSize < 2 || tableSize > entrants.size()) {
+            throw new IllegalArgumentException("Tables must seat between 2 and " + entrants.size() + " entrants");
+        }
+        this.entrants = List.copyOf(entrants);
+        this.tableSize = tableSize;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Plays every combination of {@code tableSize} entrants on each of {@code deals} deals.
+     */
+    public Result roundRobin(long deals, long seed) {
+        List<int[]> tables = new ArrayList<>();
+        combinations(new int[tableSize], 0, 0, tables);
+
+        long start = System.nanoTime();
+        Stats stats = play(tables, 0, deals, seed);
+        return new Result(entrants, stats, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    /**
+     * Plays a Swiss tournament: each round seats entrants with similar standings together, avoiding rematches where it
+     * can, and plays each table on {@code dealsPerRound} deals. Entrants left over when the field does not divide into
+     * full tables sit the round out, lowest standings first.
+     */
+    public Result swiss(int rounds, long dealsPerRound, long seed) {
+        long start = System.nanoTime();
+        Stats stats = new Stats(entrants.size());
+        boolean[][] met = new boolean[entrants.size()][entrants.size()];
+        for (int round = 0; round < rounds; round++) {
+            List<Integer> order = new ArrayList<>();
+            for (int i = 0; i < entrants.size(); i++) {
+                order.add(i);
+            }
+            // Standings first, then entrant order, so that the first round pairs neighbours.
+            Stats standings = stats;
+            order.sort(Comparator.comparingDouble((Integer i) -> -standings.points(i)));
+
+            List<int[]> tables = new ArrayList<>();
+            boolean[] seated = new boolean[entrants.size()];
+            for (int first = 0; first + tableSize <= order.size(); first++) {
+                int head = order.get(first);
+                if (seated[head] || countUnseated(order, seated) < tableSize) {
+                    continue;
+                }
+                int[] table = new int[tableSize];
+                table[0] = head;
+                seated[head] = true;
+                for (int seat = 1; seat < tableSize; seat++) {
+                    table[seat] = pickOpponent(order, seated, met, table, seat);
+                    seated[table[seat]] = true;
+                }
+                for (int a : table) {
+                    for (int b : table) {
+                        met[a][b] = true;
+                    }
+                }
+                tables.add(table);
+            }
+
+            stats.combine(play(tables, round * dealsPerRound, (round + 1) * dealsPerRound, seed));
+        }
+        return new Result(entrants, stats, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private static int countUnseated(List<Integer> order, boolean[] seated) {
+        int count = 0;
+        for (int i : order) {
+            if (!seated[i]) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static int pickOpponent(List<Integer> order, boolean[] seated, boolean[][] met, int[] table, int seats) {
+        int fallback = -1;
+        for (int candidate : order) {
+            if (seated[candidate]) {
+                continue;
+            }
+            if (fallback == -1) {
+                fallback = candidate;
+            }
+            boolean fresh = true;
+            for (int i = 0; i < seats; i++) {
+                fresh &= !met[table[i]][candidate];
+            }
+            if (fresh) {
+                return candidate;
+            }
+        }
+        return fallback;
+    }
+
+    private void combinations(int[] table, int seat, int from, List<int[]> tables) {
+        if (seat == table.length) {
+            tables.add(table.clone());
+            return;
+        }
+        for (int i = from; i <= entrants.size() - (table.length - seat); i++) {
+            table[seat] = i;
+            combinations(table, seat + 1, i + 1, tables);
+        }
+    }
+
+    private Stats play(List<int[]> tables, long fromDeal, long toDeal, long seed) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.invoke(new TournamentTask(tables, fromDeal, toDeal, seed));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Returns the seed of the dice stream for one seat's turn in one deal.
+     */
+    static long turnSeed(long seed, long deal, int seat, int turn) {
+        return PackedGameState.mix(PackedGameState.mix(seed ^ deal * 0x9E3779B97F4A7C15L) + seat * 31L + turn);
+    }
+
+    /**
+     * Plays the built-in strategies head to head and prints the results.
+     *
+     * <p>Usage: {@code Tournament [deals] [seed] [value table file]}
+     */
+    public static void main(String[] args) throws IOException {
+        long deals = args.length > 0 ? Long.parseLong(args[0]) : 100_000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42;
+        Path path = Path.of(args.length > 2 ? args[2] : "yahtzee-values.bin");
+
+        List<Entrant> entrants = List.of(new Entrant("Greedy", GreedyStrategy.INSTANCE),
+                new Entrant("Expected value", new ExpectedValueStrategy(SolitaireSolver.loadOrSolve(path))));
+        Result result = new Tournament(entrants, 2, Runtime.getRuntime().availableProcessors())
+                .roundRobin(deals, seed);
+        System.out.print(result);
+        System.out.printf("Expected value beats greedy in %.4f of games%n", result.getHeadToHead(1, 0));
+    }
+
+    public record Entrant(String name, YahtzeeStrategy strategy) {
+    }
+
+    /**
+     * The outcome of a tournament.
+     */
+    public static final class Result {
+        private final List<Entrant> entrants;
+        private final Stats stats;
+        private final Duration elapsed;
+
+        Result(List<Entrant> entrants, Stats stats, Duration elapsed) {
+            this.entrants = entrants;
+            this.stats = stats;
+            this.elapsed = elapsed;
+        }
+
+        public List<Entrant> getEntrants() {
+            return entrants;
+        }
+
+        public EntrantStats getStats(int entrant) {
+            return stats.entrants[entrant];
+        }
+
+        public long getGames() {
+            return stats.games;
+        }
+
+        public Duration getElapsed() {
+            return elapsed;
+        }
+
+        /**
+         * Returns the fraction of games at the same table in which entrant {@code a} outscored entrant {@code b}.
+         */
+        public double getHeadToHead(int a, int b) {
+            long met = stats.met[a][b];
+            return met == 0 ? 0 : (double) stats.beats[a][b] / met;
+        }
+
+        public double gamesPerSecond() {
+            return stats.games / (elapsed.toNanos() / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            var sb = new StringBuilder(String.format("%d games in %.2fs (%.0f games/sec)%n", stats.games,
+                    elapsed.toNanos() / 1e9, gamesPerSecond()));
+            for (int i = 0; i < entrants.size(); i++) {
+                EntrantStats entrant = stats.entrants[i];
+                sb.append(String.format("%-20s win rate=%.4f W/D/L=%d/%d/%d %s%n", entrants.get(i).name(),
+                        entrant.getWinRate(), entrant.getWins(), entrant.getDraws(), entrant.getLosses(),
+                        entrant.getScores()));
+            }
+            return sb.toString();
+        }
+    }
+
+    private class TournamentTask extends RecursiveTask<Stats> {
+        private final List<int[]> tables;
+        private final long from;
+        private final long to;
+        private final long seed;
+
+        TournamentTask(List<int[]> tables, long from, long to, long seed) {
+            this.tables = tables;
+            this.from = from;
+            this.to = to;
+            this.seed = seed;
+        }
+
+        @Override
+        protected Stats compute() {
+            if (to - from > DEALS_PER_LEAF) {
+                long mid = (from + to) >>> 1;
+                var left = new TournamentTask(tables, from, mid, seed);
+                left.fork();
+                Stats result = new TournamentTask(tables, mid, to, seed).compute();
+                result.combine(left.join());
+                return result;
+            }
+
+            Stats stats = new Stats(entrants.size());
+            var roller = new TurnDiceRoller();
+            int[] seats = new int[tableSize];
+            for (long deal = from; deal < to; deal++) {
+                for (int[] table : tables) {
+                    for (int rotation = 0; rotation < tableSize; rotation++) {
+                        for (int seat = 0; seat < tableSize; seat++) {
+                            seats[seat] = table[(seat + rotation) % tableSize];
+                        }
+                        stats.addGame(playGame(deal, seats, roller), seats);
+                    }
+                }
+            }
+            return stats;
+        }
+
+        private YahtzeeGame playGame(long deal, int[] seats, TurnDiceRoller roller) {
+            List<YahtzeePlayer> players = new ArrayList<>(seats.length);
+            for (int entrant : seats) {
+                players.add(new YahtzeePlayer(entrants.get(entrant).name(), entrants.get(entrant).strategy()));
+            }
+
+            roller.beginTurn(turnSeed(seed, deal, 0, 0));
+            YahtzeeGame game = new YahtzeeGame(players, new YahtzeeDice(roller));
+            int[] turns = new int[seats.length];
+            while (!game.isGameOver()) {
+                int seat = game.getWhoseTurn();
+                // Replace the opening roll, which came from the previous turn's stream, with this turn's.
+                if (turns[seat] > 0 || seat > 0) {
+                    roller.beginTurn(turnSeed(seed, deal, seat, turns[seat]));
+                    game.getDice().roll();
+                }
+                turns[seat]++;
+                game.playBotTurn();
+            }
+            return game;
+        }
+    }
+
+    /**
+     * Rolls the dice for one turn at a time, from a stream chosen by the tournament.
+     */
+    private static class TurnDiceRoller implements DiceRoller {
+        private RandomDiceRoller turn;
+
+        void beginTurn(long seed) {
+            turn = DiceRoller.seeded(seed);
+        }
+
+        @Override
+        public int nextFace() {
+            return turn.nextFace();
+        }
+    }
+
+    /**
+     * How one entrant did, over every game it played.
+     */
+    public static class EntrantStats {
+        private final ScoreStatistics scores = new ScoreStatistics();
+        private final long[] boxScored = new long[ScoringTable.BOX_COUNT];
+        private final long[] boxPoints = new long[ScoringTable.BOX_COUNT];
+        private long wins;
+        private long draws;
+        private long losses;
+        private long bonusYahtzees;
+
+        public ScoreStatistics getScores() {
+            return scores;
+        }
+
+        public long getGames() {
+            return wins + draws + losses;
+        }
+
+        public long getWins() {
+            return wins;
+        }
+
+        public long getDraws() {
+            return draws;
+        }
+
+        public long getLosses() {
+            return losses;
+        }
+
+        /**
+         * Returns the fraction of games won, counting a draw as half a win.
+         */
+        public double getWinRate() {
+            long games = getGames();
+            return games == 0 ? 0 : (wins + draws / 2.0) / games;
+        }
+
+        /**
+         * Returns the fraction of games in which the given box scored more than zero.
+         */
+        public double getScoringFrequency(int box) {
+            long games = getGames();
+            return games == 0 ? 0 : (double) boxScored[box] / games;
+        }
+
+        public double getMeanBoxScore(int box) {
+            long games = getGames();
+            return games == 0 ? 0 : (double) boxPoints[box] / games;
+        }
+
+        public double getMeanBonusYahtzees() {
+            long games = getGames();
+            return games == 0 ? 0 : (double) bonusYahtzees / games;
+        }
+
+        void combine(EntrantStats other) {
+            scores.combine(other.scores);
+            for (int box = 0; box < ScoringTable.BOX_COUNT; box++) {
+                boxScored[box] += other.boxScored[box];
+                boxPoints[box] += other.boxPoints[box];
+            }
+            wins += other.wins;
+            draws += other.draws;
+            losses += other.losses;
+            bonusYahtzees += other.bonusYahtzees;
+        }
+    }
+
+    /**
+     * Every entrant's statistics plus head-to-head results: {@code beats[a][b]} games in which {@code a} outscored
+     * {@code b}, out of {@code met[a][b]} at the same table.
+     */
+    private static class Stats {
+        private final EntrantStats[] entrants;
+        private final long[][] beats;
+        private final long[][] met;
+        private long games;
+
+        Stats(int entrantCount) {
+            entrants = new EntrantStats[entrantCount];
+            for (int i = 0; i < entrantCount; i++) {
+                entrants[i] = new EntrantStats();
+            }
+            beats = new long[entrantCount][entrantCount];
+            met = new long[entrantCount][entrantCount];
+        }
+
+        void addGame(YahtzeeGame game, int[] seats) {
+            games++;
+            int best = 0;
+            int leaders = 0;
+            for (int seat = 0; seat < seats.length; seat++) {
+                int score = game.getPlayerScore(seat);
+                if (score > best) {
+                    best = score;
+                    leaders = 1;
+                } else if (score == best) {
+                    leaders++;
+                }
+            }
+
+            for (int seat = 0; seat < seats.length; seat++) {
+                int score = game.getPlayerScore(seat);
+                EntrantStats entrant = entrants[seats[seat]];
+                entrant.scores.add(score);
+                if (score < best) {
+                    entrant.losses++;
+                } else if (leaders == 1) {
+                    entrant.wins++;
+                } else {
+                    entrant.draws++;
+                }
+
+                Map<Combination, Integer> moves = game.getPlayerMoves(seat);
+                for (int box = 0; box < ScoringTable.BOX_COUNT; box++) {
+                    int boxScore = moves.get(game.getCombination(box));
+                    if (boxScore > 0) {
+                        entrant.boxScored[box]++;
+                        entrant.boxPoints[box] += boxScore;
+                    }
+                }
+                entrant.bonusYahtzees += game.getBonusYahtzeeCount(seat);
+
+                for (int other = 0; other < seats.length; other++) {
+                    if (other != seat) {
+                        met[seats[seat]][seats[other]]++;
+                        if (score > game.getPlayerScore(other)) {
+                            beats[seats[seat]][seats[other]]++;
+                        }
+                    }
+                }
+            }
+        }
+
+        double points(int entrant) {
+            return entrants[entrant].getWinRate();
+        }
+
+        void combine(Stats other) {
+            games += other.games;
+            for (int i = 0; i < entrants.length; i++) {
+                entrants[i].combine(other.entrants[i]);
+                for (int j = 0; j < entrants.length; j++) {
+                    beats[i][j] += other.beats[i][j];
+                    met[i][j] += other.met[i][j];
+                }
+            }
+        }
+    }
+}
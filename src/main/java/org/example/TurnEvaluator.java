@@ -0,0 +1,125 @@
+package org.example;
+
+/**
+ * Evaluates one turn of solitaire Yahtzee exactly, given the expected future score of every scorecard state the turn
+ * can lead to. The turn is played by the rules the future values were solved for.
+ *
+ * <p>Working backwards from the last roll: with no rolls left the best box is chosen for each multiset; a keep is
+ * worth the probability-weighted value of the multisets its roll can produce; and with rolls left a multiset is worth
+ * its best keep. Not thread-safe, each thread needs its own evaluator.
+ */
+final class TurnEvaluator {
+    static final int MAX_ROLLS = 2;
+
+    private final ScoringTable table;
+    private final RuleSet rules;
+    private final KeepTable keeps = KeepTable.get();
+    private final ValueTable future;
+    private final boolean tracksYahtzeeBonus;
+
+    // rollValues[r][m]: expected future score holding multiset m with r rolls remaining, playing optimally.
+    final double[][] rollValues = new double[MAX_ROLLS + 1][ScoringTable.MULTISET_COUNT];
+    // keepValues[r][k]: expected future score of keeping k and rolling, with r rolls remaining before the roll.
+    final double[][] keepValues = new double[MAX_ROLLS + 1][KeepTable.KEEP_COUNT];
+    final int[][] bestKeep = new int[MAX_ROLLS + 1][ScoringTable.MULTISET_COUNT];
+    final int[] bestBox = new int[ScoringTable.MULTISET_COUNT];
+
+    TurnEvaluator(ValueTable future) {
+        this.future = future;
+        this.table = future.getScoringTable();
+        this.rules = table.getRules();
+        this.tracksYahtzeeBonus = ValueTable.tracksYahtzeeBonus(rules);
+    }
+
+    /**
+     * Evaluates the turn for the given scorecard, returning its expected future score before the opening roll.
+     */
+    double evaluate(int played, int upperTotal, boolean yahtzeeBonus) {
+        for (int m = 0; m < ScoringTable.MULTISET_COUNT; m++) {
+            double best = Double.NEGATIVE_INFINITY;
+            for (int box = 0; box < table.getBoxCount(); box++) {
+                if ((played & (1 << box)) == 0) {
+                    double value = boxValue(played, upperTotal, yahtzeeBonus, m, box);
+                    if (value > best) {
+                        best = value;
+                        bestBox[m] = box;
+                    }
+                }
+            }
+            rollValues[0][m] = best;
+        }
+
+        for (int r = 1; r <= MAX_ROLLS; r++) {
+            double[] outcomes = rollValues[r - 1];
+            double[] keepValue = keepValues[r];
+            for (int k = 0; k < KeepTable.KEEP_COUNT; k++) {
+                double sum = 0;
+                for (int i = keeps.outcomeStart[k]; i < keeps.outcomeStart[k + 1]; i++) {
+                    sum += keeps.outcomeProbability[i] * outcomes[keeps.outcomeMultiset[i]];
+                }
+                keepValue[k] = sum;
+            }
+
+            for (int m = 0; m < ScoringTable.MULTISET_COUNT; m++) {
+                double best = Double.NEGATIVE_INFINITY;
+                for (int i = keeps.subKeepStart[m]; i < keeps.subKeepStart[m + 1]; i++) {
+                    int k = keeps.subKeeps[i];
+                    if (keepValue[k] > best) {
+                        best = keepValue[k];
+                        bestKeep[r][m] = k;
+                    }
+                }
+                rollValues[r][m] = best;
+            }
+        }
+
+        double value = 0;
+        int opening = keeps.emptyKeep();
+        for (int i = keeps.outcomeStart[opening]; i < keeps.outcomeStart[opening + 1]; i++) {
+            value += keeps.outcomeProbability[i] * rollValues[MAX_ROLLS][keeps.outcomeMultiset[i]];
+        }
+        return value;
+    }
+
+    /**
+     * Returns the points scored by playing {@code box} with the given multiset, including bonuses, plus the expected
+     * future score of the resulting scorecard.
+     */
+    double boxValue(int played, int upperTotal, boolean yahtzeeBonus, int multiset, int box) {
+        long outcome = play(played, upperTotal, yahtzeeBonus, multiset, box);
+        return gain(outcome) + future.get(nextState(outcome));
+    }
+
+    /**
+     * Plays {@code box} with the given multiset, returning the points scored and the resulting state, to be read with
+     * {@link #gain} and {@link #nextState}.
+     */
+    long play(int played, int upperTotal, boolean yahtzeeBonus, int multiset, int box) {
+        boolean yahtzee = table.isYahtzee(multiset);
+        // A Yahtzee has a single face with a non-zero count.
+        int face = 1 + Integer.numberOfTrailingZeros(table.histogram(multiset)) / 3;
+
+        // A Yahtzee bonus implies the Yahtzee box scored 50, so a Joker only needs the matching upper box played.
+        boolean joker = rules.jokers() && yahtzee && yahtzeeBonus && (played & (1 << table.upperBox(face))) != 0;
+        int score = table.score(multiset, box, joker);
+        int gain = score + (yahtzee && yahtzeeBonus ? rules.yahtzeeBonus() : 0);
+        int newUpper = upperTotal;
+        if (table.isUpper(box)) {
+            int threshold = rules.upperBonusThreshold();
+            newUpper = Math.min(threshold, upperTotal + score);
+            if (upperTotal < threshold && newUpper == threshold) {
+                gain += rules.upperBonus();
+            }
+        }
+        boolean newBonus = yahtzeeBonus || (tracksYahtzeeBonus && box == table.allSameBox() && score != 0);
+        return (long) ValueTable.state(played | (1 << box), newUpper, newBonus) << 32 | gain;
+    }
+
+    static int gain(long outcome) {
+        return (int) outcome;
+    }
+
+    static int nextState(long outcome) {
+        return (int) (outcome >>> 32);
+    }
+}
@@ -0,0 +1,169 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The expected future score of every solitaire scorecard state, under optimal play.
+ *
+ * <p>A state is the set of played boxes, the upper section total capped at the bonus threshold (beyond it, only
+ * whether the bonus was earned matters) and whether the Yahtzee box scored 50 (which enables bonus Yahtzees and
+ * Jokers). The values are stored as one float per state, so the table can be written to disk and memory-mapped
+ * instead of being recomputed by {@link SolitaireSolver}.
+ *
+ * <p>The constants describe the standard rules. A table for other rules has one state per combination of its own
+ * boxes, and a file records only the number of states, so tables for different rules are best kept in different files.
+ */
+public final class ValueTable {
+    public static final int UPPER_BONUS_THRESHOLD = 63;
+    public static final int UPPER_BONUS = 35;
+    public static final int STATE_COUNT = 1 << (ScoringTable.BOX_COUNT + 7);
+
+    private static final int MAGIC = 0x59545654; // "YTVT"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 12;
+
+    private final ScoringTable scoring;
+    private final FloatBuffer values;
+    private DecisionCache decisions;
+
+    ValueTable(FloatBuffer values) {
+        this(ScoringTable.get(), values);
+    }
+
+    ValueTable(ScoringTable scoring, FloatBuffer values) {
+        this.scoring = scoring;
+        this.values = values;
+    }
+
+    /**
+     * Returns the number of states of a table for the given rules.
+     */
+    public static int stateCount(RuleSet rules) {
+        return 1 << (rules.getBoxCount() + 7);
+    }
+
+    /**
+     * Returns {@code true} if it matters under the rules whether the Yahtzee box scored, for bonus Yahtzees or Jokers.
+     */
+    static boolean tracksYahtzeeBonus(RuleSet rules) {
+        return rules.yahtzeeBonus() > 0 || rules.jokers();
+    }
+
+    /**
+     * Returns the compiled rules the table was solved for.
+     */
+    public ScoringTable getScoringTable() {
+        return scoring;
+    }
+
+    public int getStateCount() {
+        return values.capacity();
+    }
+
+    /**
+     * Returns the cache of turns evaluated from the table, which lives as long as the table does.
+     */
+    synchronized DecisionCache getDecisionCache() {
+        if (decisions == null) {
+            decisions = new DecisionCache(this);
+        }
+        return decisions;
+    }
+
+    /**
+     * Returns the index of the given scorecard state.
+     */
+    public static int state(int played, int upperTotal, boolean yahtzeeBonus) {
+        return played << 7 | Math.min(upperTotal, UPPER_BONUS_THRESHOLD) << 1 | (yahtzeeBonus ? 1 : 0);
+    }
+
+    /**
+     * Returns the index of the given player's scorecard state.
+     */
+    public static int stateOf(YahtzeeGame game, int player) {
+        return stateOf(game.getView(), player);
+    }
+
+    /**
+     * Returns the index of the given player's scorecard state, under the rules of the game.
+     */
+    public static int stateOf(GameView game, int player) {
+        RuleSet rules = game.getScoringTable().getRules();
+        int upperTotal = Math.min(game.getUpperSectionScore(player), rules.upperBonusThreshold());
+        boolean yahtzeeBonus = tracksYahtzeeBonus(rules) && game.hasYahtzeeBonus(player);
+        return state(game.getPlayedBoxes(player), upperTotal, yahtzeeBonus);
+    }
+
+    /**
+     * Returns the expected future score from the start of a turn in the given state.
+     */
+    public float get(int state) {
+        return values.get(state);
+    }
+
+    /**
+     * Returns the player's expected final score, assuming optimal play from now on. If it is the player's turn, this
+     * takes the current dice and the rolls remaining into account.
+     */
+    public double expectedFinalScore(YahtzeeGame game, int player) {
+        int state = stateOf(game, player);
+        if (player != game.getWhoseTurn() || game.isGameOver()) {
+            return game.getPlayerScore(player) + get(state);
+        }
+
+        var evaluator = new TurnEvaluator(this);
+        evaluator.evaluate(state >>> 7, (state >>> 1) & 63, (state & 1) != 0);
+        return game.getPlayerScore(player)
+                + evaluator.rollValues[game.getRollsRemaining()][game.getDice().getMultiset()];
+    }
+
+    /**
+     * Writes the table to the given file, in a form that {@link #load} can map back into memory.
+     */
+    public void save(Path path) throws IOException {
+        int stateCount = getStateCount();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + 4 * stateCount).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(stateCount);
+        for (int i = 0; i < stateCount; i++) {
+            buffer.putFloat(values.get(i));
+        }
+        buffer.flip();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Memory-maps a table for the standard rules written by {@link #save}.
+     */
+    public static ValueTable load(Path path) throws IOException {
+        return load(path, RuleSet.YAHTZEE);
+    }
+
+    /**
+     * Memory-maps a table for the given rules written by {@link #save}.
+     */
+    public static ValueTable load(Path path, RuleSet rules) throws IOException {
+        int stateCount = stateCount(rules);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC || buffer.getInt() != VERSION
+                    || buffer.getInt() != stateCount || buffer.remaining() != 4 * stateCount) {
+                throw new IOException(path + " is not a " + rules + " value table");
+            }
+            FloatBuffer values = buffer.slice().order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+            return new ValueTable(ScoringTable.of(rules), values);
+        }
+    }
+}
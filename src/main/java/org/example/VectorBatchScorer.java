@@ -0,0 +1,147 @@
+package org.example;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The Vector API half of {@link BatchScorer}. Only loaded when the {@code jdk.incubator.vector} module is present.
+ *
+ * <p>Each method scores as many whole vectors of rows as fit between {@code from} and {@code to}, and returns the
+ * first row it did not score, for the caller to finish one row at a time. It also stops at a vector with a row that is
+ * not a roll of five dice, such as a die showing 0 or 7, and leaves the caller to report it. Scores are computed from
+ * the face counts with the same rules as {@link ScoringTable}, lane by lane, without any table lookups. Vectors are
+ * kept in locals rather than arrays so that the JIT can keep them in registers.
+ */
+final class VectorBatchScorer {
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    private VectorBatchScorer() {
+    }
+
+    static int scoreDice(int[][] dice, boolean[] joker, int from, int to, int[][] scores) {
+        int row = from;
+        for (; row + SPECIES.length() <= to; row += SPECIES.length()) {
+            IntVector d0 = IntVector.fromArray(SPECIES, dice[0], row);
+            IntVector d1 = IntVector.fromArray(SPECIES, dice[1], row);
+            IntVector d2 = IntVector.fromArray(SPECIES, dice[2], row);
+            IntVector d3 = IntVector.fromArray(SPECIES, dice[3], row);
+            IntVector d4 = IntVector.fromArray(SPECIES, dice[4], row);
+            IntVector c1 = count(d0, d1, d2, d3, d4, 1);
+            IntVector c2 = count(d0, d1, d2, d3, d4, 2);
+            IntVector c3 = count(d0, d1, d2, d3, d4, 3);
+            IntVector c4 = count(d0, d1, d2, d3, d4, 4);
+            IntVector c5 = count(d0, d1, d2, d3, d4, 5);
+            IntVector c6 = count(d0, d1, d2, d3, d4, 6);
+            if (!isRoll(c1, c2, c3, c4, c5, c6)) {
+                return row;
+            }
+            score(c1, c2, c3, c4, c5, c6, joker, row, scores);
+        }
+        return row;
+    }
+
+    static int scoreDice(byte[][] dice, boolean[] joker, int from, int to, int[][] scores) {
+        // Widen a block of rows at a time, then score the block as int columns.
+        int[][] block = new int[ScoringTable.DICE_COUNT][SPECIES.length() * 64];
+        int row = from;
+        while (row + SPECIES.length() <= to) {
+            int length = Math.min(block[0].length, (to - row) / SPECIES.length() * SPECIES.length());
+            for (int i = 0; i < ScoringTable.DICE_COUNT; i++) {
+                for (int j = 0; j < length; j++) {
+                    block[i][j] = dice[i][row + j];
+                }
+            }
+            for (int j = 0; j < length; j += SPECIES.length()) {
+                IntVector d0 = IntVector.fromArray(SPECIES, block[0], j);
+                IntVector d1 = IntVector.fromArray(SPECIES, block[1], j);
+                IntVector d2 = IntVector.fromArray(SPECIES, block[2], j);
+                IntVector d3 = IntVector.fromArray(SPECIES, block[3], j);
+                IntVector d4 = IntVector.fromArray(SPECIES, block[4], j);
+                IntVector c1 = count(d0, d1, d2, d3, d4, 1);
+                IntVector c2 = count(d0, d1, d2, d3, d4, 2);
+                IntVector c3 = count(d0, d1, d2, d3, d4, 3);
+                IntVector c4 = count(d0, d1, d2, d3, d4, 4);
+                IntVector c5 = count(d0, d1, d2, d3, d4, 5);
+                IntVector c6 = count(d0, d1, d2, d3, d4, 6);
+                if (!isRoll(c1, c2, c3, c4, c5, c6)) {
+                    return row + j;
+                }
+                score(c1, c2, c3, c4, c5, c6, joker, row + j, scores);
+            }
+            row += length;
+        }
+        return row;
+    }
+
+    static int scoreHistograms(int[] histograms, boolean[] joker, int from, int to, int[][] scores) {
+        int row = from;
+        for (; row + SPECIES.length() <= to; row += SPECIES.length()) {
+            IntVector histogram = IntVector.fromArray(SPECIES, histograms, row);
+            IntVector c1 = histogram.and(7);
+            IntVector c2 = histogram.lanewise(VectorOperators.LSHR, 3).and(7);
+            IntVector c3 = histogram.lanewise(VectorOperators.LSHR, 6).and(7);
+            IntVector c4 = histogram.lanewise(VectorOperators.LSHR, 9).and(7);
+            IntVector c5 = histogram.lanewise(VectorOperators.LSHR, 12).and(7);
+            IntVector c6 = histogram.lanewise(VectorOperators.LSHR, 15);
+            if (!isRoll(c1, c2, c3, c4, c5, c6)) {
+                return row;
+            }
+            score(c1, c2, c3, c4, c5, c6, joker, row, scores);
+        }
+        return row;
+    }
+
+    // Returns true if the counts of every lane add up to five dice. A die showing a face out of range is not counted.
+    private static boolean isRoll(IntVector c1, IntVector c2, IntVector c3, IntVector c4, IntVector c5, IntVector c6) {
+        return c1.add(c2).add(c3).add(c4).add(c5).add(c6).eq(ScoringTable.DICE_COUNT).allTrue();
+    }
+
+    private static IntVector count(IntVector d0, IntVector d1, IntVector d2, IntVector d3, IntVector d4, int face) {
+        IntVector zero = IntVector.zero(SPECIES);
+        return zero.add(1, d0.eq(face)).add(1, d1.eq(face)).add(1, d2.eq(face)).add(1, d3.eq(face))
+                .add(1, d4.eq(face));
+    }
+
+    private static void score(IntVector c1, IntVector c2, IntVector c3, IntVector c4, IntVector c5, IntVector c6,
+                              boolean[] joker, int row, int[][] scores) {
+        IntVector u2 = c2.lanewise(VectorOperators.LSHL, 1);
+        IntVector u3 = c3.mul(3);
+        IntVector u4 = c4.lanewise(VectorOperators.LSHL, 2);
+        IntVector u5 = c5.mul(5);
+        IntVector u6 = c6.mul(6);
+        c1.intoArray(scores[ScoringTable.ACES], row);
+        u2.intoArray(scores[ScoringTable.TWOS], row);
+        u3.intoArray(scores[ScoringTable.THREES], row);
+        u4.intoArray(scores[ScoringTable.FOURS], row);
+        u5.intoArray(scores[ScoringTable.FIVES], row);
+        u6.intoArray(scores[ScoringTable.SIXES], row);
+
+        IntVector sum = c1.add(u2).add(u3).add(u4).add(u5).add(u6);
+        IntVector maxCount = c1.max(c2).max(c3).max(c4).max(c5).max(c6);
+        VectorMask<Integer> pair = c1.eq(2).or(c2.eq(2)).or(c3.eq(2)).or(c4.eq(2)).or(c5.eq(2)).or(c6.eq(2));
+        VectorMask<Integer> yahtzee = maxCount.eq(ScoringTable.DICE_COUNT);
+        VectorMask<Integer> jokers = joker == null ? SPECIES.maskAll(false)
+                : VectorMask.fromArray(SPECIES, joker, row).and(yahtzee);
+
+        // With five dice, a pair and a count of three can only be a full house.
+        VectorMask<Integer> fullHouse = pair.and(maxCount.eq(3));
+        VectorMask<Integer> ones = c1.compare(VectorOperators.GT, 0);
+        VectorMask<Integer> twos = c2.compare(VectorOperators.GT, 0);
+        VectorMask<Integer> fives = c5.compare(VectorOperators.GT, 0);
+        VectorMask<Integer> sixes = c6.compare(VectorOperators.GT, 0);
+        VectorMask<Integer> middle = c3.compare(VectorOperators.GT, 0).and(c4.compare(VectorOperators.GT, 0));
+        VectorMask<Integer> smallStraight = middle.and(ones.and(twos).or(twos.and(fives)).or(fives.and(sixes)));
+        VectorMask<Integer> largeStraight = middle.and(twos).and(fives).and(ones.or(sixes));
+
+        IntVector zero = IntVector.zero(SPECIES);
+        sum.intoArray(scores[ScoringTable.CHANCE], row);
+        zero.blend(sum, maxCount.compare(VectorOperators.GE, 3)).intoArray(scores[ScoringTable.THREE_OF_A_KIND], row);
+        zero.blend(sum, maxCount.compare(VectorOperators.GE, 4)).intoArray(scores[ScoringTable.FOUR_OF_A_KIND], row);
+        zero.blend(25, fullHouse.or(jokers)).intoArray(scores[ScoringTable.FULL_HOUSE], row);
+        zero.blend(30, smallStraight.or(jokers)).intoArray(scores[ScoringTable.SMALL_STRAIGHT], row);
+        zero.blend(40, largeStraight.or(jokers)).intoArray(scores[ScoringTable.LARGE_STRAIGHT], row);
+        zero.blend(50, yahtzee).intoArray(scores[ScoringTable.YAHTZEE], row);
+    }
+}
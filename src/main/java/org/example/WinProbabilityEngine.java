@@ -0,0 +1,834 @@
+package org.example;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Estimates each player's chance of winning a game by Monte Carlo tree search, and as a strategy, plays to maximize
+ * its own player's.
+ *
+ * <p>The tree follows the turns exactly. At a hold node the player picks one of the distinct keeps of the dice, where
+ * keeping them all means to stop rolling; at a chance node the free dice are rolled; at a box node the player picks
+ * an open box, and the next player's opening roll is a chance node. Keeps and boxes are picked by UCT on the picking
+ * player's share of wins, and rolls are sampled with their true probabilities. Each iteration adds a node and plays
+ * the game out from it quickly: the most common face is kept while rolls remain, as by {@link GreedyStrategy}, and the
+ * box that is best by the value table is played. A win is worth 1, split evenly on a tie. Playing as a strategy, the
+ * engine only weighs moves whose expected score is within a few points of the best, since the quick playouts misjudge
+ * the rest.
+ *
+ * <p>Several threads search the same tree without locks: the calling thread, and the rest from a pool with a thread per
+ * core that every engine shares, so that engines searching at once split the cores between them rather than each
+ * starting its own threads. A thread counts its visit to each node on the way down, before its playout is done, so
+ * until the result is added the node looks like a loss to the other threads (a virtual loss), which steers them to
+ * other branches instead of piling onto the same playout. The root, which every playout goes through, keeps its visits
+ * and rewards in {@link LongAdder}s rather than in the pool, so that threads do not contend for them.
+ *
+ * <p>Nodes live in a pool of parallel arrays, sized from a memory budget, instead of as objects; when it is full the
+ * tree stops growing and searches carry on with playouts from its leaves. The engine listens to the game and moves the
+ * root down the tree as dice are rolled and boxes played, so the search of one decision carries over to the next, and
+ * once more than half the pool is in use the part of the tree that is still reachable is copied to a second pool.
+ */
+public class WinProbabilityEngine implements YahtzeeStrategy, YahtzeeGame.GameStateListener {
+    public static final long DEFAULT_MEMORY_BUDGET = 64L << 20;
+
+    // Two pools of first child, child count, move, visits and reward.
+    private static final int NODE_BYTES = 2 * (4 + 4 + 4 + 4 + 8);
+    // A win, which every player count up to 16 divides, so that ties split it exactly.
+    private static final long WIN = 720_720;
+    private static final double EXPLORATION = 0.7;
+    // How far below the best expected score a move can be and still be played.
+    private static final double EXPECTED_SCORE_MARGIN = 4;
+    private static final int EXPANDING = -1;
+
+    private static final int TERMINAL = 0;
+    private static final int HOLD = 1;
+    private static final int CHANCE = 2;
+    private static final int BOX = 3;
+
+    private static final AtomicInteger THREADS = new AtomicInteger();
+    private static final ExecutorService WORKERS = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(), r -> {
+                Thread thread = new Thread(r, "win-probability-" + THREADS.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private final YahtzeeGame game;
+    private final ValueTable table;
+    private final ScoringTable scoring;
+    private final KeepTable keeps = KeepTable.get();
+    private final int playerCount;
+    private final Worker[] workers;
+    private final LongAdder playouts = new LongAdder();
+    // Cumulative outcome probabilities of each keep, in KeepTable order.
+    private final double[] cumulative;
+
+    // Everything below is guarded by the engine's lock, and only read by workers during a search.
+    private NodePool pool;
+    private NodePool spare;
+    private int root;
+    private final Position rootPosition;
+    private final TurnEvaluator rootEvaluator;
+    // The root's playouts and each player's rewards since it became the root, added to its visits in the pool.
+    private final LongAdder[] rootRewards;
+    private final LongAdder rootPlayouts = new LongAdder();
+    // The root's children that may be searched, or null for all of them.
+    private boolean[] candidates;
+    private volatile boolean stopRequested;
+
+    /**
+     * Starts following the game, which must be played by rules the value table was solved for, searching with the
+     * given number of threads and holding at most about {@code memoryBudget} bytes of tree. Must be called on the thread
+     * that plays the game.
+     */
+    public WinProbabilityEngine(YahtzeeGame game, ValueTable table, int threads, long memoryBudget) {
+        if (game.getScoringTable() != table.getScoringTable()) {
+            throw new IllegalArgumentException("The value table is for " + table.getScoringTable().getRules()
+                    + ", not " + game.getRules());
+        }
+        long capacity = memoryBudget / NODE_BYTES;
+        if (capacity < 2 * ScoringTable.MULTISET_COUNT) {
+            throw new IllegalArgumentException("A memory budget of " + memoryBudget + " bytes is too small");
+        }
+        this.game = game;
+        this.table = table;
+        scoring = table.getScoringTable();
+        playerCount = game.getPlayers().size();
+        pool = new NodePool((int) Math.min(capacity, Integer.MAX_VALUE - 8));
+        spare = new NodePool(pool.capacity);
+        rootPosition = new Position(playerCount);
+        rootEvaluator = new TurnEvaluator(table);
+        rootRewards = new LongAdder[playerCount];
+        for (int player = 0; player < playerCount; player++) {
+            rootRewards[player] = new LongAdder();
+        }
+
+        cumulative = new double[keeps.outcomeProbability.length];
+        for (int k = 0; k < KeepTable.KEEP_COUNT; k++) {
+            double sum = 0;
+            for (int i = keeps.outcomeStart[k]; i < keeps.outcomeStart[k + 1]; i++) {
+                sum += keeps.outcomeProbability[i];
+                cumulative[i] = sum;
+            }
+        }
+
+        // Every turn can take a hold, roll, hold, roll, box and opening roll.
+        int maxDepth = 6 * scoring.getBoxCount() * playerCount + 1;
+        workers = new Worker[threads];
+        var seeds = new SplittableRandom();
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Worker(maxDepth, seeds.split());
+        }
+
+        synchronized (this) {
+            reset(game.getView());
+        }
+        game.addGameStateListener(this, GameEvent.Type.DICE_ROLLED, GameEvent.Type.MOVE_MADE);
+    }
+
+    /**
+     * Prints the playouts per second of a search of a new game's opening position, and the speedup over one thread,
+     * for thread counts up to the number of cores.
+     */
+    public static void main(String[] args) throws IOException {
+        int players = args.length > 0 ? Integer.parseInt(args[0]) : 2;
+        long millis = args.length > 1 ? Long.parseLong(args[1]) : 5_000;
+        RuleSet rules = args.length > 2 ? RuleSet.named(args[2]) : RuleSet.YAHTZEE;
+        ValueTable table = SolitaireSolver.loadOrSolve(rules, SolitaireSolver.defaultPath(rules));
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        double baseline = 0;
+        for (int parallelism = 1; ; parallelism = Math.min(parallelism * 2, cores)) {
+            List<YahtzeePlayer> bots = new ArrayList<>();
+            for (int i = 0; i < players; i++) {
+                bots.add(new YahtzeePlayer("Bot " + (i + 1), GreedyStrategy.INSTANCE));
+            }
+            var engine = new WinProbabilityEngine(YahtzeeGame.of(rules, bots), table, parallelism,
+                    DEFAULT_MEMORY_BUDGET);
+            // Warm up the JIT so that the single-threaded baseline is not penalized.
+            engine.winProbabilities(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.min(millis, 1_000)));
+
+            long before = engine.getPlayouts();
+            long start = System.nanoTime();
+            double[] chances = engine.winProbabilities(start + TimeUnit.MILLISECONDS.toNanos(millis));
+            double playoutsPerSecond = (engine.getPlayouts() - before) / ((System.nanoTime() - start) / 1e9);
+            if (parallelism == 1) {
+                baseline = playoutsPerSecond;
+            }
+            System.out.printf("threads=%d playouts/sec=%.0f speedup=%.2fx nodes=%d chances=%s%n", parallelism,
+                    playoutsPerSecond, playoutsPerSecond / baseline, engine.getNodeCount(), Arrays.toString(chances));
+            if (parallelism == cores) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Searches until the deadline, a {@link System#nanoTime} value, and returns each player's estimated chance of
+     * winning from where the game is now. Ties count as a share of a win. Can be called from any thread, and stops
+     * early if the game moves on.
+     */
+    public synchronized double[] winProbabilities(long deadline) {
+        search(deadline);
+        double[] chances = new double[playerCount];
+        if (rootPosition.turnsLeft == 0) {
+            long[] rewards = new long[playerCount];
+            rootPosition.rewards(rewards);
+            for (int player = 0; player < playerCount; player++) {
+                chances[player] = rewards[player] / (double) WIN;
+            }
+            return chances;
+        }
+
+        long count = rootPlayouts.sum();
+        for (int player = 0; player < playerCount; player++) {
+            chances[player] = count == 0 ? 1.0 / playerCount : rootRewards[player].sum() / ((double) WIN * count);
+        }
+        return chances;
+    }
+
+    @Override
+    public synchronized int chooseHolds(GameView game, long deadline) {
+        follow(game);
+        if (kind(rootPosition) != HOLD) {
+            throw new IllegalStateException("There are no rolls remaining");
+        }
+        limitCandidates();
+        search(deadline);
+        int child = mostVisitedChild();
+        if (child < 0) {
+            return GreedyStrategy.INSTANCE.chooseHolds(game, deadline);
+        }
+
+        int keep = pool.move[child];
+        if (keep == keeps.fullKeep(rootPosition.multiset)) {
+            return -1;
+        }
+        int[] remaining = new int[ScoringTable.FACE_COUNT + 1];
+        for (int face = 1; face <= ScoringTable.FACE_COUNT; face++) {
+            remaining[face] = keeps.count(keep, face);
+        }
+        int holds = 0;
+        for (int i = 0; i < scoring.getDiceCount(); i++) {
+            if (remaining[game.getDie(i)]-- > 0) {
+                holds |= 1 << i;
+            }
+        }
+        return holds;
+    }
+
+    @Override
+    public synchronized int chooseBox(GameView game, long deadline) {
+        follow(game);
+        if (kind(rootPosition) == HOLD && !descend(keeps.fullKeep(rootPosition.multiset))) {
+            // Stopping with rolls left, without a tree to stop in.
+            rootPosition.rolls = 0;
+            clearTree();
+        }
+        limitCandidates();
+        search(deadline);
+        int child = mostVisitedChild();
+        return child < 0 ? GreedyStrategy.INSTANCE.chooseBox(game, deadline) : pool.move[child];
+    }
+
+    /**
+     * Moves the root down the tree to follow the game.
+     */
+    @Override
+    public void gameStateChanged(GameEvent event) {
+        stopRequested = true;
+        synchronized (this) {
+            stopRequested = false;
+            GameView view = game.getView();
+            boolean followed;
+            if (event.is(GameEvent.Type.MOVE_MADE)) {
+                int player = rootPosition.turn;
+                int box = Integer.numberOfTrailingZeros(view.getPlayedBoxes(player) & ~(rootPosition.states[player] >>> 7));
+                followed = (kind(rootPosition) != HOLD || descend(keeps.fullKeep(rootPosition.multiset)))
+                        && descend(box) && (view.isGameOver() || descend(view.getMultiset()));
+            } else {
+                int held = 0;
+                for (int die = 0; die < scoring.getDiceCount(); die++) {
+                    held |= view.isHeld(die) ? 1 << die : 0;
+                }
+                followed = descend(keeps.keepOf(view, held)) && descend(view.getMultiset());
+            }
+            if (!followed || !rootPosition.matches(view)) {
+                reset(view);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of playouts run since the engine was created.
+     */
+    public long getPlayouts() {
+        return playouts.sum();
+    }
+
+    /**
+     * Returns the number of nodes in the pool, including any no longer reachable from the root.
+     */
+    public synchronized int getNodeCount() {
+        return pool.size.get();
+    }
+
+    /**
+     * Returns the number of nodes the tree can grow to.
+     */
+    public int getCapacity() {
+        return pool.capacity;
+    }
+
+    /**
+     * Returns the number of playouts that went through the current root, including those of earlier decisions that
+     * the root was reached by.
+     */
+    public synchronized long getRootVisits() {
+        return pool.visits.get(root) + rootPlayouts.sum();
+    }
+
+    /**
+     * Returns the move, visits and rewards of each of the root's children, for tests.
+     */
+    synchronized long[][] getRootChildren() {
+        int first = pool.firstChild.get(root);
+        long[][] children = new long[first > 0 ? pool.childCount[root] : 0][];
+        for (int i = 0; i < children.length; i++) {
+            children[i] = new long[] {pool.move[first + i], pool.visits.get(first + i), pool.rewards.get(first + i)};
+        }
+        return children;
+    }
+
+    // Resets the root to the game, if the engine has not been following it.
+    private void follow(GameView game) {
+        if (!rootPosition.matches(game)) {
+            reset(game);
+        }
+    }
+
+    private void reset(GameView game) {
+        rootPosition.set(game, scoring);
+        clearTree();
+    }
+
+    private void clearTree() {
+        pool.size.set(0);
+        root = pool.allocate(1);
+        pool.init(root, 0);
+        resetRootStatistics();
+    }
+
+    private void resetRootStatistics() {
+        candidates = null;
+        for (LongAdder rewards : rootRewards) {
+            rewards.reset();
+        }
+        rootPlayouts.reset();
+    }
+
+    // Moves the root to the child with the given move, expanding the root if it has not been.
+    private boolean descend(int move) {
+        int kind = kind(rootPosition);
+        if (kind == TERMINAL || expand(pool, root, rootPosition, kind) <= 0) {
+            return false;
+        }
+        int first = pool.firstChild.get(root);
+        for (int child = first; child < first + pool.childCount[root]; child++) {
+            if (pool.move[child] == move) {
+                apply(rootPosition, kind, move, rootEvaluator);
+                root = child;
+                resetRootStatistics();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int mostVisitedChild() {
+        int first = pool.firstChild.get(root);
+        int best = -1;
+        for (int child = first; first > 0 && child < first + pool.childCount[root]; child++) {
+            if ((candidates == null || candidates[child - first]) && (best < 0
+                    || pool.visits.get(child) > pool.visits.get(best))) {
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Limits the root's moves to those whose expected score is close to the best. Playouts are played much worse than
+     * by the value table, so they misjudge moves that only pay off with careful play, such as keeping a straight draw;
+     * the search is left to pick the move that wins most among those that are sound.
+     */
+    private void limitCandidates() {
+        int kind = kind(rootPosition);
+        if (expand(pool, root, rootPosition, kind) <= 0) {
+            return;
+        }
+        int state = rootPosition.states[rootPosition.turn];
+        int played = state >>> 7;
+        int upper = (state >>> 1) & 63;
+        boolean bonus = (state & 1) != 0;
+        rootEvaluator.evaluate(played, upper, bonus);
+
+        int first = pool.firstChild.get(root);
+        double[] values = new double[pool.childCount[root]];
+        double best = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < values.length; i++) {
+            int move = pool.move[first + i];
+            if (kind == BOX) {
+                values[i] = rootEvaluator.boxValue(played, upper, bonus, rootPosition.multiset, move);
+            } else if (move == keeps.fullKeep(rootPosition.multiset)) {
+                values[i] = rootEvaluator.rollValues[0][rootPosition.multiset];
+            } else {
+                values[i] = rootEvaluator.keepValues[rootPosition.rolls][move];
+            }
+            best = Math.max(best, values[i]);
+        }
+        candidates = new boolean[values.length];
+        for (int i = 0; i < values.length; i++) {
+            candidates[i] = values[i] >= best - EXPECTED_SCORE_MARGIN;
+        }
+    }
+
+    private void search(long deadline) {
+        if (rootPosition.turnsLeft == 0) {
+            return;
+        }
+        if (pool.size.get() > pool.capacity / 2) {
+            compact();
+        }
+
+        // The calling thread searches too, so the search goes on even while other engines have the pool's threads.
+        List<Future<?>> running = new ArrayList<>();
+        for (int i = 1; i < workers.length; i++) {
+            Worker worker = workers[i];
+            running.add(WORKERS.submit(() -> searchUntil(worker, deadline)));
+        }
+        try {
+            searchUntil(workers[0], deadline);
+            for (Future<?> future : running) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Search failed", e.getCause());
+        } catch (InterruptedException e) {
+            stopRequested = true;
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void searchUntil(Worker worker, long deadline) {
+        while (!stopRequested && System.nanoTime() < deadline) {
+            iterate(worker);
+        }
+    }
+
+    private void iterate(Worker worker) {
+        NodePool pool = this.pool;
+        Position position = worker.position;
+        position.copy(rootPosition);
+        int node = root;
+        int depth = 0;
+
+        while (true) {
+            int kind = kind(position);
+            if (kind == TERMINAL) {
+                break;
+            }
+            int first = expand(pool, node, position, kind);
+            if (first <= 0) {
+                break;
+            }
+
+            int child = kind == CHANCE ? first + sample(position.keep, worker.random)
+                    : node == root ? select(pool, getRootVisits(pool), first, pool.childCount[node], candidates)
+                    : select(pool, pool.visits.get(node), first, pool.childCount[node], null);
+            worker.movers[++depth] = kind == CHANCE ? -1 : position.turn;
+            worker.path[depth] = child;
+            apply(position, kind, pool.move[child], worker.evaluator);
+            node = child;
+            if (pool.visits.getAndIncrement(child) == 0) {
+                break;
+            }
+        }
+
+        playOut(position, worker);
+        long[] rewards = worker.rewards;
+        position.rewards(rewards);
+        for (int d = 1; d <= depth; d++) {
+            if (worker.movers[d] >= 0) {
+                pool.rewards.addAndGet(worker.path[d], rewards[worker.movers[d]]);
+            }
+        }
+        for (int player = 0; player < playerCount; player++) {
+            rootRewards[player].add(rewards[player]);
+        }
+        rootPlayouts.increment();
+        playouts.increment();
+    }
+
+    // Returns the node's first child, expanding it if this thread is the first to get there, or a non-positive value
+    // if it is being expanded by another thread or the pool is full.
+    private int expand(NodePool pool, int node, Position position, int kind) {
+        int first = pool.firstChild.get(node);
+        if (first != 0 || !pool.firstChild.compareAndSet(node, 0, EXPANDING)) {
+            return first;
+        }
+
+        int start;
+        int count;
+        int played = position.states[position.turn] >>> 7;
+        if (kind == HOLD) {
+            start = keeps.subKeepStart[position.multiset];
+            count = keeps.subKeepStart[position.multiset + 1] - start;
+        } else if (kind == CHANCE) {
+            start = keeps.outcomeStart[position.keep];
+            count = keeps.outcomeStart[position.keep + 1] - start;
+        } else {
+            start = 0;
+            count = scoring.getBoxCount() - Integer.bitCount(played);
+        }
+
+        first = pool.allocate(count);
+        if (first < 0) {
+            pool.firstChild.set(node, 0);
+            return -1;
+        }
+        for (int i = 0, box = 0; i < count; i++) {
+            int move;
+            if (kind == HOLD) {
+                move = keeps.subKeeps[start + i];
+            } else if (kind == CHANCE) {
+                move = keeps.outcomeMultiset[start + i];
+            } else {
+                while ((played & (1 << box)) != 0) {
+                    box++;
+                }
+                move = box++;
+            }
+            pool.init(first + i, move);
+        }
+        pool.childCount[node] = count;
+        pool.firstChild.set(node, first);
+        return first;
+    }
+
+    private long getRootVisits(NodePool pool) {
+        return pool.visits.get(root) + rootPlayouts.sum();
+    }
+
+    // UCT among the candidates, counting visits still playing out as losses.
+    private static int select(NodePool pool, long parentVisits, int first, int count, boolean[] candidates) {
+        double logVisits = Math.log(Math.max(parentVisits, 1));
+        int best = -1;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int child = first; child < first + count; child++) {
+            if (candidates != null && !candidates[child - first]) {
+                continue;
+            }
+            int visits = pool.visits.get(child);
+            if (visits == 0) {
+                return child;
+            }
+            double value = pool.rewards.get(child) / ((double) WIN * visits)
+                    + EXPLORATION * Math.sqrt(logVisits / visits);
+            if (value > bestValue) {
+                bestValue = value;
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    // Returns the index among the keep's outcomes of a random roll.
+    private int sample(int keep, SplittableRandom random) {
+        int from = keeps.outcomeStart[keep];
+        int to = keeps.outcomeStart[keep + 1] - 1;
+        double target = random.nextDouble();
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (cumulative[mid] > target) {
+                to = mid;
+            } else {
+                from = mid + 1;
+            }
+        }
+        return from - keeps.outcomeStart[keep];
+    }
+
+    private int kind(Position position) {
+        if (position.turnsLeft == 0) {
+            return TERMINAL;
+        } else if (position.keep >= 0) {
+            return CHANCE;
+        }
+        return position.rolls == 0 ? BOX : HOLD;
+    }
+
+    private void apply(Position position, int kind, int move, TurnEvaluator evaluator) {
+        if (kind == HOLD) {
+            if (move == keeps.fullKeep(position.multiset)) {
+                position.rolls = 0;
+            } else {
+                position.keep = move;
+            }
+        } else if (kind == CHANCE) {
+            position.multiset = move;
+            position.keep = -1;
+            position.rolls--;
+        } else {
+            position.play(move, evaluator, keeps);
+        }
+    }
+
+    // Finishes the game: keeps the most common face, and plays the box that is best by the value table.
+    private void playOut(Position position, Worker worker) {
+        SplittableRandom random = worker.random;
+        if (position.keep >= 0) {
+            int histogram = 0;
+            int held = 0;
+            for (int face = 1; face <= ScoringTable.FACE_COUNT; face++) {
+                histogram += keeps.count(position.keep, face) << (3 * (face - 1));
+                held += keeps.count(position.keep, face);
+            }
+            position.multiset = roll(histogram, scoring.getDiceCount() - held, random);
+            position.keep = -1;
+            position.rolls--;
+        }
+
+        while (position.turnsLeft > 0) {
+            for (; position.rolls > 0; position.rolls--) {
+                int keep = 1;
+                for (int face = 2; face <= ScoringTable.FACE_COUNT; face++) {
+                    if (scoring.count(position.multiset, face) >= scoring.count(position.multiset, keep)) {
+                        keep = face;
+                    }
+                }
+                int count = scoring.count(position.multiset, keep);
+                if (count == scoring.getDiceCount()) {
+                    break;
+                }
+                position.multiset = roll(count << (3 * (keep - 1)), scoring.getDiceCount() - count, random);
+            }
+
+            int state = position.states[position.turn];
+            int played = state >>> 7;
+            int best = -1;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (int box = 0; box < scoring.getBoxCount(); box++) {
+                if ((played & (1 << box)) == 0) {
+                    long outcome = worker.evaluator.play(played, (state >>> 1) & 63, (state & 1) != 0,
+                            position.multiset, box);
+                    double value = TurnEvaluator.gain(outcome) + table.get(TurnEvaluator.nextState(outcome));
+                    if (value > bestValue) {
+                        bestValue = value;
+                        best = box;
+                    }
+                }
+            }
+            position.play(best, worker.evaluator, keeps);
+            if (position.turnsLeft > 0) {
+                position.multiset = roll(0, scoring.getDiceCount(), random);
+                position.keep = -1;
+                position.rolls--;
+            }
+        }
+    }
+
+    private int roll(int histogram, int dice, SplittableRandom random) {
+        for (int i = 0; i < dice; i++) {
+            histogram += 1 << (3 * random.nextInt(ScoringTable.FACE_COUNT));
+        }
+        return scoring.multisetOfHistogram(histogram);
+    }
+
+    // Copies the part of the tree under the root to the spare pool, and swaps the pools.
+    synchronized void compact() {
+        spare.size.set(0);
+        int newRoot = spare.allocate(1);
+        spare.copy(newRoot, pool, root);
+        // Each copied node's first child holds the index of its original until its own children are copied.
+        spare.firstChild.set(newRoot, root);
+        for (int node = newRoot; node < spare.size.get(); node++) {
+            int original = spare.firstChild.get(node);
+            int first = pool.firstChild.get(original);
+            int count = pool.childCount[original];
+            int copies = first > 0 ? spare.allocate(count) : -1;
+            for (int i = 0; i < count && copies >= 0; i++) {
+                spare.copy(copies + i, pool, first + i);
+                spare.firstChild.set(copies + i, first + i);
+            }
+            spare.firstChild.set(node, Math.max(copies, 0));
+            spare.childCount[node] = copies >= 0 ? count : 0;
+        }
+
+        NodePool old = pool;
+        pool = spare;
+        spare = old;
+        root = newRoot;
+    }
+
+    private static final class NodePool {
+        final int capacity;
+        // 0 until expanded (the root is never a child), EXPANDING while a thread expands it.
+        final AtomicIntegerArray firstChild;
+        final int[] childCount;
+        // The keep, multiset or box that leads from the parent to the node.
+        final int[] move;
+        final AtomicIntegerArray visits;
+        // The wins of the player who made the move, in units of WIN.
+        final AtomicLongArray rewards;
+        final AtomicInteger size = new AtomicInteger();
+
+        NodePool(int capacity) {
+            this.capacity = capacity;
+            firstChild = new AtomicIntegerArray(capacity);
+            childCount = new int[capacity];
+            move = new int[capacity];
+            visits = new AtomicIntegerArray(capacity);
+            rewards = new AtomicLongArray(capacity);
+        }
+
+        // Returns the first of count new nodes, or -1 if there is no room.
+        int allocate(int count) {
+            while (true) {
+                int start = size.get();
+                if (start + count > capacity) {
+                    return -1;
+                }
+                if (size.compareAndSet(start, start + count)) {
+                    return start;
+                }
+            }
+        }
+
+        void init(int node, int nodeMove) {
+            firstChild.set(node, 0);
+            childCount[node] = 0;
+            move[node] = nodeMove;
+            visits.set(node, 0);
+            rewards.set(node, 0);
+        }
+
+        void copy(int node, NodePool from, int original) {
+            move[node] = from.move[original];
+            visits.set(node, from.visits.get(original));
+            rewards.set(node, from.rewards.get(original));
+        }
+    }
+
+    // The state of a game as far as the search is concerned: every player's value table state and score, and the
+    // current player's dice.
+    private static final class Position {
+        final int[] states;
+        final int[] scores;
+        int turn;
+        int turnsLeft;
+        int multiset;
+        // Rolls remaining, counting a roll about to be made.
+        int rolls;
+        // The keep about to be rolled, or -1.
+        int keep = -1;
+
+        Position(int players) {
+            states = new int[players];
+            scores = new int[players];
+        }
+
+        void set(GameView game, ScoringTable scoring) {
+            turnsLeft = 0;
+            for (int player = 0; player < states.length; player++) {
+                states[player] = ValueTable.stateOf(game, player);
+                scores[player] = game.getPlayerScore(player);
+                turnsLeft += scoring.getBoxCount() - Integer.bitCount(game.getPlayedBoxes(player));
+            }
+            turn = game.getWhoseTurn();
+            multiset = game.getMultiset();
+            rolls = game.getRollsRemaining();
+            keep = -1;
+        }
+
+        void copy(Position from) {
+            System.arraycopy(from.states, 0, states, 0, states.length);
+            System.arraycopy(from.scores, 0, scores, 0, scores.length);
+            turn = from.turn;
+            turnsLeft = from.turnsLeft;
+            multiset = from.multiset;
+            rolls = from.rolls;
+            keep = from.keep;
+        }
+
+        // A position that has stopped rolling matches a game that has not rolled again.
+        boolean matches(GameView game) {
+            if (keep >= 0 || turn != game.getWhoseTurn() && turnsLeft > 0) {
+                return false;
+            }
+            for (int player = 0; player < states.length; player++) {
+                if (states[player] != ValueTable.stateOf(game, player) || scores[player] != game.getPlayerScore(player)) {
+                    return false;
+                }
+            }
+            return turnsLeft == 0 || multiset == game.getMultiset()
+                    && (rolls == game.getRollsRemaining() || rolls == 0);
+        }
+
+        void play(int box, TurnEvaluator evaluator, KeepTable keeps) {
+            int state = states[turn];
+            long outcome = evaluator.play(state >>> 7, (state >>> 1) & 63, (state & 1) != 0, multiset, box);
+            states[turn] = TurnEvaluator.nextState(outcome);
+            scores[turn] += TurnEvaluator.gain(outcome);
+            turn = (turn + 1) % states.length;
+            if (--turnsLeft > 0) {
+                keep = keeps.emptyKeep();
+                rolls = TurnEvaluator.MAX_ROLLS + 1;
+            }
+        }
+
+        // Shares out a win between the players with the highest score.
+        void rewards(long[] rewards) {
+            int best = Integer.MIN_VALUE;
+            int winners = 0;
+            for (int score : scores) {
+                if (score > best) {
+                    best = score;
+                    winners = 1;
+                } else if (score == best) {
+                    winners++;
+                }
+            }
+            for (int player = 0; player < scores.length; player++) {
+                rewards[player] = scores[player] == best ? WIN / winners : 0;
+            }
+        }
+    }
+
+    private final class Worker {
+        final Position position = new Position(playerCount);
+        final TurnEvaluator evaluator = new TurnEvaluator(table);
+        final SplittableRandom random;
+        final int[] path;
+        final int[] movers;
+        final long[] rewards = new long[playerCount];
+
+        Worker(int maxDepth, SplittableRandom random) {
+            this.random = random;
+            path = new int[maxDepth + 1];
+            movers = new int[maxDepth + 1];
+        }
+    }
+}
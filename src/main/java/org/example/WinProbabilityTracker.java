@@ -0,0 +1,111 @@
+package org.example;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Keeps a live estimate of each player's chance of winning a game, from a {@link WinProbabilityEngine} that follows it.
+ *
+ * <p>Every roll and move starts a new round, which searches for a short while on a single shared thread and hands the
+ * estimate to the listener through the delivery executor, unless a later round has started by then. The engine keeps
+ * its tree from one round to the next, so the estimates firm up as the game goes on. The value table is loaded, or
+ * solved, on the same thread the first time it is needed, and the engine is then created on the delivery thread, which
+ * must be the thread the game is played on.
+ */
+public class WinProbabilityTracker implements YahtzeeGame.GameStateListener {
+    private static final long SEARCH_NANOS = TimeUnit.MILLISECONDS.toNanos(300);
+    private static final ExecutorService SEARCHES = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "win-chances");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Only used on the search thread.
+    private static final Map<RuleSet, ValueTable> TABLES = new HashMap<>();
+
+    private final YahtzeeGame game;
+    private final Executor delivery;
+    private final Consumer<double[]> listener;
+    private final AtomicLong round = new AtomicLong();
+    // Set on the delivery thread once the value table is loaded.
+    private volatile WinProbabilityEngine engine;
+
+    /**
+     * Starts estimating the chances of the game, whose rules {@link SolitaireSolver#supports} must support. Must be
+     * called on the thread that plays the game.
+     */
+    public WinProbabilityTracker(YahtzeeGame game, Executor delivery, Consumer<double[]> listener) {
+        this(game, () -> defaultTable(game.getRules()), delivery, listener);
+    }
+
+    /**
+     * Starts estimating with the value table the callable returns, which is called on the search thread.
+     */
+    WinProbabilityTracker(YahtzeeGame game, Callable<ValueTable> table, Executor delivery,
+            Consumer<double[]> listener) {
+        if (!SolitaireSolver.supports(game.getRules())) {
+            throw new IllegalArgumentException("There are no win chances for " + game.getRules());
+        }
+        this.game = game;
+        this.delivery = delivery;
+        this.listener = listener;
+        SEARCHES.execute(() -> {
+            ValueTable loaded;
+            try {
+                loaded = table.call();
+            } catch (Exception e) {
+                System.err.println("No win chances, the value table could not be loaded: " + e);
+                return;
+            }
+            delivery.execute(() -> start(loaded));
+        });
+    }
+
+    // Called on the game's thread. The engine listens first, so it has followed each change before it is searched.
+    private void start(ValueTable table) {
+        engine = new WinProbabilityEngine(game, table, Runtime.getRuntime().availableProcessors(),
+                WinProbabilityEngine.DEFAULT_MEMORY_BUDGET);
+        game.addGameStateListener(this, GameEvent.Type.DICE_ROLLED, GameEvent.Type.MOVE_MADE);
+        restart();
+    }
+
+    @Override
+    public void gameStateChanged(GameEvent event) {
+        restart();
+    }
+
+    private void restart() {
+        long current = round.incrementAndGet();
+        SEARCHES.execute(() -> {
+            if (isStale(current)) {
+                return;
+            }
+            double[] chances = engine.winProbabilities(System.nanoTime() + SEARCH_NANOS);
+            delivery.execute(() -> {
+                if (!isStale(current)) {
+                    listener.accept(chances);
+                }
+            });
+        });
+    }
+
+    private boolean isStale(long current) {
+        return round.get() != current;
+    }
+
+    private static ValueTable defaultTable(RuleSet rules) throws IOException {
+        ValueTable table = TABLES.get(rules);
+        if (table == null) {
+            table = SolitaireSolver.loadOrSolve(rules, SolitaireSolver.defaultPath(rules));
+            TABLES.put(rules, table);
+        }
+        return table;
+    }
+}
@@ -2,20 +2,46 @@ package org.example;
 
 import java.util.Arrays;
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
 
 public class YahtzeeDice {
-    private final Random random;
+    private final ScoringTable table;
+    private final DiceRoller roller;
     private final int[] dice;
     private final boolean[] held;
+    private int multiset;
 
     /**
      * Returns new, rolled Yahtzee dice, none being held.
      */
     public YahtzeeDice() {
-        random = new Random();
-        dice = new int[5];
-        held = new boolean[5];
+        this(DiceRoller.of(new SplittableRandom()));
+    }
+
+    /**
+     * Returns new Yahtzee dice rolled with the given random source, none being held.
+     */
+    public YahtzeeDice(RandomGenerator random) {
+        this(DiceRoller.of(random));
+    }
+
+    /**
+     * Returns new Yahtzee dice rolled with the given roller, none being held. Dice with a {@link DiceRoller#seeded}
+     * roller always roll the same way, so a game played with them can be reproduced exactly.
+     */
+    public YahtzeeDice(DiceRoller roller) {
+        this(ScoringTable.get(), roller);
+    }
+
+    /**
+     * Returns new dice for the rules compiled into the given table, rolled with the given roller, none being held.
+     */
+    public YahtzeeDice(ScoringTable table, DiceRoller roller) {
+        this.table = table;
+        this.roller = roller;
+        dice = new int[table.getDiceCount()];
+        held = new boolean[dice.length];
         roll();
     }
 
@@ -23,9 +49,19 @@ public class YahtzeeDice {
      * Returns new Yahtzee dice with the given values, for testing.
      */
     public YahtzeeDice(int d1, int d2, int d3, int d4, int d5) {
-        random = new Random();
+        table = ScoringTable.get();
+        roller = DiceRoller.of(new SplittableRandom());
         dice = new int[] { d1, d2, d3, d4, d5 };
         held = new boolean[5];
+        updateMultiset();
+    }
+
+    public ScoringTable getScoringTable() {
+        return table;
+    }
+
+    public int getDiceCount() {
+        return dice.length;
     }
 
     public int getDie(int index) {
@@ -43,9 +79,10 @@ public class YahtzeeDice {
     public void roll() {
         for (int i = 0; i < dice.length; i++) {
             if (!held[i]) {
-                dice[i] = random.nextInt(1, 7);
+                dice[i] = roller.nextFace();
             }
         }
+        updateMultiset();
     }
 
     public void clearHeld() {
@@ -56,14 +93,43 @@ public class YahtzeeDice {
         return Arrays.stream(dice).boxed().toList();
     }
 
+    /**
+     * Sets the dice to the given faces, in order. Throws {@link IllegalArgumentException}, leaving the dice as they
+     * were, if a face is not 1-6.
+     */
     public void setDice(List<Integer> newDice) {
+        for (int d : newDice) {
+            checkFace(d);
+        }
         int i = 0;
         for (int d : newDice) {
             if (i >= dice.length) {
-                return;
+                break;
             }
 
             dice[i++] = d;
         }
+        updateMultiset();
+    }
+
+    /**
+     * Returns the multiset index of the current dice in the {@link ScoringTable} of their rules.
+     */
+    public int getMultiset() {
+        return multiset;
+    }
+
+    // Faces out of range would index some other roll, or none, so every way of changing the dice comes through here.
+    private void updateMultiset() {
+        for (int d : dice) {
+            checkFace(d);
+        }
+        multiset = table.multisetOf(ScoringTable.rollIndex(dice));
+    }
+
+    private static void checkFace(int face) {
+        if (face < 1 || face > ScoringTable.FACE_COUNT) {
+            throw new IllegalArgumentException("A die cannot show " + face);
+        }
     }
 }
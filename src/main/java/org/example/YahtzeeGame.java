@@ -1,81 +1,64 @@
 package org.example;
 
-import com.google.common.collect.*;
-
+import java.time.Duration;
 import java.util.*;
-import java.util.stream.Collectors;
-
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The state of one game, scored by the compiled tables of its {@link RuleSet}.
+ *
+ * <p>A game is not thread-safe: it must only be used by one thread at a time, such as the Swing event dispatch thread.
+ * To drive a game from several threads, wrap it in a {@link GameActor}. Listeners may be added from any thread.
+ */
 public class YahtzeeGame {
     private final List<YahtzeePlayer> players;
     private final YahtzeeDice dice;
     private int whoseTurn;
     private int rollsRemaining = 2;
+    private final List<Combination> combinations;
     private final List<Combination> upperCombinations;
     private final List<Combination> lowerCombinations;
     private final List<Map<Combination, Integer>> movesMade;
-    private final List<GameStateListener> listeners = new ArrayList<>();
+    private final List<Subscription> listeners = new CopyOnWriteArrayList<>();
     private final int[] upperSectionScore;
     private final int[] lowerSectionScore;
     private final int[] bonusYahtzeeCount;
     private final Combination yahtzeeCombo;
+    private final RuleSet rules;
+    private final ScoringTable scoringTable;
+    private final GameView view = new View();
+    private final GameMetrics metrics = GameMetrics.get();
+    private GameRecorder recorder;
 
     public YahtzeeGame(List<YahtzeePlayer> players) {
+        this(players, new YahtzeeDice());
+    }
+
+    /**
+     * Creates a game played with the given dice, e.g. dice with a seeded random source for simulations. The game
+     * follows the dice's rules.
+     */
+    public YahtzeeGame(List<YahtzeePlayer> players, YahtzeeDice dice) {
         if (players.isEmpty()) {
             throw new IllegalArgumentException("Yahtzee games must have at least one player");
         }
-        this.dice = new YahtzeeDice();
-
-        upperCombinations = new ArrayList<>();
-        upperCombinations.add(new Combination("Aces", () -> dice.getDice().stream().mapToInt(v -> v == 1 ? 1 : 0).sum()));
-        upperCombinations.add(new Combination("Twos", () -> dice.getDice().stream().mapToInt(v -> v == 2 ? 2 : 0).sum()));
-        upperCombinations.add(new Combination("Threes", () -> dice.getDice().stream().mapToInt(v -> v == 3 ? 3 : 0).sum()));
-        upperCombinations.add(new Combination("Fours", () -> dice.getDice().stream().mapToInt(v -> v == 4 ? 4 : 0).sum()));
-        upperCombinations.add(new Combination("Fives", () -> dice.getDice().stream().mapToInt(v -> v == 5 ? 5 : 0).sum()));
-        upperCombinations.add(new Combination("Sixes", () -> dice.getDice().stream().mapToInt(v -> v == 6 ? 6 : 0).sum()));
-
-        lowerCombinations = new ArrayList<>();
-        lowerCombinations.add(new Combination("Chance", () -> dice.getDice().stream().reduce(0, Integer::sum)));
-
-        lowerCombinations.add(new Combination("Three of a kind", () -> {
-            var v = TreeMultiset.create(dice.getDice());
-            // If any element is repeated 3 times, the value is the sum of all the elements
-            return v.stream().anyMatch(x -> v.count(x) >= 3) ? dice.getDice().stream().reduce(0, Integer::sum) : 0;
-        }));
-
-        lowerCombinations.add(new Combination("Four of a kind", () -> {
-            var v = TreeMultiset.create(dice.getDice());
-            return v.stream().anyMatch(x -> v.count(x) >= 4) ? dice.getDice().stream().reduce(0, Integer::sum) : 0;
-        }));
-
-        yahtzeeCombo = new Combination("Yahtzee", () -> isYahtzee() ? 50 : 0);
-
-        lowerCombinations.add(new Combination("Full house", () -> {
-            if (isJoker()) {
-                return 25;
-            }
-
-            var v = TreeMultiset.create(dice.getDice());
-            return v.entrySet().stream().mapToInt(Multiset.Entry::getCount)
-                    .boxed().collect(Collectors.toSet()).equals(ImmutableSet.of(2, 3)) ? 25 : 0;
-        }));
-
-        lowerCombinations.add(new Combination("Small straight",
-                () -> {
-                    if (isJoker() || longestSequenceLength(dice.getDice().stream().sorted().toList()) >= 4) {
-                        return 30;
-                    }
-                    return 0;
-                }));
-
-        lowerCombinations.add(new Combination("Large straight",
-                () -> {
-                    if (isJoker() || longestSequenceLength(dice.getDice().stream().sorted().toList()) == 5) {
-                        return 40;
-                    }
-                    return 0;
-                }));
-
-        lowerCombinations.add(yahtzeeCombo);
+        this.dice = dice;
+        this.scoringTable = dice.getScoringTable();
+        this.rules = scoringTable.getRules();
+
+        // Every box scores by table lookup, whatever the rules; the Joker is applied in score().
+        combinations = new ArrayList<>();
+        for (int box = 0; box < rules.getBoxCount(); box++) {
+            int b = box;
+            combinations.add(new Combination(rules.boxes().get(box).name(), () -> score(b)));
+        }
+        int upperCount = 0;
+        while (upperCount < combinations.size() && scoringTable.isUpper(upperCount)) {
+            upperCount++;
+        }
+        upperCombinations = combinations.subList(0, upperCount);
+        lowerCombinations = combinations.subList(upperCount, combinations.size());
+        yahtzeeCombo = scoringTable.allSameBox() >= 0 ? combinations.get(scoringTable.allSameBox()) : null;
 
         // take a copy
         this.players = new ArrayList<>(players);
@@ -88,10 +71,43 @@ public class YahtzeeGame {
         this.upperSectionScore = new int[players.size()];
         this.lowerSectionScore = new int[players.size()];
         this.bonusYahtzeeCount = new int[players.size()];
+        metrics.gameStarted();
     }
 
+    /**
+     * Subscribes the listener to every kind of change.
+     */
     public void addGameStateListener(GameStateListener l) {
-        listeners.add(l);
+        listeners.add(new Subscription(l, GameEvent.ALL_TYPES));
+    }
+
+    /**
+     * Subscribes the listener to the given kinds of change only.
+     */
+    public void addGameStateListener(GameStateListener l, GameEvent.Type... types) {
+        listeners.add(new Subscription(l, GameEvent.maskOf(types)));
+    }
+
+    /**
+     * Sets the recorder told about every roll, hold and move from now on, or {@code null} for none.
+     */
+    public void setRecorder(GameRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * Creates a game of the given rules, played with new dice.
+     */
+    public static YahtzeeGame of(RuleSet rules, List<YahtzeePlayer> players) {
+        return new YahtzeeGame(players, new YahtzeeDice(ScoringTable.of(rules), DiceRoller.of(new SplittableRandom())));
+    }
+
+    public RuleSet getRules() {
+        return rules;
+    }
+
+    public ScoringTable getScoringTable() {
+        return scoringTable;
     }
 
     public List<YahtzeePlayer> getPlayers() {
@@ -107,7 +123,40 @@ public class YahtzeeGame {
     }
 
     /**
-     * Returns {@code true} if there is a Joker on the table. A Joker exists if:
+     * Returns the combination for the given box of the rules, e.g. {@link ScoringTable#CHANCE} in standard games.
+     */
+    public Combination getCombination(int box) {
+        return combinations.get(box);
+    }
+
+    /**
+     * Returns the box of the given combination, or -1 if it does not belong to this game.
+     */
+    public int getBox(Combination combination) {
+        for (int box = 0; box < combinations.size(); box++) {
+            if (combinations.get(box) == combination) {
+                return box;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the boxes the player has already played, with bit {@code b} set if box {@code b} has been played.
+     */
+    public int getPlayedBoxes(int player) {
+        Map<Combination, Integer> playerMoves = movesMade.get(player);
+        int played = 0;
+        for (int box = 0; box < combinations.size(); box++) {
+            if (playerMoves.containsKey(combinations.get(box))) {
+                played |= 1 << box;
+            }
+        }
+        return played;
+    }
+
+    /**
+     * Returns {@code true} if there is a Joker on the table. A Joker exists if the rules have Jokers and:
      *
      * <ul>
      *   <li>the dice make a Yahtzee
@@ -117,51 +166,128 @@ public class YahtzeeGame {
      * </ul>
      */
     public boolean isJoker() {
-        if (!isYahtzee()) {
+        if (!rules.jokers() || !isYahtzee()) {
             return false;
         }
 
-        int roll = dice.getDie(0);
-        Combination upperCombination = upperCombinations.get(roll - 1);
-        if (!movesMade.get(whoseTurn).containsKey(upperCombination)) {
+        int upperBox = scoringTable.upperBox(dice.getDie(0));
+        if (upperBox < 0 || !movesMade.get(whoseTurn).containsKey(combinations.get(upperBox))) {
             // The upper combination has not been played
             return false;
         }
 
       // Check if Yahtzee move has either not been played, or it was played and scored a 0.
-      return movesMade.get(whoseTurn).getOrDefault(yahtzeeCombo, 0) != 0;
+      return hasYahtzeeBonus(whoseTurn);
     }
 
     /**
      * Tells the game that the current player has selected the given combination.
      */
     public void makeMove(Combination combination) {
+        int box = getBox(combination);
+        if (box < 0) {
+            throw new IllegalArgumentException(combination.getName() + " is not a box of " + rules.name());
+        }
         Map<Combination, Integer> playerMoves = movesMade.get(whoseTurn);
         if (playerMoves.containsKey(combination)) {
             throw new IllegalStateException(players.get(whoseTurn) + " has already played " + combination.getName());
         }
 
+        long start = metrics.startTimer();
+        int player = whoseTurn;
         int score = combination.score();
 
         // Check for bonus Yahtzee.
-        if (isYahtzee() && playerMoves.getOrDefault(yahtzeeCombo, 0) != 0) {
-            bonusYahtzeeCount[whoseTurn]++;
+        if (isYahtzee()) {
+            if (rules.yahtzeeBonus() > 0 && hasYahtzeeBonus(whoseTurn)) {
+                bonusYahtzeeCount[whoseTurn]++;
+                metrics.bonusYahtzee();
+            }
+            if (isJoker()) {
+                metrics.jokerPlayed();
+            }
         }
 
         playerMoves.put(combination, score);
 
-        if (upperCombinations.contains(combination)) {
+        if (box < upperCombinations.size()) {
             upperSectionScore[whoseTurn] += score;
-        } else if (lowerCombinations.contains(combination)) {
+        } else {
             lowerSectionScore[whoseTurn] += score;
         }
 
         whoseTurn = (whoseTurn + 1) % players.size();
         dice.clearHeld();
         dice.roll();
+        metrics.diceRolled();
         rollsRemaining = 2;
 
-        fireGameStateChanged();
+        if (recorder != null) {
+            recorder.moveMade(this, player, box);
+        }
+
+        GameEvent event = GameEvent.of(GameEvent.Type.MOVE_MADE).with(GameEvent.Type.TURN_ADVANCED)
+                .with(GameEvent.Type.DICE_ROLLED);
+        boolean gameOver = isGameOver();
+        if (gameOver) {
+            metrics.gameFinished();
+        }
+        fireGameStateChanged(gameOver ? event.with(GameEvent.Type.GAME_OVER) : event);
+        metrics.moveMade(start);
+    }
+
+    /**
+     * Returns {@code true} if the current player is a bot and the game is not over.
+     */
+    public boolean isBotTurn() {
+        return !isGameOver() && players.get(whoseTurn).isBot();
+    }
+
+    /**
+     * Plays the current player's turn with their own strategy and decision budget.
+     */
+    public void playBotTurn() {
+        YahtzeePlayer player = players.get(whoseTurn);
+        if (!player.isBot()) {
+            throw new IllegalStateException(player + " is not a bot");
+        }
+        playTurn(player.getStrategy(), player.getDecisionBudget());
+    }
+
+    /**
+     * Plays the rest of the current player's turn with the given strategy, giving it {@code budget} for each decision.
+     */
+    public void playTurn(YahtzeeStrategy strategy, Duration budget) {
+        long budgetNanos = budget.toNanos();
+        while (rollsRemaining > 0) {
+            int holds = strategy.chooseHolds(view, System.nanoTime() + budgetNanos);
+            if (holds < 0) {
+                break;
+            }
+            for (int i = 0; i < dice.getDiceCount(); i++) {
+                boolean held = (holds & (1 << i)) != 0;
+                if (dice.isHeld(i) != held) {
+                    setDieHeld(i, held);
+                }
+            }
+            rollDice();
+        }
+        makeMove(getCombination(strategy.chooseBox(view, System.nanoTime() + budgetNanos)));
+    }
+
+    /**
+     * Returns a read-only view of this game. The view is live: it always shows the current state.
+     */
+    public GameView getView() {
+        return view;
+    }
+
+    /**
+     * Returns a read-only copy of the game as it is now. Unlike {@link #getView}, the copy never changes, so it can be
+     * handed to another thread to decide from while this game goes on.
+     */
+    public GameView copyView() {
+        return new ViewCopy(view);
     }
 
     /**
@@ -169,7 +295,10 @@ public class YahtzeeGame {
      */
     public void setDieHeld(int die, boolean held) {
         dice.setHeld(die, held);
-        fireGameStateChanged();
+        if (recorder != null) {
+            recorder.dieHeld(this, die, held);
+        }
+        fireGameStateChanged(GameEvent.dieHeld(die));
     }
 
     /**
@@ -181,8 +310,50 @@ public class YahtzeeGame {
         }
 
         dice.roll();
+        metrics.diceRolled();
         rollsRemaining--;
-        fireGameStateChanged();
+        if (recorder != null) {
+            recorder.diceRolled(this);
+        }
+        fireGameStateChanged(GameEvent.of(GameEvent.Type.DICE_ROLLED));
+    }
+
+    /**
+     * Overwrites the player's scorecard, e.g. to restore a saved {@link PackedGameState}. Boxes with a negative score
+     * are left unplayed.
+     */
+    void restoreScorecard(int player, int[] boxScores, int bonusYahtzees) {
+        Map<Combination, Integer> playerMoves = movesMade.get(player);
+        playerMoves.clear();
+        upperSectionScore[player] = 0;
+        lowerSectionScore[player] = 0;
+        for (int box = 0; box < boxScores.length; box++) {
+            if (boxScores[box] >= 0) {
+                playerMoves.put(getCombination(box), boxScores[box]);
+                if (box < upperCombinations.size()) {
+                    upperSectionScore[player] += boxScores[box];
+                } else {
+                    lowerSectionScore[player] += boxScores[box];
+                }
+            }
+        }
+        bonusYahtzeeCount[player] = bonusYahtzees;
+        fireGameStateChanged(GameEvent.of(GameEvent.Type.MOVE_MADE));
+    }
+
+    /**
+     * Sets the rolls the current player has left, e.g. to restore a saved {@link PackedGameState}.
+     */
+    void restoreRollsRemaining(int rolls) {
+        rollsRemaining = rolls;
+        fireGameStateChanged(GameEvent.of(GameEvent.Type.DICE_ROLLED));
+    }
+
+    /**
+     * Returns {@code true} if the player has already played the given combination.
+     */
+    public boolean hasPlayed(int player, Combination combination) {
+        return movesMade.get(player).containsKey(combination);
     }
 
     public Map<Combination, Integer> getPlayerMoves(int player) {
@@ -203,7 +374,7 @@ public class YahtzeeGame {
     }
 
     public int getUpperSectionBonusScore(int player) {
-        return upperSectionScore[player] >= 63 ? 35 : 0;
+        return upperSectionScore[player] >= rules.upperBonusThreshold() ? rules.upperBonus() : 0;
     }
 
     public int getLowerSectionScore(int player) {
@@ -215,7 +386,15 @@ public class YahtzeeGame {
     }
 
     public int getBonusYahtzeeScore(int player) {
-        return 100 * bonusYahtzeeCount[player];
+        return rules.yahtzeeBonus() * bonusYahtzeeCount[player];
+    }
+
+    /**
+     * Returns {@code true} if the player's all-same box (Yahtzee) has scored, making further Yahtzees worth a bonus
+     * under rules that have one.
+     */
+    public boolean hasYahtzeeBonus(int player) {
+        return yahtzeeCombo != null && movesMade.get(player).getOrDefault(yahtzeeCombo, 0) != 0;
     }
 
     public int getPlayerScore(int player) {
@@ -232,20 +411,36 @@ public class YahtzeeGame {
 
     public void setDice(List<Integer> newDice) {
         dice.setDice(newDice);
+        if (recorder != null) {
+            recorder.diceSet(this);
+        }
     }
 
     public boolean isYahtzee() {
-        return dice.getDice().stream().allMatch(x -> x == dice.getDie(0));
+        return scoringTable.isYahtzee(dice.getMultiset());
     }
 
-    private void fireGameStateChanged() {
-        for (GameStateListener l : listeners) {
-            l.gameStateChanged();
+    private int score(int box) {
+        return scoringTable.score(dice.getMultiset(), box, isJoker());
+    }
+
+    private void fireGameStateChanged(GameEvent event) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+
+        long start = metrics.startTimer();
+        for (int i = 0; i < listeners.size(); i++) {
+            Subscription subscription = listeners.get(i);
+            if ((subscription.types() & event.types()) != 0) {
+                subscription.listener().gameStateChanged(event);
+            }
         }
+        metrics.listenersNotified(start);
     }
 
     public boolean isGameOver() {
-        int moveCount = getLowerCombinations().size() + getUpperCombinations().size();
+        int moveCount = combinations.size();
         for (Map<Combination, Integer> playerMoves : movesMade) {
             if (playerMoves.size() != moveCount) {
                 return false;
@@ -256,28 +451,210 @@ public class YahtzeeGame {
 
     public interface GameStateListener {
         /**
-         * Informs the listener that the game state has changed. A fancier version might tell the listener exactly what
-         * has changed (e.g. dice rolled, move made, etc.).
+         * Informs the listener that the game state has changed, and what kind of change it was.
          */
-        void gameStateChanged();
-    }
-
-    private static int longestSequenceLength(List<Integer> sequence) {
-        int length = 1;
-        int max = 1;
-        for (int i = 1; i < sequence.size(); i++) {
-            int cur = sequence.get(i);
-            int last = sequence.get(i - 1);
-            if (cur == last + 1) {
-                length++;
-                if (length > max) {
-                    max = length;
+        void gameStateChanged(GameEvent event);
+    }
+
+    private record Subscription(GameStateListener listener, int types) {
+    }
+
+    private class View implements GameView {
+        @Override
+        public ScoringTable getScoringTable() {
+            return scoringTable;
+        }
+
+        @Override
+        public int getPlayerCount() {
+            return players.size();
+        }
+
+        @Override
+        public int getWhoseTurn() {
+            return whoseTurn;
+        }
+
+        @Override
+        public int getRollsRemaining() {
+            return rollsRemaining;
+        }
+
+        @Override
+        public int getDie(int die) {
+            return dice.getDie(die);
+        }
+
+        @Override
+        public boolean isHeld(int die) {
+            return dice.isHeld(die);
+        }
+
+        @Override
+        public int getMultiset() {
+            return dice.getMultiset();
+        }
+
+        @Override
+        public int getPlayedBoxes(int player) {
+            return YahtzeeGame.this.getPlayedBoxes(player);
+        }
+
+        @Override
+        public int getScore(int box) {
+            return score(box);
+        }
+
+        @Override
+        public int getPlayerScore(int player) {
+            return YahtzeeGame.this.getPlayerScore(player);
+        }
+
+        @Override
+        public int getUpperSectionScore(int player) {
+            return YahtzeeGame.this.getUpperSectionScore(player);
+        }
+
+        @Override
+        public boolean hasYahtzeeBonus(int player) {
+            return YahtzeeGame.this.hasYahtzeeBonus(player);
+        }
+
+        @Override
+        public PackedGameState getState(int player) {
+            return PackedGameState.of(YahtzeeGame.this, player);
+        }
+
+        @Override
+        public boolean isGameOver() {
+            return YahtzeeGame.this.isGameOver();
+        }
+    }
+
+    private static final class ViewCopy implements GameView {
+        private final ScoringTable scoringTable;
+        private final int whoseTurn;
+        private final int rollsRemaining;
+        private final int[] dice;
+        private final int held;
+        private final int multiset;
+        private final int[] scores;
+        private final int[] playedBoxes;
+        private final int[] playerScores;
+        private final int[] upperSectionScores;
+        private final boolean[] yahtzeeBonuses;
+        // Only standard games can be packed.
+        private final PackedGameState[] states;
+        private final boolean gameOver;
+
+        ViewCopy(GameView view) {
+            scoringTable = view.getScoringTable();
+            whoseTurn = view.getWhoseTurn();
+            rollsRemaining = view.getRollsRemaining();
+            multiset = view.getMultiset();
+            gameOver = view.isGameOver();
+
+            dice = new int[scoringTable.getDiceCount()];
+            int heldDice = 0;
+            for (int die = 0; die < dice.length; die++) {
+                dice[die] = view.getDie(die);
+                heldDice |= view.isHeld(die) ? 1 << die : 0;
+            }
+            held = heldDice;
+
+            scores = new int[scoringTable.getBoxCount()];
+            for (int box = 0; box < scores.length; box++) {
+                scores[box] = view.getScore(box);
+            }
+
+            int players = view.getPlayerCount();
+            playedBoxes = new int[players];
+            playerScores = new int[players];
+            upperSectionScores = new int[players];
+            yahtzeeBonuses = new boolean[players];
+            states = scoringTable == ScoringTable.get() ? new PackedGameState[players] : null;
+            for (int player = 0; player < players; player++) {
+                playedBoxes[player] = view.getPlayedBoxes(player);
+                playerScores[player] = view.getPlayerScore(player);
+                upperSectionScores[player] = view.getUpperSectionScore(player);
+                yahtzeeBonuses[player] = view.hasYahtzeeBonus(player);
+                if (states != null) {
+                    states[player] = view.getState(player);
                 }
-            } else if (cur != last) {
-                length = 1;
             }
         }
 
-        return max;
+        @Override
+        public ScoringTable getScoringTable() {
+            return scoringTable;
+        }
+
+        @Override
+        public int getPlayerCount() {
+            return playedBoxes.length;
+        }
+
+        @Override
+        public int getWhoseTurn() {
+            return whoseTurn;
+        }
+
+        @Override
+        public int getRollsRemaining() {
+            return rollsRemaining;
+        }
+
+        @Override
+        public int getDie(int die) {
+            return dice[die];
+        }
+
+        @Override
+        public boolean isHeld(int die) {
+            return (held & (1 << die)) != 0;
+        }
+
+        @Override
+        public int getMultiset() {
+            return multiset;
+        }
+
+        @Override
+        public int getPlayedBoxes(int player) {
+            return playedBoxes[player];
+        }
+
+        @Override
+        public int getScore(int box) {
+            return scores[box];
+        }
+
+        @Override
+        public int getPlayerScore(int player) {
+            return playerScores[player];
+        }
+
+        @Override
+        public int getUpperSectionScore(int player) {
+            return upperSectionScores[player];
+        }
+
+        @Override
+        public boolean hasYahtzeeBonus(int player) {
+            return yahtzeeBonuses[player];
+        }
+
+        @Override
+        public PackedGameState getState(int player) {
+            if (states == null) {
+                throw new IllegalArgumentException("Only standard games can be packed, not " + scoringTable.getRules());
+            }
+            return states[player];
+        }
+
+        @Override
+        public boolean isGameOver() {
+            return gameOver;
+        }
     }
 }
@@ -1,10 +1,27 @@
 package org.example;
 
+import java.time.Duration;
+
 public class YahtzeePlayer {
+    /**
+     * How long a bot gets for each decision unless told otherwise.
+     */
+    public static final Duration DEFAULT_DECISION_BUDGET = Duration.ofMillis(50);
+
     private String name;
+    private YahtzeeStrategy strategy;
+    private Duration decisionBudget = DEFAULT_DECISION_BUDGET;
 
     public YahtzeePlayer(String name) {
+        this(name, null);
+    }
+
+    /**
+     * Creates a bot played by the given strategy, or a human player if it is {@code null}.
+     */
+    public YahtzeePlayer(String name, YahtzeeStrategy strategy) {
         this.name = name;
+        this.strategy = strategy;
     }
 
     public String getName() {
@@ -15,6 +32,29 @@ public class YahtzeePlayer {
         this.name = name;
     }
 
+    /**
+     * Returns the strategy that plays for this player, or {@code null} if a human does.
+     */
+    public YahtzeeStrategy getStrategy() {
+        return strategy;
+    }
+
+    public void setStrategy(YahtzeeStrategy strategy) {
+        this.strategy = strategy;
+    }
+
+    public boolean isBot() {
+        return strategy != null;
+    }
+
+    public Duration getDecisionBudget() {
+        return decisionBudget;
+    }
+
+    public void setDecisionBudget(Duration decisionBudget) {
+        this.decisionBudget = decisionBudget;
+    }
+
     @Override
     public String toString() {
         return getName();
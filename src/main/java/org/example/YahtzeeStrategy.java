@@ -0,0 +1,21 @@
+package org.example;
+
+/**
+ * Makes a bot player's decisions. The game asks for holds before each roll the player has left, then for the box to
+ * play.
+ *
+ * <p>Each call gets a deadline, a {@link System#nanoTime} value by which it should have returned. A strategy that
+ * searches should stop there with the best answer so far; one that cannot answer in time should fall back to something
+ * cheaper.
+ */
+public interface YahtzeeStrategy {
+    /**
+     * Returns the dice to hold for the next roll, with bit {@code i} set to hold die {@code i}, or -1 to stop rolling.
+     */
+    int chooseHolds(GameView game, long deadline);
+
+    /**
+     * Returns the {@link ScoringTable} box to play, which must not have been played yet.
+     */
+    int chooseBox(GameView game, long deadline);
+}
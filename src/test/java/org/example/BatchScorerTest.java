@@ -0,0 +1,73 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchScorerTest {
+
+    @Test
+    public void testEveryRollMatchesScoringTable() {
+        // Every ordered roll twice, without and then with a Joker, starting at an odd offset to exercise the tails.
+        int offset = 3;
+        int rows = offset + 2 * ScoringTable.ROLL_COUNT;
+        int[][] dice = new int[ScoringTable.DICE_COUNT][rows];
+        byte[][] bytes = new byte[ScoringTable.DICE_COUNT][rows];
+        int[] histograms = new int[rows];
+        boolean[] joker = new boolean[rows];
+        ScoringTable table = ScoringTable.get();
+        for (int row = offset; row < rows; row++) {
+            int roll = (row - offset) % ScoringTable.ROLL_COUNT;
+            for (int i = 0, r = roll; i < ScoringTable.DICE_COUNT; i++, r /= ScoringTable.FACE_COUNT) {
+                dice[i][row] = r % ScoringTable.FACE_COUNT + 1;
+                bytes[i][row] = (byte) dice[i][row];
+            }
+            histograms[row] = table.histogram(table.multisetOf(roll));
+            joker[row] = row - offset >= ScoringTable.ROLL_COUNT;
+        }
+
+        int[][] fromInts = new int[ScoringTable.BOX_COUNT][rows];
+        int[][] fromBytes = new int[ScoringTable.BOX_COUNT][rows];
+        int[][] fromHistograms = new int[ScoringTable.BOX_COUNT][rows];
+        BatchScorer.scoreDice(dice, joker, offset, rows, fromInts);
+        BatchScorer.scoreDice(bytes, joker, offset, rows, fromBytes);
+        BatchScorer.scoreHistograms(histograms, joker, offset, rows, fromHistograms);
+
+        for (int row = offset; row < rows; row++) {
+            int multiset = table.multisetOf((row - offset) % ScoringTable.ROLL_COUNT);
+            for (int box = 0; box < ScoringTable.BOX_COUNT; box++) {
+                int expected = table.score(multiset, box, joker[row]);
+                assertEquals(expected, fromInts[box][row]);
+                assertEquals(expected, fromBytes[box][row]);
+                assertEquals(expected, fromHistograms[box][row]);
+            }
+        }
+    }
+
+    @Test
+    public void testBadFace() {
+        // Bad faces in the first and the last row, so both the vector and the scalar paths meet one.
+        for (int bad : new int[] {0, 63}) {
+            int[][] dice = new int[ScoringTable.DICE_COUNT][64];
+            byte[][] bytes = new byte[ScoringTable.DICE_COUNT][64];
+            for (int i = 0; i < ScoringTable.DICE_COUNT; i++) {
+                Arrays.fill(dice[i], i + 1);
+                Arrays.fill(bytes[i], (byte) (i + 1));
+            }
+            dice[2][bad] = 7;
+            bytes[4][bad] = 0;
+            int[][] scores = new int[ScoringTable.BOX_COUNT][64];
+            assertThrows(IllegalArgumentException.class, () -> BatchScorer.scoreDice(dice, null, 0, 64, scores));
+            assertThrows(IllegalArgumentException.class, () -> BatchScorer.scoreDice(bytes, null, 0, 64, scores));
+        }
+    }
+
+    @Test
+    public void testBadHistogram() {
+        int[] histograms = new int[64];
+        int[][] scores = new int[ScoringTable.BOX_COUNT][64];
+        assertThrows(IllegalArgumentException.class, () -> BatchScorer.scoreHistograms(histograms, null, 0, 64, scores));
+    }
+}
@@ -0,0 +1,76 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CliTest {
+    @Test
+    public void testBotsPlayToTheEnd() throws IOException {
+        String output = run("", "play", "--seed", "3", "greedy", "greedy");
+        assertEquals(2 * ScoringTable.BOX_COUNT, output.lines().filter(line -> line.startsWith("Bot ")).count());
+        assertTrue(output.contains("Total"));
+        assertFalse(output.contains("Game abandoned"));
+    }
+
+    @Test
+    public void testHumanTurn() throws IOException {
+        String output = run("roll 1 7\nroll 1 2\nscore chance\n", "--rules", "yatzy", "play", "--seed", "3");
+        assertTrue(output.contains("No die 7"));
+        assertTrue(output.contains("(1 rolls left)"));
+        assertTrue(output.contains("Game abandoned"));
+        assertTrue(output.lines().anyMatch(line -> line.startsWith("Chance") && !line.endsWith("-")));
+        assertTrue(output.lines().anyMatch(line -> line.startsWith("Ones") && line.endsWith("-")));
+    }
+
+    @Test
+    public void testReplaysLoggedGame(@TempDir Path directory) throws IOException {
+        String played = run("", "play", "--seed", "9", "--log", directory.toString(), "greedy");
+        assertTrue(played.startsWith("Logging as game 0"));
+
+        String replayed = run("", "replay", directory.toString(), "0");
+        assertEquals(totalLine(played), totalLine(replayed));
+    }
+
+    @Test
+    public void testReportsStoredGames(@TempDir Path directory) throws IOException {
+        run("", "simulate", "--store", directory.toString(), "500", "2");
+
+        String report = run("", "report", directory.toString());
+        assertTrue(report.startsWith("1000 player games"));
+        assertTrue(report.lines().anyMatch(line -> line.startsWith("Yahtzee ") && line.contains("scratched")));
+        assertTrue(report.contains("Upper section bonus missed"));
+    }
+
+    @Test
+    public void testBadArguments() throws IOException {
+        var out = new ByteArrayOutputStream();
+        assertEquals(2, cli("", out).run(new String[] {"deal"}));
+        assertEquals(1, cli("", out).run(new String[] {"play", "wizard"}));
+        assertEquals(1, cli("", out).run(new String[] {"--rules"}));
+        assertTrue(out.toString(StandardCharsets.UTF_8).contains("Unknown player type wizard"));
+    }
+
+    private static String run(String input, String... args) throws IOException {
+        var out = new ByteArrayOutputStream();
+        assertEquals(0, cli(input, out).run(args));
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static Cli cli(String input, ByteArrayOutputStream out) {
+        return new Cli(new BufferedReader(new StringReader(input)), new PrintStream(out, true, StandardCharsets.UTF_8));
+    }
+
+    private static String totalLine(String output) {
+        return output.lines().filter(line -> line.startsWith("Total")).findFirst().orElseThrow();
+    }
+}
@@ -0,0 +1,98 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.FloatBuffer;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DecisionCacheTest {
+    private final ValueTable table = syntheticTable();
+
+    @Test
+    public void testCachedDecisionsMatch() {
+        var cache = new DecisionCache(table);
+        var cached = new HoldEvaluator(cache);
+        var direct = new HoldEvaluator(table);
+        var random = new SplittableRandom(5);
+        for (int i = 0; i < 200; i++) {
+            var game = new YahtzeeGame(List.of(new YahtzeePlayer("Solo")));
+            int turns = random.nextInt(ScoringTable.BOX_COUNT);
+            for (int turn = 0; turn < turns; turn++) {
+                game.makeMove(game.getCombination(GreedyStrategy.INSTANCE.chooseBox(game.getView(), 0)));
+            }
+            GameView view = game.getView();
+            assertEquals(direct.bestHolds(view), cached.bestHolds(view));
+            assertEquals(direct.bestBox(view), cached.bestBox(view));
+            assertEquals(direct.evaluateStop(view), cached.evaluateStop(view), 1e-9);
+        }
+    }
+
+    @Test
+    public void testSpeculatedTurnIsAHit() throws InterruptedException {
+        var cache = new DecisionCache(table);
+        var game = new YahtzeeGame(List.of(new YahtzeePlayer("Solo")));
+        game.setDice(List.of(3, 3, 3, 2, 2));
+        cache.speculateMove(game.getView(), ScoringTable.THREES);
+        game.makeMove(game.getCombination(ScoringTable.THREES));
+        int state = ValueTable.stateOf(game, 0);
+        assertTrue(cache.isCached(state));
+
+        // Once the speculation is done, the next turn's first decision should not evaluate anything.
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (!cache.isEvaluated(state)) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for speculation");
+            Thread.sleep(1);
+        }
+        new HoldEvaluator(cache).bestHolds(game.getView());
+        assertEquals(1, cache.getHits());
+        assertEquals(0, cache.getMisses());
+    }
+
+    @Test
+    public void testSpeculatesNextPlayer() {
+        var cache = new DecisionCache(table);
+        var game = new YahtzeeGame(List.of(new YahtzeePlayer("A"), new YahtzeePlayer("B")));
+        cache.attach(game);
+        game.makeMove(game.getCombination(ScoringTable.CHANCE));
+        // B's opening turn was speculated when the game started, and A's second turn when B's began.
+        assertTrue(cache.isCached(ValueTable.state(0, 0, false)));
+        assertTrue(cache.isCached(ValueTable.state(1 << ScoringTable.CHANCE, 0, false)));
+    }
+
+    @Test
+    public void testFailedEvaluationIsForgotten() {
+        // Too small a table for any turn to be evaluated from it.
+        var broken = new ValueTable(FloatBuffer.allocate(1));
+        var cache = DecisionCache.of(broken);
+        assertSame(cache, DecisionCache.of(broken));
+        assertNotSame(cache, DecisionCache.of(table));
+
+        int state = ValueTable.state(0, 0, false);
+        assertThrows(IndexOutOfBoundsException.class, () -> cache.get(state));
+        assertFalse(cache.isCached(state));
+        assertThrows(IndexOutOfBoundsException.class, () -> cache.get(state));
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        var cache = new DecisionCache(table);
+        for (int played = 0; played <= DecisionCache.MAX_ENTRIES; played++) {
+            cache.speculate(ValueTable.state(played, 0, false));
+        }
+        assertFalse(cache.isCached(ValueTable.state(0, 0, false)));
+        assertTrue(cache.isCached(ValueTable.state(DecisionCache.MAX_ENTRIES, 0, false)));
+    }
+
+    // Future values that depend on the state, so that different states play differently.
+    private static ValueTable syntheticTable() {
+        FloatBuffer values = FloatBuffer.allocate(ValueTable.STATE_COUNT);
+        for (int state = 0; state < ValueTable.STATE_COUNT; state++) {
+            values.put(state, 3 * Integer.bitCount(~state >>> 7 & 0x1fff) + (state >>> 1 & 63) / 4f);
+        }
+        return new ValueTable(values);
+    }
+}
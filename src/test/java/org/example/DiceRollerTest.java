@@ -0,0 +1,66 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DiceRollerTest {
+
+    @Test
+    public void testFacesAreUniform() {
+        DiceRoller roller = DiceRoller.seeded(1);
+        int[] counts = new int[7];
+        for (int i = 0; i < 600_000; i++) {
+            counts[roller.nextFace()]++;
+        }
+        assertEquals(0, counts[0]);
+        for (int face = 1; face <= 6; face++) {
+            assertEquals(100_000, counts[face], 1500);
+        }
+    }
+
+    @Test
+    public void testSeededGamesReplayExactly() {
+        List<YahtzeePlayer> players = List.of(new YahtzeePlayer("Patrick"));
+        YahtzeeGame first = new YahtzeeGame(players, new YahtzeeDice(DiceRoller.seeded(99)));
+        YahtzeeGame second = new YahtzeeGame(players, new YahtzeeDice(DiceRoller.seeded(99)));
+
+        Simulator.playGame(first);
+        Simulator.playGame(second);
+
+        assertEquals(first.getPlayerScore(0), second.getPlayerScore(0));
+        assertEquals(first.getDice().getDice(), second.getDice().getDice());
+    }
+
+    @Test
+    public void testSplitStreamsDiffer() {
+        RandomDiceRoller roller = DiceRoller.seeded(5);
+        RandomDiceRoller split = roller.split();
+        byte[] a = new byte[64];
+        byte[] b = new byte[64];
+        roller.nextFaces(a);
+        split.nextFaces(b);
+        assertFalse(Arrays.equals(a, b));
+    }
+
+    @Test
+    public void testReplay() {
+        byte[] faces = new byte[10];
+        DiceRoller.seeded(3).nextFaces(faces);
+
+        BufferedDiceRoller replay = DiceRoller.replay(faces);
+        YahtzeeDice dice = new YahtzeeDice(replay);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(faces[i], dice.getDie(i));
+        }
+
+        dice.setHeld(0, true);
+        dice.roll();
+        assertEquals(faces[0], dice.getDie(0));
+        assertEquals(faces[5], dice.getDie(1));
+        assertEquals(9, replay.getPosition());
+    }
+}
@@ -0,0 +1,111 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.FloatBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DistributionSolverTest {
+    private static final int ALL_PLAYED = (1 << ScoringTable.BOX_COUNT) - 1;
+
+    // With no future value, the last turn is played for the most points.
+    private final ValueTable empty = new ValueTable(FloatBuffer.allocate(ValueTable.STATE_COUNT));
+
+    @Test
+    public void testLastTurnYahtzee() throws IOException {
+        var game = gameWithOpen(ScoringTable.YAHTZEE);
+        ScoreDistribution distribution = solve(empty, game, 1);
+        assertEquals(0.04603, distribution.getProbability(50), 1e-5);
+        assertEquals(1 - distribution.getProbability(50), distribution.getProbability(0), 1e-9);
+        assertEquals(0, distribution.getMin());
+        assertEquals(50, distribution.getMax());
+        assertEquals(50 * 0.04603, distribution.getMean(), 0.001);
+    }
+
+    @Test
+    public void testMeanIsExpectedValue() throws IOException {
+        int open = 1 << ScoringTable.CHANCE | 1 << ScoringTable.FULL_HOUSE | 1 << ScoringTable.YAHTZEE;
+        ValueTable table = solveFrom(ALL_PLAYED & ~open);
+        var game = gameWithOpen(ScoringTable.CHANCE, ScoringTable.FULL_HOUSE, ScoringTable.YAHTZEE);
+
+        ScoreDistribution distribution = solve(table, game, 1);
+        double total = 0;
+        for (int score = distribution.getMin(); score <= distribution.getMax(); score++) {
+            total += distribution.getProbability(score);
+        }
+        assertEquals(1, total, 1e-6);
+        assertEquals(table.get(ValueTable.stateOf(game, 1)), distribution.getMean(), 1e-4);
+        // Fifty, then a full house and five sixes in the chance box as Jokers, with two Yahtzee bonuses.
+        assertEquals(50 + 25 + 30 + 200, distribution.getMax());
+    }
+
+    @Test
+    public void testCurrentTurnAndScore() throws IOException {
+        var game = gameWithOpen(ScoringTable.CHANCE, ScoringTable.SIXES);
+        game.makeMove(game.getCombination(ScoringTable.ACES));
+        game.setDice(List.of(6, 6, 6, 6, 5));
+        game.restoreRollsRemaining(0);
+        // Chance now, for more than the sixes, then whatever the sixes bring.
+        ScoreDistribution distribution = solve(empty, game, 1);
+        assertEquals(29, distribution.getMin());
+        assertEquals(29 + 30, distribution.getMax());
+        // No six in three rolls of every die.
+        assertEquals(Math.pow(5 / 6.0, 15), distribution.getProbability(29), 1e-9);
+        assertEquals(ScoreDistribution.of(0).toString(), solve(empty, gameWithOpen(), 1).toString());
+    }
+
+    @Test
+    public void testProbabilityBeating() {
+        var coin = new ScoreDistribution(10, new double[] {0.5, 0, 0.5});
+        assertEquals(0.5, coin.getProbabilityBeating(ScoreDistribution.of(11)), 1e-12);
+        assertEquals(0.25, coin.getProbabilityBeating(coin), 1e-12);
+        assertEquals(1, coin.getProbabilityBeating(ScoreDistribution.of(5)), 1e-12);
+        assertEquals(0, coin.getProbabilityBeating(ScoreDistribution.of(20)), 1e-12);
+        assertEquals(0.5, coin.getProbabilityAtLeast(11), 1e-12);
+    }
+
+    private static ScoreDistribution solve(ValueTable policy, YahtzeeGame game, int player) throws IOException {
+        Path directory = Files.createTempDirectory("distributions");
+        try {
+            return DistributionSolver.solve(policy, game.getView(), player, 1, directory);
+        } finally {
+            // The layers are gone once the distribution is solved.
+            Files.delete(directory);
+        }
+    }
+
+    // The second player's scorecard, with everything but the given boxes played for nothing.
+    private static YahtzeeGame gameWithOpen(int... boxes) {
+        var game = new YahtzeeGame(List.of(new YahtzeePlayer("A"), new YahtzeePlayer("B")));
+        int[] boxScores = new int[ScoringTable.BOX_COUNT];
+        for (int box : boxes) {
+            boxScores[box] = -1;
+        }
+        game.restoreScorecard(1, boxScores, 0);
+        return game;
+    }
+
+    // The values of every state from the given played boxes on.
+    private static ValueTable solveFrom(int played) {
+        FloatBuffer values = FloatBuffer.allocate(ValueTable.STATE_COUNT);
+        var evaluator = new TurnEvaluator(new ValueTable(values));
+        for (int layer = ScoringTable.BOX_COUNT - 1; layer >= Integer.bitCount(played); layer--) {
+            for (int mask = played; mask < ALL_PLAYED; mask = (mask + 1) | played) {
+                if (Integer.bitCount(mask) != layer) {
+                    continue;
+                }
+                for (int upper = 0; upper <= ValueTable.UPPER_BONUS_THRESHOLD; upper++) {
+                    for (boolean bonus : new boolean[] {false, true}) {
+                        values.put(ValueTable.state(mask, upper, bonus), (float) evaluator.evaluate(mask, upper, bonus));
+                    }
+                }
+            }
+        }
+        return new ValueTable(values);
+    }
+}
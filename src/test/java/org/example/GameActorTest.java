@@ -0,0 +1,80 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameActorTest {
+
+    @Test
+    public void testCommandsFromManyThreads() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        ExecutorService producers = Executors.newFixedThreadPool(4);
+        try {
+            List<YahtzeePlayer> players = List.of(new YahtzeePlayer("A"), new YahtzeePlayer("B"));
+            var actor = new GameActor(new YahtzeeGame(players, new YahtzeeDice(DiceRoller.seeded(1))), pool);
+
+            // Every thread toggles dice concurrently; the game must see each command exactly once.
+            List<CompletableFuture<?>> results = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int die = t;
+                results.add(CompletableFuture.runAsync(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        actor.setDieHeld(die, i % 2 == 0).join();
+                    }
+                }, producers));
+            }
+            for (CompletableFuture<?> result : results) {
+                result.join();
+            }
+            assertEquals(4000, actor.snapshot().version());
+            assertEquals(0, actor.snapshot().heldDice());
+
+            GameSnapshot rolled = actor.rollDice().join();
+            assertEquals(1, rolled.rollsRemaining());
+
+            GameSnapshot moved = actor.makeMove(ScoringTable.CHANCE).join();
+            assertEquals(1, moved.whoseTurn());
+            assertEquals(rolled.getDie(0) + rolled.getDie(1) + rolled.getDie(2) + rolled.getDie(3)
+                    + rolled.getDie(4), moved.getPlayerScore(0));
+
+            CompletionException e = assertThrows(CompletionException.class,
+                    () -> actor.makeMove(ScoringTable.CHANCE).thenCompose(s -> actor.makeMove(ScoringTable.CHANCE))
+                            .join());
+            assertInstanceOf(IllegalStateException.class, e.getCause());
+            assertEquals(Integer.valueOf(0), actor.execute(YahtzeeGame::getWhoseTurn).join());
+        } finally {
+            pool.shutdown();
+            producers.shutdown();
+        }
+    }
+
+    @Test
+    public void testRejectsVariants() {
+        List<YahtzeePlayer> players = List.of(new YahtzeePlayer("A"));
+        assertThrows(IllegalArgumentException.class,
+                () -> new GameActor(YahtzeeGame.of(RuleSet.named("yatzy"), players), Runnable::run));
+    }
+
+    @Test
+    public void testQueueOrder() {
+        var queue = new MpscQueue<Integer>();
+        assertTrue(queue.isEmpty());
+        for (int i = 0; i < 10; i++) {
+            queue.offer(i);
+        }
+        assertFalse(queue.isEmpty());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(Integer.valueOf(i), queue.poll());
+        }
+        assertNull(queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+}
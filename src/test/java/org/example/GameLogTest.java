@@ -0,0 +1,80 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameLogTest {
+    private static final List<YahtzeePlayer> PLAYERS = List.of(new YahtzeePlayer("Patrick"), new YahtzeePlayer("James"));
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testReplay() throws IOException {
+        List<PackedGameState> afterFiveMoves = new ArrayList<>();
+        List<YahtzeeGame> games = new ArrayList<>();
+
+        // Small segments, so that the games span several of them.
+        try (GameLog log = new GameLog(directory, 100)) {
+            for (int seed = 0; seed < 3; seed++) {
+                YahtzeeGame game = new YahtzeeGame(PLAYERS, new YahtzeeDice(DiceRoller.seeded(seed)));
+                assertEquals(seed, log.attach(game));
+                game.addGameStateListener(event -> {
+                    int moves = Integer.bitCount(game.getPlayedBoxes(0)) + Integer.bitCount(game.getPlayedBoxes(1));
+                    if (moves == 5 && afterFiveMoves.size() == games.size()) {
+                        afterFiveMoves.add(PackedGameState.of(game, 0));
+                    }
+                }, GameEvent.Type.MOVE_MADE);
+                Simulator.playGame(game);
+                games.add(game);
+            }
+
+            for (int i = 0; i < games.size(); i++) {
+                YahtzeeGame replayed = log.replay(i);
+                assertTrue(replayed.isGameOver());
+                for (int player = 0; player < PLAYERS.size(); player++) {
+                    assertEquals(PackedGameState.of(games.get(i), player), PackedGameState.of(replayed, player));
+                }
+                assertEquals(afterFiveMoves.get(i), PackedGameState.of(log.replay(i, 5), 0));
+            }
+        }
+
+        // Reopening the log picks up where it left off.
+        try (GameLog log = new GameLog(directory, 100)) {
+            assertEquals(games.get(2).getPlayerScore(1), log.replay(2).getPlayerScore(1));
+            assertEquals(3, log.attach(new YahtzeeGame(PLAYERS)));
+        }
+    }
+
+    @Test
+    public void testReplaySetDice() throws IOException {
+        try (GameLog log = new GameLog(directory, 100)) {
+            YahtzeeGame game = new YahtzeeGame(PLAYERS, new YahtzeeDice(DiceRoller.seeded(1)));
+            long gameId = log.attach(game);
+            // Another game's records in between are skipped.
+            YahtzeeGame other = new YahtzeeGame(PLAYERS, new YahtzeeDice(DiceRoller.seeded(2)));
+            log.attach(other);
+            Simulator.playGame(other);
+
+            game.setDice(List.of(6, 6, 6, 6, 6));
+            game.makeMove(game.getCombination(ScoringTable.YAHTZEE));
+            game.setDice(List.of(1, 2, 3, 4, 5));
+            game.makeMove(game.getCombination(ScoringTable.LARGE_STRAIGHT));
+
+            YahtzeeGame replayed = log.replay(gameId);
+            assertEquals(50, replayed.getPlayerScore(0));
+            assertEquals(40, replayed.getPlayerScore(1));
+            assertEquals(50, log.replay(gameId, 1).getPlayerScore(0));
+            assertEquals(0, log.replay(gameId, 1).getPlayerScore(1));
+            assertEquals(other.getPlayerScore(1), log.replay(gameId + 1).getPlayerScore(1));
+            assertThrows(IllegalArgumentException.class, () -> log.replay(gameId + 2));
+        }
+    }
+}
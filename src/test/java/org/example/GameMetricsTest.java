@@ -0,0 +1,43 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameMetricsTest {
+
+    @Test
+    public void testCountsAndMBean() throws Exception {
+        GameMetrics metrics = GameMetrics.get();
+        GameMetrics.register();
+        GameMetrics.register();
+
+        long started = metrics.getGamesStarted();
+        long finished = metrics.getGamesFinished();
+        long moves = metrics.getMoves();
+        long rolls = metrics.getRolls();
+
+        YahtzeeGame game = new YahtzeeGame(List.of(new YahtzeePlayer("Patrick")),
+                new YahtzeeDice(DiceRoller.seeded(5)));
+        game.addGameStateListener(event -> {
+        });
+        game.rollDice();
+        Simulator.playGame(game);
+
+        // Other tests may be playing games at the same time, so only check lower bounds.
+        assertTrue(metrics.getGamesStarted() >= started + 1);
+        assertTrue(metrics.getGamesFinished() >= finished + 1);
+        assertTrue(metrics.getMoves() >= moves + 13);
+        assertTrue(metrics.getRolls() >= rolls + 14);
+        assertTrue(metrics.getMoveP50Nanos() > 0);
+        assertTrue(metrics.getListenerFanOutMaxNanos() > 0);
+
+        Object attribute = ManagementFactory.getPlatformMBeanServer()
+                .getAttribute(new ObjectName(GameMetrics.OBJECT_NAME), "Moves");
+        assertTrue((Long) attribute >= moves + 13);
+    }
+}
@@ -0,0 +1,123 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameRecordStoreTest {
+    private static final List<YahtzeePlayer> PLAYERS = List.of(new YahtzeePlayer("Patrick"), new YahtzeePlayer("James"));
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testQueriesMatchGames() throws IOException {
+        List<YahtzeeGame> games = new ArrayList<>();
+        // Small segments, so that queries span several of them and the last is partly filled.
+        try (var store = new GameRecordStore(directory, RuleSet.YAHTZEE, 50)) {
+            for (int seed = 0; seed < 100; seed++) {
+                var game = new YahtzeeGame(PLAYERS, new YahtzeeDice(DiceRoller.seeded(seed)));
+                Simulator.playGame(game);
+                store.append(game);
+                games.add(game);
+            }
+        }
+
+        long yahtzeeScratched = 0;
+        long missedBonus = 0;
+        long missedUpperTotal = 0;
+        long[] totals = new long[PLAYERS.size()];
+        long wins = 0;
+        for (YahtzeeGame game : games) {
+            for (int player = 0; player < PLAYERS.size(); player++) {
+                if (game.getPlayerMoves(player).get(game.getCombination(ScoringTable.YAHTZEE)) == 0) {
+                    yahtzeeScratched++;
+                }
+                if (game.getUpperSectionBonusScore(player) == 0) {
+                    missedBonus++;
+                    missedUpperTotal += game.getUpperSectionScore(player);
+                }
+                totals[player] += game.getPlayerScore(player);
+                wins += game.getPlayerScore(player) >= game.getPlayerScore(1 - player) ? 1 : 0;
+            }
+        }
+
+        try (var store = new GameRecordStore(directory, RuleSet.YAHTZEE, 50)) {
+            assertEquals(200, store.getRowCount());
+            assertEquals(yahtzeeScratched, store.query(2).where(GameRecordStore.box(ScoringTable.YAHTZEE), 0).count());
+            GameRecordStore.Aggregate missed = store.query(2).where(GameRecordStore.UPPER_BONUS, 0)
+                    .aggregate(GameRecordStore.UPPER_TOTAL);
+            assertEquals(missedBonus, missed.count());
+            assertEquals(missedUpperTotal, missed.sum());
+            assertTrue(missed.max() < ValueTable.UPPER_BONUS_THRESHOLD);
+
+            SortedMap<Integer, GameRecordStore.Aggregate> byPlayer = store.query(2)
+                    .aggregateBy(GameRecordStore.PLAYER, GameRecordStore.TOTAL);
+            assertEquals(List.of(0, 1), List.copyOf(byPlayer.keySet()));
+            assertEquals(totals[0], byPlayer.get(0).sum());
+            assertEquals(totals[1], byPlayer.get(1).sum());
+            assertEquals(wins, store.query(1).where(GameRecordStore.WINNER, 1).count());
+            // No row can match, so every segment is skipped.
+            assertEquals(0, store.query(2).where(GameRecordStore.TOTAL, 2000, 3000).count());
+            assertTrue(Double.isNaN(store.query(1).where(GameRecordStore.PLAYERS, 3).aggregate(0).mean()));
+        }
+    }
+
+    @Test
+    public void testRunsAcrossBlocks() throws IOException {
+        try (var store = new GameRecordStore(directory, RuleSet.YAHTZEE, 5000)) {
+            var three = List.of(new YahtzeePlayer("A"), new YahtzeePlayer("B"), new YahtzeePlayer("C"));
+            for (int seed = 0; seed < 1200; seed++) {
+                var game = new YahtzeeGame(seed < 600 ? PLAYERS : three, new YahtzeeDice(DiceRoller.seeded(seed)));
+                Simulator.playGame(game);
+                store.append(game);
+            }
+            store.flush();
+
+            // The player count column is two long runs, in one segment read in blocks of rows.
+            SortedMap<Integer, GameRecordStore.Aggregate> byPlayers = store.query(1)
+                    .aggregateBy(GameRecordStore.PLAYERS, GameRecordStore.PLAYER);
+            assertEquals(1200, byPlayers.get(2).count());
+            assertEquals(600, byPlayers.get(2).sum());
+            assertEquals(1800, byPlayers.get(3).count());
+            assertEquals(1800, byPlayers.get(3).sum());
+            assertEquals(600, store.query(1).where(GameRecordStore.PLAYERS, 3).where(GameRecordStore.PLAYER, 2).count());
+        }
+    }
+
+    @Test
+    public void testSimulatedBatches() throws IOException {
+        // Each simulation leaf appends more rows than a segment holds, from one of several threads.
+        try (var store = new GameRecordStore(directory, RuleSet.YAHTZEE, 300)) {
+            Simulator.Result result = new Simulator(2, 4).run(2000, 5, store);
+            assertEquals(4000, store.getRowCount());
+            GameRecordStore.Aggregate totals = store.query(2).aggregate(GameRecordStore.TOTAL);
+            assertEquals(result.scores().getCount(), totals.count());
+            assertEquals(result.scores().getMean(), totals.mean(), 1e-9);
+            assertEquals(result.scores().getMin(), totals.min());
+            assertEquals(result.scores().getMax(), totals.max());
+        }
+    }
+
+    @Test
+    public void testRejectsOtherGames() throws IOException {
+        try (var store = new GameRecordStore(directory, RuleSet.YAHTZEE, 10)) {
+            assertThrows(IllegalArgumentException.class, () -> store.append(new YahtzeeGame(PLAYERS)));
+            var yatzy = YahtzeeGame.of(RuleSet.named("yatzy"), PLAYERS);
+            Simulator.playGame(yatzy);
+            assertThrows(IllegalArgumentException.class, () -> store.append(yatzy));
+
+            var game = new YahtzeeGame(PLAYERS);
+            Simulator.playGame(game);
+            store.append(game);
+        }
+        assertThrows(IOException.class, () -> new GameRecordStore(directory, RuleSet.named("yatzy"), 10));
+    }
+}
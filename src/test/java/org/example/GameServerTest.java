@@ -0,0 +1,64 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameServerTest {
+
+    @Test
+    public void testPlayGameOverLoopback() throws Exception {
+        try (var server = new GameServer(0); var client = new GameServer.Client(server.getPort())) {
+            var latency = new LatencyHistogram();
+            int[] scores = GameServer.playGame(client, 2, 7, latency);
+
+            assertEquals(2, scores.length);
+            assertEquals(26, latency.getCount());
+            assertEquals(26, server.getStats().moves());
+            assertEquals(1, server.getStats().sessionsCompleted());
+            assertEquals(0, server.getSessionCount());
+            assertEquals("SCORES", client.send("SCORES")[0]);
+            assertEquals(Integer.toString(scores[1]), client.send("SCORES")[2]);
+        }
+    }
+
+    @Test
+    public void testSharedSessionAndErrors() throws Exception {
+        try (var server = new GameServer(0);
+             var first = new GameServer.Client(server.getPort());
+             var second = new GameServer.Client(server.getPort())) {
+            assertThrows(IllegalStateException.class, () -> first.send("ROLL"));
+            assertThrows(IllegalStateException.class, () -> first.send("FOLD"));
+
+            String id = first.send("NEW 1 3")[1];
+            assertEquals("GAME", second.send("JOIN " + id)[0]);
+            assertEquals("OK", second.send("HOLD 0 1")[0]);
+
+            String[] state = first.send("ROLL");
+            assertEquals("1", state[2]);
+            assertEquals(second.send("STATE")[3], state[3]);
+
+            first.send("ROLL");
+            assertThrows(IllegalStateException.class, () -> first.send("ROLL"));
+            assertThrows(IllegalStateException.class, () -> first.send("MOVE 13"));
+            assertEquals("BYE", first.send("QUIT")[0]);
+        }
+    }
+
+    @Test
+    public void testNewGameDropsUnfinishedOne() throws Exception {
+        try (var server = new GameServer(0);
+             var first = new GameServer.Client(server.getPort());
+             var second = new GameServer.Client(server.getPort())) {
+            String id = first.send("NEW 2")[1];
+            second.send("JOIN " + id);
+            for (int i = 0; i < 3; i++) {
+                first.send("NEW 2");
+                assertEquals(1, server.getSessionCount());
+            }
+            assertThrows(IllegalStateException.class, () -> second.send("JOIN " + id));
+            // The game that was dropped can still be played by those already in it.
+            assertEquals("STATE", second.send("ROLL")[0]);
+        }
+    }
+}
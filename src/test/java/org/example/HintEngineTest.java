@@ -0,0 +1,120 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.FloatBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HintEngineTest {
+    // With no future value, every box is worth what it scores now.
+    private final ValueTable empty = new ValueTable(FloatBuffer.allocate(ValueTable.STATE_COUNT));
+
+    @Test
+    public void testHintsEveryBox() throws InterruptedException {
+        var game = new YahtzeeGame(List.of(new YahtzeePlayer("Solo")));
+        game.setDice(List.of(6, 6, 6, 6, 6));
+        var deliveries = new ConcurrentLinkedQueue<Runnable>();
+        var hints = new Hints();
+        new HintEngine(game, () -> empty, deliveries::add, hints);
+
+        runWhenQueued(deliveries, 1 + ScoringTable.BOX_COUNT);
+        assertEquals(50, hints.boxes.get(ScoringTable.YAHTZEE), 1e-9);
+        assertEquals(30, hints.boxes.get(ScoringTable.SIXES), 1e-9);
+        assertEquals(0, hints.boxes.get(ScoringTable.LARGE_STRAIGHT), 1e-9);
+        assertEquals(-1, hints.bestHolds);
+        assertEquals(50, hints.bestValue, 1e-9);
+    }
+
+    @Test
+    public void testStaleHintsAreDropped() throws InterruptedException {
+        var game = new YahtzeeGame(List.of(new YahtzeePlayer("Solo")));
+        game.setDice(List.of(6, 6, 6, 6, 6));
+        var deliveries = new ConcurrentLinkedQueue<Runnable>();
+        var hints = new Hints();
+        new HintEngine(game, () -> empty, deliveries::add, hints);
+
+        waitForQueued(deliveries, 1 + ScoringTable.BOX_COUNT);
+        game.setDieHeld(0, true);
+        for (int i = 0; i < 1 + ScoringTable.BOX_COUNT; i++) {
+            deliveries.remove().run();
+        }
+        assertTrue(hints.boxes.isEmpty());
+        assertTrue(Double.isNaN(hints.heldValue));
+
+        runWhenQueued(deliveries, 1 + ScoringTable.BOX_COUNT);
+        assertEquals(ScoringTable.BOX_COUNT, hints.boxes.size());
+        // One six held, with 50 still the best there is.
+        assertTrue(hints.heldValue > 0 && hints.heldValue < 50);
+    }
+
+    @Test
+    public void testNoHintsForBots() throws InterruptedException {
+        var game = new YahtzeeGame(List.of(new YahtzeePlayer("Bot", GreedyStrategy.INSTANCE)));
+        var deliveries = new ConcurrentLinkedQueue<Runnable>();
+        new HintEngine(game, () -> empty, deliveries::add, new Hints());
+        Thread.sleep(50);
+        assertTrue(deliveries.isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> new HintEngine(
+                YahtzeeGame.of(RuleSet.MAXI_YATZY, List.of(new YahtzeePlayer("Solo"))), Runnable::run, new Hints()));
+    }
+
+    @Test
+    public void testFailedLoadIsNotRetried() throws InterruptedException {
+        var game = new YahtzeeGame(List.of(new YahtzeePlayer("Solo")));
+        var loads = new AtomicInteger();
+        var deliveries = new ConcurrentLinkedQueue<Runnable>();
+        new HintEngine(game, () -> {
+            loads.incrementAndGet();
+            throw new IOException("No table");
+        }, deliveries::add, new Hints());
+
+        game.rollDice();
+        game.setDieHeld(0, true);
+        game.rollDice();
+        Thread.sleep(50);
+        assertEquals(1, loads.get());
+        assertTrue(deliveries.isEmpty());
+    }
+
+    private static void waitForQueued(Queue<Runnable> deliveries, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (deliveries.size() < count) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for hints");
+            Thread.sleep(1);
+        }
+    }
+
+    private static void runWhenQueued(Queue<Runnable> deliveries, int count) throws InterruptedException {
+        waitForQueued(deliveries, count);
+        for (Runnable delivery; (delivery = deliveries.poll()) != null; ) {
+            delivery.run();
+        }
+    }
+
+    private static class Hints implements HintEngine.HintListener {
+        final Map<Integer, Double> boxes = new ConcurrentHashMap<>();
+        int bestHolds;
+        double bestValue;
+        double heldValue = Double.NaN;
+
+        @Override
+        public void boxHint(int box, double value) {
+            boxes.put(box, value);
+        }
+
+        @Override
+        public void holdHint(int bestHolds, double bestValue, double heldValue) {
+            this.bestHolds = bestHolds;
+            this.bestValue = bestValue;
+            this.heldValue = heldValue;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HoldEvaluatorTest {
+    private final ValueTable empty = new ValueTable(FloatBuffer.allocate(ValueTable.STATE_COUNT));
+
+    @Test
+    public void testLastTurnYahtzeeHolds() {
+        YahtzeeGame game = new YahtzeeGame(List.of(new YahtzeePlayer("Patrick")));
+        int[] boxScores = new int[ScoringTable.BOX_COUNT];
+        Arrays.fill(boxScores, 0);
+        boxScores[ScoringTable.YAHTZEE] = -1;
+        game.restoreScorecard(0, boxScores, 0);
+        game.setDice(List.of(3, 1, 3, 5, 3));
+
+        var evaluator = new HoldEvaluator(empty);
+        double[] values = evaluator.evaluateHolds(game.getView());
+
+        // Two rolls to turn three threes into five: 1/36 + 10/36 * 1/6 + 25/36 * 1/36.
+        assertEquals(50 * 121 / 1296.0, values[0b10101], 1e-6);
+        assertEquals(0b10101, evaluator.bestHolds(game.getView()));
+        for (int holds = 0; holds < HoldEvaluator.HOLD_COUNT; holds++) {
+            assertTrue(values[holds] <= values[0b10101]);
+        }
+        // Holding either of two equal dice is the same hold.
+        assertEquals(values[0b00001], values[0b00100]);
+        assertEquals(0.0, evaluator.evaluateStop(game.getView()));
+        assertEquals(ScoringTable.YAHTZEE, evaluator.bestBox(game.getView()));
+
+        game.rollDice();
+        game.rollDice();
+        assertThrows(IllegalStateException.class, () -> evaluator.evaluateHolds(game.getView()));
+        assertEquals(-1, evaluator.bestHolds(game.getView()));
+    }
+}
@@ -0,0 +1,58 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testPercentiles() {
+        var histogram = new LatencyHistogram();
+        for (long i = 1; i <= 100_000; i++) {
+            histogram.record(i * 1000);
+        }
+
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(50_000_500, histogram.getMeanNanos(), 1);
+        assertEquals(50_000_000, histogram.getPercentileNanos(50), 50_000_000 * 0.07);
+        assertEquals(99_000_000, histogram.getPercentileNanos(99), 99_000_000 * 0.07);
+        assertEquals(100_000_000, histogram.getPercentileNanos(100));
+    }
+
+    @Test
+    public void testRecordsFromManyThreads() throws InterruptedException {
+        var histogram = new LatencyHistogram();
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            long latency = (t + 1) * 100;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    histogram.record(latency);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(80_000, histogram.getCount());
+        assertEquals(450, histogram.getMeanNanos(), 1e-9);
+        assertEquals(800, histogram.getMaxNanos());
+        var copy = new LatencyHistogram();
+        copy.add(histogram);
+        assertEquals(80_000, copy.getCount());
+        assertEquals(800, copy.getMaxNanos());
+        assertEquals(histogram.getPercentileNanos(50), copy.getPercentileNanos(50));
+    }
+
+    @Test
+    public void testBuckets() {
+        for (long value : new long[]{0, 1, 15, 16, 17, 1000, 123_456_789, Long.MAX_VALUE}) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            assertTrue(LatencyHistogram.upperBound(bucket) >= value);
+            assertTrue(bucket == 0 || LatencyHistogram.upperBound(bucket - 1) < value);
+        }
+    }
+}
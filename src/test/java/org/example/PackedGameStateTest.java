@@ -0,0 +1,63 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PackedGameStateTest {
+
+    @Test
+    public void testRoundTrip() {
+        YahtzeeGame game = new YahtzeeGame(List.of(new YahtzeePlayer("Patrick")), new YahtzeeDice(DiceRoller.seeded(1)));
+        game.setDice(List.of(6, 6, 6, 6, 6));
+        game.makeMove(game.getCombination(ScoringTable.YAHTZEE));
+        game.setDice(List.of(6, 6, 6, 6, 6));
+        game.makeMove(game.getCombination(ScoringTable.SIXES));
+        game.setDice(List.of(1, 2, 3, 4, 5));
+        game.makeMove(game.getCombination(ScoringTable.CHANCE));
+        game.setDice(List.of(2, 2, 3, 3, 3));
+        game.makeMove(game.getCombination(ScoringTable.SMALL_STRAIGHT));
+        game.setDice(List.of(4, 1, 4, 2, 4));
+        game.rollDice();
+        game.setDice(List.of(4, 1, 4, 2, 4));
+
+        PackedGameState state = PackedGameState.of(game, 0);
+        assertEquals(game.getPlayedBoxes(0), state.getPlayedBoxes());
+        assertEquals(50, state.getBoxScore(ScoringTable.YAHTZEE));
+        assertEquals(30, state.getBoxScore(ScoringTable.SIXES));
+        assertEquals(15, state.getBoxScore(ScoringTable.CHANCE));
+        assertEquals(0, state.getBoxScore(ScoringTable.SMALL_STRAIGHT));
+        assertEquals(-1, state.getBoxScore(ScoringTable.FULL_HOUSE));
+        assertEquals(1, state.getBonusYahtzeeCount());
+        assertTrue(state.hasYahtzeeBonus());
+        assertEquals(1, state.getRollsRemaining());
+        assertEquals(game.getPlayerScore(0), state.getPlayerScore());
+        assertEquals(ValueTable.stateOf(game, 0), state.getValueTableState());
+
+        YahtzeeGame restored = new YahtzeeGame(List.of(new YahtzeePlayer("James")));
+        state.applyTo(restored, 0);
+        assertEquals(game.getPlayerScore(0), restored.getPlayerScore(0));
+        for (int box = 0; box < ScoringTable.BOX_COUNT; box++) {
+            assertEquals(game.getPlayerMoves(0).get(game.getCombination(box)),
+                    restored.getPlayerMoves(0).get(restored.getCombination(box)));
+        }
+        assertEquals(List.of(1, 2, 4, 4, 4), restored.getDice().getDice());
+        assertEquals(1, restored.getRollsRemaining());
+        assertEquals(state, PackedGameState.of(restored, 0));
+    }
+
+    @Test
+    public void testKeyIgnoresDiceOrder() {
+        YahtzeeGame game = new YahtzeeGame(List.of(new YahtzeePlayer("Patrick")));
+        game.setDice(List.of(3, 1, 2, 5, 5));
+        PackedGameState first = PackedGameState.of(game, 0);
+        game.setDice(List.of(5, 2, 5, 1, 3));
+        PackedGameState second = PackedGameState.of(game, 0);
+
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+        assertEquals(first.keyHash64(), second.keyHash64());
+    }
+}
@@ -0,0 +1,117 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RuleSetTest {
+    @Test
+    public void testCompiledOncePerRuleSet() {
+        assertSame(ScoringTable.get(), ScoringTable.of(RuleSet.YAHTZEE));
+        assertSame(ScoringTable.of(RuleSet.YATZY), ScoringTable.of(RuleSet.YATZY));
+        assertSame(RuleSet.MAXI_YATZY, RuleSet.named("maxi yatzy"));
+    }
+
+    @Test
+    public void testYatzyScores() {
+        ScoringTable table = ScoringTable.of(RuleSet.YATZY);
+        assertEquals(ScoringTable.MULTISET_COUNT, table.getMultisetCount());
+
+        int m = multiset(table, 3, 3, 5, 5, 5);
+        assertEquals(10, table.score(m, box(RuleSet.YATZY, "One pair"), false));
+        assertEquals(16, table.score(m, box(RuleSet.YATZY, "Two pairs"), false));
+        assertEquals(15, table.score(m, box(RuleSet.YATZY, "Three of a kind"), false));
+        assertEquals(21, table.score(m, box(RuleSet.YATZY, "Full house"), false));
+
+        // Pairs and sets must be of different faces.
+        m = multiset(table, 4, 4, 4, 4, 1);
+        assertEquals(0, table.score(m, box(RuleSet.YATZY, "Two pairs"), false));
+        assertEquals(0, table.score(m, box(RuleSet.YATZY, "Full house"), false));
+        assertEquals(16, table.score(m, box(RuleSet.YATZY, "Four of a kind"), false));
+
+        assertEquals(15, table.score(multiset(table, 5, 4, 3, 2, 1), box(RuleSet.YATZY, "Small straight"), false));
+        assertEquals(0, table.score(multiset(table, 6, 4, 3, 2, 1), box(RuleSet.YATZY, "Small straight"), false));
+        assertEquals(20, table.score(multiset(table, 6, 4, 3, 2, 5), box(RuleSet.YATZY, "Large straight"), false));
+        assertEquals(50, table.score(multiset(table, 2, 2, 2, 2, 2), box(RuleSet.YATZY, "Yatzy"), true));
+        assertEquals(0, table.score(multiset(table, 2, 2, 2, 2, 2), box(RuleSet.YATZY, "Full house"), true));
+    }
+
+    @Test
+    public void testMaxiYatzyScores() {
+        ScoringTable table = ScoringTable.of(RuleSet.MAXI_YATZY);
+        assertEquals(6, table.getDiceCount());
+        assertEquals(462, table.getMultisetCount());
+
+        int m = multiset(table, 6, 6, 6, 2, 2, 2);
+        assertEquals(24, table.score(m, box(RuleSet.MAXI_YATZY, "Villa"), false));
+        assertEquals(22, table.score(m, box(RuleSet.MAXI_YATZY, "Full house"), false));
+        assertEquals(16, table.score(m, box(RuleSet.MAXI_YATZY, "Two pairs"), false));
+        assertEquals(0, table.score(m, box(RuleSet.MAXI_YATZY, "Tower"), false));
+
+        assertEquals(21, table.score(multiset(table, 1, 2, 3, 4, 5, 6), box(RuleSet.MAXI_YATZY, "Full straight"), false));
+        assertEquals(100, table.score(multiset(table, 4, 4, 4, 4, 4, 4), box(RuleSet.MAXI_YATZY, "Maxi Yatzy"), false));
+        assertTrue(table.isYahtzee(multiset(table, 4, 4, 4, 4, 4, 4)));
+        assertFalse(table.isYahtzee(multiset(table, 4, 4, 4, 4, 4, 3)));
+    }
+
+    @Test
+    public void testYatzyGameHasNoBonusYatzys() {
+        var game = YahtzeeGame.of(RuleSet.YATZY, List.of(new YahtzeePlayer("Solo")));
+        assertEquals(6, game.getUpperCombinations().size());
+        assertEquals(9, game.getLowerCombinations().size());
+
+        game.setDice(List.of(6, 6, 6, 6, 6));
+        game.makeMove(comboByName(game, "Yatzy"));
+        assertEquals(50, game.getPlayerScore(0));
+
+        game.setDice(List.of(6, 6, 6, 6, 6));
+        assertFalse(game.isJoker());
+        game.makeMove(comboByName(game, "Sixes"));
+        assertEquals(0, game.getBonusYahtzeeCount(0));
+        assertEquals(80, game.getPlayerScore(0));
+    }
+
+    @Test
+    public void testMaxiYatzyGamePlaysToTheEnd() {
+        var game = new YahtzeeGame(List.of(new YahtzeePlayer("Solo")),
+                new YahtzeeDice(ScoringTable.of(RuleSet.MAXI_YATZY), DiceRoller.seeded(7)));
+        assertEquals(6, game.getDice().getDiceCount());
+
+        Simulator.playGame(game);
+        assertTrue(game.isGameOver());
+        assertEquals((1 << 20) - 1, game.getPlayedBoxes(0));
+    }
+
+    @Test
+    public void testSolverSupport() {
+        assertTrue(SolitaireSolver.supports(RuleSet.YAHTZEE));
+        assertTrue(SolitaireSolver.supports(RuleSet.YATZY));
+        assertFalse(SolitaireSolver.supports(RuleSet.MAXI_YATZY));
+        assertThrows(IllegalArgumentException.class, () -> SolitaireSolver.solve(RuleSet.MAXI_YATZY, 1));
+    }
+
+    @Test
+    public void testUpperBoxesComeFirst() {
+        assertThrows(IllegalArgumentException.class, () -> new RuleSet("Backwards", 5,
+                List.of(BoxRule.chance("Chance"), BoxRule.face("Aces", 1)), 63, 35, 0, false));
+    }
+
+    private static int multiset(ScoringTable table, int... dice) {
+        return table.multisetOf(ScoringTable.rollIndex(dice));
+    }
+
+    private static int box(RuleSet rules, String name) {
+        for (int box = 0; box < rules.getBoxCount(); box++) {
+            if (rules.boxes().get(box).name().equals(name)) {
+                return box;
+            }
+        }
+        throw new IllegalArgumentException(name);
+    }
+
+    private static Combination comboByName(YahtzeeGame game, String name) {
+        return game.getCombination(box(game.getRules(), name));
+    }
+}
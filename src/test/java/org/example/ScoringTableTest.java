@@ -0,0 +1,66 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScoringTableTest {
+    private final ScoringTable table = ScoringTable.get();
+
+    @Test
+    public void testMultisetCount() {
+        Set<Integer> multisets = new HashSet<>();
+        for (int roll = 0; roll < ScoringTable.ROLL_COUNT; roll++) {
+            multisets.add(table.multisetOf(roll));
+        }
+        assertEquals(ScoringTable.MULTISET_COUNT, multisets.size());
+    }
+
+    @Test
+    public void testOrderDoesNotMatter() {
+        assertEquals(multiset(1, 2, 3, 4, 6), multiset(6, 4, 3, 2, 1));
+        assertEquals(multiset(2, 2, 5, 5, 5), multiset(5, 2, 5, 2, 5));
+        assertNotEquals(multiset(2, 2, 5, 5, 5), multiset(2, 2, 2, 5, 5));
+    }
+
+    @Test
+    public void testScores() {
+        int m = multiset(3, 3, 3, 5, 5);
+        assertEquals(0, table.score(m, ScoringTable.ACES, false));
+        assertEquals(9, table.score(m, ScoringTable.THREES, false));
+        assertEquals(10, table.score(m, ScoringTable.FIVES, false));
+        assertEquals(19, table.score(m, ScoringTable.CHANCE, false));
+        assertEquals(19, table.score(m, ScoringTable.THREE_OF_A_KIND, false));
+        assertEquals(0, table.score(m, ScoringTable.FOUR_OF_A_KIND, false));
+        assertEquals(25, table.score(m, ScoringTable.FULL_HOUSE, false));
+        assertEquals(0, table.score(m, ScoringTable.SMALL_STRAIGHT, false));
+        assertEquals(0, table.score(m, ScoringTable.YAHTZEE, false));
+
+        m = multiset(1, 3, 4, 5, 6);
+        assertEquals(30, table.score(m, ScoringTable.SMALL_STRAIGHT, false));
+        assertEquals(0, table.score(m, ScoringTable.LARGE_STRAIGHT, false));
+
+        m = multiset(2, 3, 4, 5, 6);
+        assertEquals(30, table.score(m, ScoringTable.SMALL_STRAIGHT, false));
+        assertEquals(40, table.score(m, ScoringTable.LARGE_STRAIGHT, false));
+    }
+
+    @Test
+    public void testJokerScores() {
+        int m = multiset(4, 4, 4, 4, 4);
+        assertTrue(table.isYahtzee(m));
+        assertEquals(0, table.score(m, ScoringTable.FULL_HOUSE, false));
+        assertEquals(25, table.score(m, ScoringTable.FULL_HOUSE, true));
+        assertEquals(30, table.score(m, ScoringTable.SMALL_STRAIGHT, true));
+        assertEquals(40, table.score(m, ScoringTable.LARGE_STRAIGHT, true));
+        assertEquals(20, table.score(m, ScoringTable.FOUR_OF_A_KIND, true));
+        assertEquals(50, table.score(m, ScoringTable.YAHTZEE, true));
+    }
+
+    private int multiset(int... dice) {
+        return table.multisetOf(ScoringTable.rollIndex(dice));
+    }
+}
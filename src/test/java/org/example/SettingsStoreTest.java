@@ -0,0 +1,73 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.time.Duration;
+import java.util.prefs.BackingStoreException;
+import java.util.prefs.Preferences;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SettingsStoreTest {
+    @Test
+    public void testRoundTrip() throws BackingStoreException {
+        Preferences node = newNode();
+        var settings = new SettingsStore(node, Duration.ofHours(1));
+        assertNull(settings.getPoint("pos"));
+        assertEquals(7, settings.getInt("count", 7));
+
+        settings.putPoint("pos", new Point(-10, 20));
+        settings.putDimension("size", new Dimension(640, 480));
+        settings.putInt("count", 3);
+        settings.put("name", "");
+        assertEquals(new Point(-10, 20), settings.getPoint("pos"));
+        assertEquals(new Dimension(640, 480), settings.getDimension("size"));
+        assertEquals(3, settings.getInt("count", 7));
+        assertEquals("", settings.get("name", "default"));
+        node.removeNode();
+    }
+
+    @Test
+    public void testWritesBehind() throws BackingStoreException {
+        Preferences node = newNode();
+        var settings = new SettingsStore(node, Duration.ofHours(1));
+        for (int x = 0; x < 100; x++) {
+            settings.putPoint("pos", new Point(x, 0));
+        }
+        assertNull(node.get("pos", null));
+
+        settings.flush();
+        assertEquals("99,0", node.get("pos", null));
+        assertEquals(new Point(99, 0), new SettingsStore(node, Duration.ofHours(1)).getPoint("pos"));
+        node.removeNode();
+    }
+
+    @Test
+    public void testFlushesWhenQuiet() throws InterruptedException, BackingStoreException {
+        Preferences node = newNode();
+        var settings = new SettingsStore(node, Duration.ofMillis(20));
+        settings.putInt("count", 5);
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (node.get("count", null) == null && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals("5", node.get("count", null));
+        node.removeNode();
+    }
+
+    @Test
+    public void testUnreadableValuesFallBack() throws BackingStoreException {
+        Preferences node = newNode();
+        node.putByteArray("pos", new byte[] {1, 2, 3});
+        node.put("count", "many");
+        var settings = new SettingsStore(node, Duration.ofHours(1));
+        assertNull(settings.getPoint("pos"));
+        assertEquals(2, settings.getInt("count", 2));
+        node.removeNode();
+    }
+
+    private static Preferences newNode() {
+        return Preferences.userRoot().node("org/example/settings-store-test-" + System.nanoTime());
+    }
+}
@@ -0,0 +1,62 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SimulatorTest {
+
+    @Test
+    public void testSameSeedSameResultsAtAnyParallelism() {
+        Simulator.Result serial = new Simulator(2, 1).run(2000, 7);
+        Simulator.Result parallel = new Simulator(2, 4).run(2000, 7);
+
+        assertEquals(4000, serial.scores().getCount());
+        assertEquals(serial.scores().getMean(), parallel.scores().getMean(), 1e-9);
+        assertEquals(serial.scores().getMin(), parallel.scores().getMin());
+        assertEquals(serial.scores().getMax(), parallel.scores().getMax());
+    }
+
+    @Test
+    public void testCombineStatistics() {
+        ScoreStatistics all = new ScoreStatistics();
+        ScoreStatistics left = new ScoreStatistics();
+        ScoreStatistics right = new ScoreStatistics();
+        int[] scores = {120, 250, 98, 301, 187, 187, 402};
+        for (int i = 0; i < scores.length; i++) {
+            all.add(scores[i]);
+            (i < 3 ? left : right).add(scores[i]);
+        }
+        left.combine(right);
+
+        assertEquals(all.getCount(), left.getCount());
+        assertEquals(all.getMean(), left.getMean(), 1e-9);
+        assertEquals(all.getVariance(), left.getVariance(), 1e-6);
+        assertEquals(98, left.getMin());
+        assertEquals(402, left.getMax());
+        assertEquals(2, left.getFrequency(187));
+        assertEquals(187, left.getPercentile(0.5));
+    }
+
+    @Test
+    public void testScoresOfOtherRules() {
+        assertEquals(ScoreStatistics.MAX_SCORE, ScoringTable.get().getMaxScore());
+        RuleSet rules = RuleSet.YAHTZEE;
+        var generous = new RuleSet("Generous", rules.diceCount(), rules.boxes(), rules.upperBonusThreshold(),
+                rules.upperBonus(), 1000, rules.jokers());
+        int maxScore = ScoringTable.of(generous).getMaxScore();
+        assertEquals(ScoreStatistics.MAX_SCORE + 12 * 900, maxScore);
+
+        Simulator.Result result = new Simulator(generous, 1, 2).run(2000, 3);
+        assertEquals(2000, result.scores().getCount());
+        assertTrue(result.scores().getMax() <= maxScore);
+
+        var scores = new ScoreStatistics();
+        assertThrows(IllegalArgumentException.class, () -> scores.add(ScoreStatistics.MAX_SCORE + 1));
+        assertThrows(IllegalArgumentException.class, () -> scores.add(-1));
+        assertEquals(0, scores.getCount());
+        var wide = new ScoreStatistics(maxScore);
+        wide.add(maxScore);
+        assertThrows(IllegalArgumentException.class, () -> scores.combine(wide));
+    }
+}
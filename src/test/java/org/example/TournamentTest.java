@@ -0,0 +1,61 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TournamentTest {
+
+    @Test
+    public void testCommonRandomNumbers() {
+        // The same strategy under two names sees the same dice in every seat, so the results mirror exactly.
+        List<Tournament.Entrant> entrants = List.of(new Tournament.Entrant("A", GreedyStrategy.INSTANCE),
+                new Tournament.Entrant("B", GreedyStrategy.INSTANCE));
+        Tournament.Result result = new Tournament(entrants, 2, 2).roundRobin(200, 3);
+
+        assertEquals(400, result.getGames());
+        Tournament.EntrantStats a = result.getStats(0);
+        Tournament.EntrantStats b = result.getStats(1);
+        assertEquals(a.getScores().getMean(), b.getScores().getMean(), 1e-9);
+        assertEquals(a.getWins(), b.getWins());
+        assertEquals(a.getWins(), a.getLosses());
+        assertEquals(0.5, a.getWinRate(), 1e-9);
+        assertEquals(result.getHeadToHead(0, 1), result.getHeadToHead(1, 0), 1e-9);
+        assertEquals(1.0, a.getScoringFrequency(ScoringTable.CHANCE), 1e-9);
+    }
+
+    @Test
+    public void testSameSeedSameResultsAtAnyParallelism() {
+        List<Tournament.Entrant> entrants = List.of(new Tournament.Entrant("A", GreedyStrategy.INSTANCE),
+                new Tournament.Entrant("B", GreedyStrategy.INSTANCE),
+                new Tournament.Entrant("C", GreedyStrategy.INSTANCE));
+        Tournament.Result serial = new Tournament(entrants, 3, 1).roundRobin(100, 9);
+        Tournament.Result parallel = new Tournament(entrants, 3, 4).roundRobin(100, 9);
+
+        assertEquals(300, serial.getGames());
+        for (int i = 0; i < entrants.size(); i++) {
+            assertEquals(serial.getStats(i).getScores().getMean(), parallel.getStats(i).getScores().getMean(), 1e-9);
+            assertEquals(serial.getStats(i).getWins(), parallel.getStats(i).getWins());
+        }
+    }
+
+    @Test
+    public void testSwiss() {
+        List<Tournament.Entrant> entrants = List.of(new Tournament.Entrant("A", GreedyStrategy.INSTANCE),
+                new Tournament.Entrant("B", GreedyStrategy.INSTANCE),
+                new Tournament.Entrant("C", GreedyStrategy.INSTANCE),
+                new Tournament.Entrant("D", GreedyStrategy.INSTANCE),
+                new Tournament.Entrant("E", GreedyStrategy.INSTANCE));
+        Tournament.Result result = new Tournament(entrants, 2, 2).swiss(3, 10, 1);
+
+        // Two tables a round, each deal played in both seatings; one entrant sits out each round.
+        assertEquals(3 * 2 * 10 * 2, result.getGames());
+        long games = 0;
+        for (int i = 0; i < entrants.size(); i++) {
+            games += result.getStats(i).getGames();
+        }
+        assertEquals(2 * result.getGames(), games);
+    }
+}
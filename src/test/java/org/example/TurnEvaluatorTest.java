@@ -0,0 +1,49 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.FloatBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TurnEvaluatorTest {
+    private static final int ALL_PLAYED = (1 << ScoringTable.BOX_COUNT) - 1;
+
+    private final ValueTable empty = new ValueTable(FloatBuffer.allocate(ValueTable.STATE_COUNT));
+
+    @Test
+    public void testLastTurnChance() {
+        var evaluator = new TurnEvaluator(empty);
+        double value = evaluator.evaluate(ALL_PLAYED & ~(1 << ScoringTable.CHANCE), 0, false);
+        assertEquals(23.33, value, 0.01);
+    }
+
+    @Test
+    public void testLastTurnYahtzee() {
+        // The chance of rolling a Yahtzee in three rolls is about 4.6%.
+        var evaluator = new TurnEvaluator(empty);
+        double value = evaluator.evaluate(ALL_PLAYED & ~(1 << ScoringTable.YAHTZEE), 0, false);
+        assertEquals(50 * 0.04603, value, 0.001);
+    }
+
+    @Test
+    public void testSaveAndLoad() throws IOException {
+        FloatBuffer values = FloatBuffer.allocate(ValueTable.STATE_COUNT);
+        values.put(ValueTable.state(0, 0, false), 254.5f);
+        values.put(ValueTable.state(5, 70, true), 12.25f);
+
+        Path path = Files.createTempFile("values", ".bin");
+        try {
+            new ValueTable(values).save(path);
+            ValueTable loaded = ValueTable.load(path);
+            assertEquals(254.5f, loaded.get(ValueTable.state(0, 0, false)), 0);
+            assertEquals(12.25f, loaded.get(ValueTable.state(5, 63, true)), 0);
+            assertEquals(0f, loaded.get(ValueTable.state(5, 63, false)), 0);
+        } finally {
+            Files.delete(path);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.FloatBuffer;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WinProbabilityEngineTest {
+    // With no future value, playouts play each turn for the most points.
+    private final ValueTable empty = new ValueTable(FloatBuffer.allocate(ValueTable.STATE_COUNT));
+
+    @Test
+    public void testChancesAddUp() {
+        var game = new YahtzeeGame(List.of(new YahtzeePlayer("A"), new YahtzeePlayer("B"), new YahtzeePlayer("C")));
+        var engine = new WinProbabilityEngine(game, empty, 2, WinProbabilityEngine.DEFAULT_MEMORY_BUDGET);
+
+        double[] chances = engine.winProbabilities(deadline(200));
+        assertEquals(3, chances.length);
+        assertEquals(1, chances[0] + chances[1] + chances[2], 1e-9);
+        for (double chance : chances) {
+            assertTrue(chance > 0.1 && chance < 0.6, "Chance " + chance);
+        }
+        assertTrue(engine.getPlayouts() > 0);
+    }
+
+    @Test
+    public void testCertainWinner() {
+        var game = new YahtzeeGame(List.of(new YahtzeePlayer("A"), new YahtzeePlayer("B")));
+        int[] boxScores = new int[ScoringTable.BOX_COUNT];
+        boxScores[ScoringTable.FOUR_OF_A_KIND] = 30;
+        boxScores[ScoringTable.CHANCE] = -1;
+        game.restoreScorecard(0, boxScores, 0);
+        // Only a chance box left, which scores at least 5 and at most 30.
+        boxScores[ScoringTable.FOUR_OF_A_KIND] = 0;
+        game.restoreScorecard(1, boxScores, 0);
+
+        var engine = new WinProbabilityEngine(game, empty, 1, WinProbabilityEngine.DEFAULT_MEMORY_BUDGET);
+        assertArrayEquals(new double[] {1, 0}, engine.winProbabilities(deadline(50)), 1e-9);
+
+        game.makeMove(game.getCombination(ScoringTable.CHANCE));
+        game.makeMove(game.getCombination(ScoringTable.CHANCE));
+        assertTrue(game.isGameOver());
+        assertArrayEquals(new double[] {1, 0}, engine.winProbabilities(deadline(50)), 1e-9);
+    }
+
+    @Test
+    public void testTreeIsReused() {
+        var game = new YahtzeeGame(List.of(new YahtzeePlayer("A"), new YahtzeePlayer("B")));
+        game.setDice(List.of(6, 6, 6, 6, 1));
+        var engine = new WinProbabilityEngine(game, empty, 1, WinProbabilityEngine.DEFAULT_MEMORY_BUDGET);
+        engine.winProbabilities(deadline(300));
+
+        for (int die = 0; die < 4; die++) {
+            game.setDieHeld(die, true);
+        }
+        game.rollDice();
+        // The roll's outcome was searched before it was rolled.
+        assertTrue(engine.getRootVisits() > 0);
+    }
+
+    @Test
+    public void testCompactionKeepsReusedTree() {
+        var game = new YahtzeeGame(List.of(new YahtzeePlayer("A"), new YahtzeePlayer("B")));
+        game.setDice(List.of(6, 6, 6, 6, 1));
+        var engine = new WinProbabilityEngine(game, empty, 2, WinProbabilityEngine.DEFAULT_MEMORY_BUDGET);
+        engine.winProbabilities(deadline(300));
+        for (int die = 0; die < 4; die++) {
+            game.setDieHeld(die, true);
+        }
+        game.rollDice();
+
+        long visits = engine.getRootVisits();
+        long[][] children = engine.getRootChildren();
+        int nodes = engine.getNodeCount();
+        assertTrue(children.length > 0);
+        engine.compact();
+        // Only the subtree under the new root is copied, with everything it had learned.
+        assertTrue(engine.getNodeCount() < nodes);
+        assertEquals(visits, engine.getRootVisits());
+        assertTrue(Arrays.deepEquals(children, engine.getRootChildren()));
+
+        engine.winProbabilities(deadline(50));
+        assertTrue(engine.getRootVisits() > visits);
+    }
+
+    @Test
+    public void testMemoryBudget() {
+        var game = new YahtzeeGame(List.of(new YahtzeePlayer("A"), new YahtzeePlayer("B")));
+        var engine = new WinProbabilityEngine(game, empty, 2, 64 << 10);
+        engine.winProbabilities(deadline(200));
+        assertTrue(engine.getNodeCount() <= engine.getCapacity());
+        assertTrue(engine.getCapacity() < 2_000);
+        // The tree is full, and searches carry on from its leaves.
+        long playouts = engine.getPlayouts();
+        engine.winProbabilities(deadline(50));
+        assertTrue(engine.getPlayouts() > playouts);
+        assertThrows(IllegalArgumentException.class, () -> new WinProbabilityEngine(game, empty, 1, 1 << 10));
+    }
+
+    @Test
+    public void testPlaysAGame() {
+        var bot = new YahtzeePlayer("Bot", GreedyStrategy.INSTANCE);
+        var game = new YahtzeeGame(List.of(bot, new YahtzeePlayer("Greedy", GreedyStrategy.INSTANCE)));
+        var engine = new WinProbabilityEngine(game, empty, 2, WinProbabilityEngine.DEFAULT_MEMORY_BUDGET);
+        bot.setStrategy(engine);
+        bot.setDecisionBudget(Duration.ofMillis(5));
+
+        while (!game.isGameOver()) {
+            game.playBotTurn();
+        }
+        double[] chances = engine.winProbabilities(deadline(0));
+        assertEquals(1, chances[0] + chances[1], 1e-9);
+        assertEquals(Integer.compare(game.getPlayerScore(0), game.getPlayerScore(1)), Double.compare(chances[0], 0.5));
+    }
+
+    private static long deadline(long millis) {
+        return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+}
@@ -0,0 +1,23 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class YahtzeeDiceTest {
+
+    @Test
+    public void testRejectsFacesOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new YahtzeeDice(7, 1, 1, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new YahtzeeDice(1, 1, 0, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new YahtzeeDice(() -> 7));
+
+        var dice = new YahtzeeDice(1, 2, 3, 4, 5);
+        int multiset = dice.getMultiset();
+        assertThrows(IllegalArgumentException.class, () -> dice.setDice(List.of(6, 6, 6, 6, 7)));
+        assertEquals(List.of(1, 2, 3, 4, 5), dice.getDice());
+        assertEquals(multiset, dice.getMultiset());
+    }
+}
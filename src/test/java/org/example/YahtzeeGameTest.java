@@ -3,6 +3,7 @@ package org.example;
 import com.google.common.collect.Streams;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -151,6 +152,40 @@ public class YahtzeeGameTest {
         assertEquals(20, game.getPlayerScore(0));
     }
 
+    @Test
+    public void testRejectsUnknownBox() {
+        YahtzeeGame game = new YahtzeeGame(List.of(new YahtzeePlayer("Patrick")));
+        assertThrows(IllegalArgumentException.class, () -> game.makeMove(new Combination("Bogus", () -> 5)));
+        assertEquals(0, game.getPlayerScore(0));
+        assertEquals(0, game.getPlayerMoves(0).size());
+    }
+
+    @Test
+    public void testTypedEvents() {
+        YahtzeeGame game = new YahtzeeGame(List.of(new YahtzeePlayer("Patrick")));
+        List<GameEvent> holds = new ArrayList<>();
+        List<GameEvent> all = new ArrayList<>();
+        game.addGameStateListener(holds::add, GameEvent.Type.DIE_HELD);
+        game.addGameStateListener(all::add);
+
+        game.setDieHeld(3, true);
+        game.rollDice();
+        game.makeMove(comboByName(game, "Chance"));
+
+        assertEquals(List.of(GameEvent.dieHeld(3)), holds);
+        assertTrue(holds.get(0).isDieChanged(3));
+        assertFalse(holds.get(0).isDieChanged(2));
+
+        assertEquals(3, all.size());
+        assertTrue(all.get(1).is(GameEvent.Type.DICE_ROLLED));
+        GameEvent move = all.get(2);
+        assertTrue(move.is(GameEvent.Type.MOVE_MADE));
+        assertTrue(move.is(GameEvent.Type.TURN_ADVANCED));
+        assertTrue(move.is(GameEvent.Type.DICE_ROLLED));
+        assertFalse(move.is(GameEvent.Type.GAME_OVER));
+        assertSame(move, all.get(1).merge(GameEvent.of(GameEvent.Type.MOVE_MADE)).with(GameEvent.Type.TURN_ADVANCED));
+    }
+
     private static Combination comboByName(YahtzeeGame g, String name) {
         return Streams.concat(g.getUpperCombinations().stream(), g.getLowerCombinations().stream())
                 .filter(c -> c.getName().equals(name)).findFirst().orElseThrow();
@@ -0,0 +1,65 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.FloatBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class YahtzeeStrategyTest {
+    private final ValueTable empty = new ValueTable(FloatBuffer.allocate(ValueTable.STATE_COUNT));
+
+    @Test
+    public void testTableOfTenBots() {
+        List<YahtzeePlayer> players = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            YahtzeeStrategy strategy = i % 2 == 0 ? GreedyStrategy.INSTANCE : new ExpectedValueStrategy(empty);
+            players.add(new YahtzeePlayer("Bot " + i, strategy));
+        }
+        YahtzeeGame game = new YahtzeeGame(players, new YahtzeeDice(DiceRoller.seeded(11)));
+
+        long start = System.nanoTime();
+        while (game.isBotTurn()) {
+            game.playBotTurn();
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        assertTrue(game.isGameOver());
+        for (int player = 0; player < players.size(); player++) {
+            assertEquals((1 << ScoringTable.BOX_COUNT) - 1, game.getPlayedBoxes(player));
+        }
+        assertTrue(elapsed.toMillis() < 1000, "took " + elapsed);
+    }
+
+    @Test
+    public void testExpectedValueBotKeepsYahtzee() {
+        YahtzeeGame game = new YahtzeeGame(List.of(new YahtzeePlayer("Bot", new ExpectedValueStrategy(empty))));
+        int[] boxScores = new int[ScoringTable.BOX_COUNT];
+        Arrays.fill(boxScores, 0);
+        boxScores[ScoringTable.YAHTZEE] = -1;
+        game.restoreScorecard(0, boxScores, 0);
+        game.setDice(List.of(6, 6, 6, 6, 6));
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(1).toNanos();
+        assertEquals(-1, new ExpectedValueStrategy(empty).chooseHolds(game.getView(), deadline));
+        assertEquals(ScoringTable.YAHTZEE, new ExpectedValueStrategy(empty).chooseBox(game.getView(), deadline));
+
+        // Going for the Yahtzee, the bot holds the threes.
+        game.setDice(List.of(3, 1, 3, 5, 3));
+        assertEquals(0b10101, new ExpectedValueStrategy(empty).chooseHolds(game.getView(), deadline));
+
+        // Out of time, it falls back to greedy play, which does the same here.
+        assertEquals(0b10101, new ExpectedValueStrategy(empty).chooseHolds(game.getView(), System.nanoTime() - 1));
+    }
+
+    @Test
+    public void testHumanPlayerIsNotABot() {
+        YahtzeeGame game = new YahtzeeGame(List.of(new YahtzeePlayer("Human")));
+        assertFalse(game.isBotTurn());
+        assertThrows(IllegalStateException.class, game::playBotTurn);
+    }
+}